@@ -1,12 +1,10 @@
 package com.almasb.zeph;
 
-import com.almasb.fxgl.ai.pathfinding.AStarGrid;
-import com.almasb.fxgl.ai.pathfinding.NodeState;
 import com.almasb.fxgl.ecs.Entity;
 import com.almasb.fxgl.app.ApplicationMode;
+import com.almasb.fxgl.app.FXGL;
 import com.almasb.fxgl.app.GameApplication;
 import com.almasb.fxgl.entity.Entities;
-import com.almasb.fxgl.entity.EntityView;
 import com.almasb.fxgl.entity.GameEntity;
 import com.almasb.fxgl.entity.RenderLayer;
 import com.almasb.fxgl.entity.component.CollidableComponent;
@@ -14,61 +12,103 @@ import com.almasb.fxgl.entity.component.ViewComponent;
 import com.almasb.fxgl.entity.control.OffscreenCleanControl;
 import com.almasb.fxgl.entity.control.ProjectileControl;
 import com.almasb.fxgl.input.UserAction;
-import com.almasb.fxgl.parser.tiled.TiledMap;
 import com.almasb.fxgl.physics.CollisionHandler;
 import com.almasb.fxgl.physics.PhysicsWorld;
 import com.almasb.fxgl.service.Input;
 import com.almasb.fxgl.settings.GameSettings;
 import com.almasb.fxgl.texture.AnimatedTexture;
+import com.almasb.fxgl.texture.Texture;
 import com.almasb.zeph.combat.DamageResult;
-import com.almasb.zeph.combat.GameMath;
+import com.almasb.zeph.debug.FrameProfiler;
+import com.almasb.zeph.debug.SimulationStats;
 import com.almasb.zeph.entity.Data;
-import com.almasb.zeph.entity.DescriptionComponent;
+import com.almasb.zeph.entity.DisposalScope;
 import com.almasb.zeph.entity.EntityManager;
 import com.almasb.zeph.entity.EntityType;
+import com.almasb.zeph.entity.Stash;
 import com.almasb.zeph.entity.character.CharacterEntity;
 import com.almasb.zeph.entity.character.PlayerEntity;
-import com.almasb.zeph.entity.character.component.CharacterDataComponent;
-import com.almasb.zeph.entity.character.component.SubViewComponent;
 import com.almasb.zeph.entity.character.control.PlayerActionControl;
 import com.almasb.zeph.entity.character.control.PlayerControl;
-import com.almasb.zeph.entity.item.ArmorEntity;
-import com.almasb.zeph.entity.item.WeaponEntity;
+import com.almasb.zeph.entity.item.ItemEntity;
 import com.almasb.zeph.entity.item.component.OwnerComponent;
 import com.almasb.zeph.entity.skill.SkillEntity;
 import com.almasb.zeph.entity.skill.SkillTargetType;
 import com.almasb.zeph.entity.skill.SkillType;
 import com.almasb.zeph.entity.skill.SkillUseResult;
+import com.almasb.zeph.map.*;
+import com.almasb.zeph.texture.TextureCache;
 import com.almasb.zeph.ui.*;
-import javafx.animation.Interpolator;
-import javafx.animation.TranslateTransition;
+import com.almasb.zeph.world.CharacterPool;
+import com.almasb.zeph.world.Crowd;
+import com.almasb.zeph.world.GroundLoot;
+import com.almasb.zeph.world.RegionManager;
+import com.almasb.zeph.world.Simulation;
+import com.almasb.zeph.world.SpawnManager;
+import com.almasb.zeph.world.StaticObject;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
-import javafx.scene.Cursor;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.effect.Glow;
 import javafx.scene.input.KeyCode;
-import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.stage.Screen;
 import javafx.util.Duration;
-import kotlin.Pair;
+import org.apache.logging.log4j.Logger;
 
+import javax.management.JMException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 public class ZephyriaApp extends GameApplication {
 
+    private static final Logger log = FXGL.getLogger(ZephyriaApp.class);
+
     private static final int TILE_SIZE = Config.INSTANCE.getTileSize();
-    private static final int MAP_WIDTH = Config.INSTANCE.getMapWidth();
-    private static final int MAP_HEIGHT = Config.INSTANCE.getMapHeight();
 
-    private AStarGrid grid;
+    /**
+     * Seconds between a kill and respawn at the same spawn point.
+     */
+    private static final double RESPAWN_DELAY = 5.0;
+
+    /**
+     * Max distance from mouse click to a drop for it to be picked up.
+     */
+    private static final double LOOT_CLICK_RADIUS = 24;
+
+    /**
+     * Max distance from player to drops picked up with the pick up key.
+     */
+    private static final double LOOT_KEY_RADIUS = TILE_SIZE * 1.5;
+
+    /**
+     * Seconds between leak reports, when leak tracking is on.
+     */
+    private static final double LEAK_REPORT_INTERVAL = 30.0;
+
+    private Level level;
+    private GridPathfinder pathfinder;
+    private RegionManager world;
+    private SpawnManager spawns;
+    private CharacterPool characterPool = new CharacterPool(16);
+    private GroundLoot groundLoot;
+    private Crowd crowd;
+
+    private Stash stash = new Stash();
+
+    private Simulation simulation;
+    private StashView stashView;
+    private HeapBreakdownView heapView;
+    private FrameProfilerView profilerView;
+    private SimulationStats simulationStats = new SimulationStats();
 
     private PlayerEntity player;
     private PlayerControl playerControl;
@@ -82,8 +122,28 @@ public class ZephyriaApp extends GameApplication {
 
     private DropShadow selectedEffect = new DropShadow(20, Color.WHITE);
 
-    public AStarGrid getGrid() {
-        return grid;
+    private GameEntity bg;
+    private TileMapRenderer tileMapRenderer;
+
+    private DamageTextLayer damageText;
+    private CharacterOverlay characterOverlay;
+    private GroundLootLayer groundLootLayer;
+    private CrowdLayer crowdLayer;
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public GridPathfinder getPathfinder() {
+        return pathfinder;
+    }
+
+    public RegionManager getWorld() {
+        return world;
+    }
+
+    public Stash getStash() {
+        return stash;
     }
 
     public PlayerEntity getPlayer() {
@@ -129,6 +189,35 @@ public class ZephyriaApp extends GameApplication {
                 }
             }, key);
         }
+
+        input.addAction(new UserAction("Toggle Stash") {
+            @Override
+            protected void onActionBegin() {
+                stashView.setVisible(!stashView.isVisible());
+            }
+        }, KeyCode.S);
+
+        input.addAction(new UserAction("Pick Up Loot") {
+            @Override
+            protected void onActionBegin() {
+                Point2D center = player.getBoundingBoxComponent().getCenterWorld();
+                pickUpLoot(center.getX(), center.getY(), LOOT_KEY_RADIUS);
+            }
+        }, KeyCode.Z);
+
+        input.addAction(new UserAction("Toggle Heap Breakdown") {
+            @Override
+            protected void onActionBegin() {
+                heapView.setVisible(!heapView.isVisible());
+            }
+        }, KeyCode.M);
+
+        input.addAction(new UserAction("Toggle Frame Profiler") {
+            @Override
+            protected void onActionBegin() {
+                profilerView.setVisible(!profilerView.isVisible());
+            }
+        }, KeyCode.P);
     }
 
     private void onHotbarSkill(int index) {
@@ -172,7 +261,7 @@ public class ZephyriaApp extends GameApplication {
 
         Point2D vector = target.getBoundingBoxComponent().getCenterWorld().subtract(player.getBoundingBoxComponent().getCenterWorld());
 
-        AnimatedTexture animation = player.getData().getAnimation();
+        AnimatedTexture animation = player.getAnimation();
 
         if (Math.abs(vector.getX()) >= Math.abs(vector.getY())) {
             if (vector.getX() >= 0) {
@@ -208,7 +297,7 @@ public class ZephyriaApp extends GameApplication {
                 if (player.isInWeaponRange(target)) {
 
                     SkillUseResult result = playerControl.useTargetSkill(skill, target);
-                    showDamage(result.getDamage(), target.getPositionComponent().getValue());
+                    showDamage(result.getDamage(), target);
 
                     if (target.getHp().getValue() <= 0) {
                         onKill(target);
@@ -227,21 +316,35 @@ public class ZephyriaApp extends GameApplication {
 
     @Override
     protected void initGame() {
-        grid = new AStarGrid(MAP_WIDTH, MAP_HEIGHT);
-
         initBackground();
 
-//        TiledMap map = getAssetLoader().loadJSON("sample_map.json", TiledMap.class);
-//
-//        getGameWorld().setLevelFromMap(map);
-
         selectedEffect.setInput(new Glow(0.8));
 
+        groundLootLayer = new GroundLootLayer(groundLoot, getWidth(), getHeight());
+        characterOverlay = new CharacterOverlay(getWidth(), getHeight());
+        damageText = new DamageTextLayer(getWidth(), getHeight());
+        crowdLayer = new CrowdLayer(crowd, getWidth(), getHeight());
+        getGameScene().addGameView(groundLootLayer);
+        getGameScene().addGameView(crowdLayer);
+        getGameScene().addGameView(characterOverlay);
+        getGameScene().addGameView(damageText);
+
+        try {
+            simulationStats.register();
+        } catch (JMException e) {
+            log.warn("Simulation stats are not available over JMX: " + e);
+        }
+
         initPlayer();
         initEnemies();
 
+        if (DisposalScope.isTracking()) {
+            getMasterTimer().runAtInterval(() -> DisposalScope.reportLeaks().forEach(log::warn),
+                    Duration.seconds(LEAK_REPORT_INTERVAL));
+        }
+
         //showGrid();
-        getGameScene().getViewport().setBounds(0, 0, MAP_WIDTH * TILE_SIZE, MAP_HEIGHT * TILE_SIZE);
+        getGameScene().getViewport().setBounds(0, 0, level.getWidth() * TILE_SIZE, level.getHeight() * TILE_SIZE);
         getGameScene().getViewport().bindToEntity(player, getWidth() / 2, getHeight() / 2);
 
         selected.addListener((observable, oldValue, newEntity) -> {
@@ -273,18 +376,20 @@ public class ZephyriaApp extends GameApplication {
     }
 
     private void initBackground() {
-        GameEntity bg = Entities.builder()
-                .buildAndAttach(getGameWorld());
+        TileMap map = MapLoader.INSTANCE.load("sample_map");
 
-        Region region = new Region();
-        region.setPrefSize(MAP_WIDTH * TILE_SIZE, MAP_HEIGHT * TILE_SIZE);
+        level = MapImporter.INSTANCE.importLevel(map);
+        pathfinder = new GridPathfinder(level.getWalkability());
+        world = new RegionManager(level, new WorldHost(), 16, 1);
+        crowd = new Crowd(level.getWalkability(), new SplittableRandom());
+        groundLoot = new GroundLoot(level.getWidth() * TILE_SIZE, level.getHeight() * TILE_SIZE, 256, 120, 32);
 
-        BackgroundImage bgImg = new BackgroundImage(getAssetLoader().loadTexture("tile.png").getImage(),
-                BackgroundRepeat.REPEAT, BackgroundRepeat.REPEAT, BackgroundPosition.CENTER, BackgroundSize.DEFAULT);
+        tileMapRenderer = new TileMapRenderer(map, getWidth(), getHeight());
 
-        region.setBackground(new Background(bgImg));
+        bg = Entities.builder()
+                .buildAndAttach(getGameWorld());
 
-        bg.getViewComponent().setView(region);
+        bg.getViewComponent().setView(tileMapRenderer.getCanvas());
 
         bg.getViewComponent().getView().setOnMouseClicked(e -> {
 
@@ -298,6 +403,18 @@ public class ZephyriaApp extends GameApplication {
 
             selected.set(null);
 
+            int crowdIndex = crowd.pick(getInput().getMouseXWorld(), getInput().getMouseYWorld());
+            if (crowdIndex >= 0) {
+                CharacterEntity promoted = promote(crowdIndex);
+                if (promoted != null) {
+                    selected.set(promoted);
+                    return;
+                }
+            }
+
+            if (pickUpLoot(getInput().getMouseXWorld(), getInput().getMouseYWorld(), LOOT_CLICK_RADIUS))
+                return;
+
             int targetX = (int) (getInput().getMouseXWorld() / TILE_SIZE);
             int targetY = (int) (getInput().getMouseYWorld() / TILE_SIZE);
 
@@ -317,27 +434,26 @@ public class ZephyriaApp extends GameApplication {
         });
 
         spawnTree(0, 0);
-        spawnTree(0, MAP_HEIGHT - 1);
-        spawnTree(MAP_WIDTH - 1, 0);
-        spawnTree(MAP_WIDTH - 1, MAP_HEIGHT - 1);
+        spawnTree(0, level.getHeight() - 1);
+        spawnTree(level.getWidth() - 1, 0);
+        spawnTree(level.getWidth() - 1, level.getHeight() - 1);
     }
 
     private void spawnTree(int x, int y) {
-        GameEntity tree = Entities.builder()
-                .at(x * TILE_SIZE, y * TILE_SIZE - 85 + 64)
-                .viewFromTexture("tree2.png")
-                .buildAndAttach(getGameWorld());
+        world.addStatic(new StaticObject("tree2.png", x, y, -85 + 64));
 
-        grid.setNodeState(x, y, NodeState.NOT_WALKABLE);
+        level.getWalkability().setWalkable(x, y, false);
     }
 
     private void showGrid() {
+        WalkabilityGrid grid = level.getWalkability();
+
         for (int y = 0; y < grid.getHeight(); y++) {
             for (int x = 0; x < grid.getWidth(); x++) {
                 Rectangle r = new Rectangle(TILE_SIZE - 1, TILE_SIZE - 1, null);
                 r.setTranslateX(x * TILE_SIZE);
                 r.setTranslateY(y * TILE_SIZE);
-                r.setStroke(Color.RED);
+                r.setStroke(grid.isWalkable(x, y) ? Color.RED : Color.BLACK);
 
                 getGameScene().addUINode(r);
             }
@@ -351,18 +467,23 @@ public class ZephyriaApp extends GameApplication {
         physicsWorld.addCollisionHandler(new CollisionHandler(EntityType.PROJECTILE, EntityType.CHARACTER) {
             @Override
             protected void onCollisionBegin(Entity proj, Entity target) {
-                if (proj.getComponentUnsafe(OwnerComponent.class).getValue() == target)
-                    return;
+                long start = FrameProfiler.INSTANCE.begin(FrameProfiler.Section.COLLISION);
+                try {
+                    if (proj.getComponentUnsafe(OwnerComponent.class).getValue() == target)
+                        return;
 
-                proj.removeFromWorld();
+                    proj.removeFromWorld();
 
-                CharacterEntity character = (CharacterEntity) target;
+                    CharacterEntity character = (CharacterEntity) target;
 
-                DamageResult damage = player.getPlayerControl().attack(character);
-                showDamage(damage, character.getPositionComponent().getValue());
+                    DamageResult damage = player.getPlayerControl().attack(character);
+                    showDamage(damage, character);
 
-                if (character.getHp().getValue() <= 0) {
-                    onKill(character);
+                    if (character.getHp().getValue() <= 0) {
+                        onKill(character);
+                    }
+                } finally {
+                    FrameProfiler.INSTANCE.end(FrameProfiler.Section.COLLISION, start);
                 }
             }
         });
@@ -370,37 +491,47 @@ public class ZephyriaApp extends GameApplication {
         physicsWorld.addCollisionHandler(new CollisionHandler(EntityType.PROJECTILE, EntityType.PLAYER) {
             @Override
             protected void onCollisionBegin(Entity proj, Entity target) {
-                if (proj.getComponentUnsafe(OwnerComponent.class).getValue() == target)
-                    return;
+                long start = FrameProfiler.INSTANCE.begin(FrameProfiler.Section.COLLISION);
+                try {
+                    if (proj.getComponentUnsafe(OwnerComponent.class).getValue() == target)
+                        return;
 
-                proj.removeFromWorld();
+                    proj.removeFromWorld();
 
-                CharacterEntity attacker = (CharacterEntity) proj.getComponentUnsafe(OwnerComponent.class).getValue();
-                CharacterEntity character = (CharacterEntity) target;
+                    CharacterEntity attacker = (CharacterEntity) proj.getComponentUnsafe(OwnerComponent.class).getValue();
+                    CharacterEntity character = (CharacterEntity) target;
 
-                DamageResult damage = attacker.getCharConrol().attack(character);
-                showDamage(damage, character.getPositionComponent().getValue());
+                    DamageResult damage = attacker.getCharConrol().attack(character);
+                    showDamage(damage, character);
 
-//                if (character.getHp().getValue() <= 0) {
-//                    onKill(character);
-//                }
+    //                if (character.getHp().getValue() <= 0) {
+    //                    onKill(character);
+    //                }
+                } finally {
+                    FrameProfiler.INSTANCE.end(FrameProfiler.Section.COLLISION, start);
+                }
             }
         });
 
         physicsWorld.addCollisionHandler(new CollisionHandler(EntityType.SKILL_PROJECTILE, EntityType.CHARACTER) {
             @Override
             protected void onCollisionBegin(Entity proj, Entity target) {
-                SkillEntity skill = (SkillEntity) proj.getComponentUnsafe(OwnerComponent.class).getValue();
+                long start = FrameProfiler.INSTANCE.begin(FrameProfiler.Section.COLLISION);
+                try {
+                    SkillEntity skill = (SkillEntity) proj.getComponentUnsafe(OwnerComponent.class).getValue();
 
-                proj.removeFromWorld();
+                    proj.removeFromWorld();
 
-                CharacterEntity character = (CharacterEntity) target;
+                    CharacterEntity character = (CharacterEntity) target;
 
-                SkillUseResult result = playerControl.useTargetSkill(skill, character);
-                showDamage(result.getDamage(), character.getPositionComponent().getValue());
+                    SkillUseResult result = playerControl.useTargetSkill(skill, character);
+                    showDamage(result.getDamage(), character);
 
-                if (character.getHp().getValue() <= 0) {
-                    onKill(character);
+                    if (character.getHp().getValue() <= 0) {
+                        onKill(character);
+                    }
+                } finally {
+                    FrameProfiler.INSTANCE.end(FrameProfiler.Section.COLLISION, start);
                 }
             }
         });
@@ -412,27 +543,15 @@ public class ZephyriaApp extends GameApplication {
      * @param character killed char
      */
     private void onKill(CharacterEntity character) {
-        character.setControlsEnabled(false);
-
-        // TODO: reward based on level differences
-        playerControl.rewardMoney(new Random().nextInt(character.getBaseLevel().get()));
-        playerControl.rewardXP(character.getData().getRewardXP());
-
-        List<Pair<Integer, Integer> > drops = character.getData().getDropItems();
-        drops.forEach(p -> {
-            if (GameMath.INSTANCE.checkChance(p.getSecond())) {
-                dropItem(EntityManager.INSTANCE.getItem(p.getFirst()),
-                        character.getPositionComponent().getValue());
-            }
-        });
+        // a second projectile in flight may hit an already killed character
+        if (!simulation.onKilled(player, character))
+            return;
 
         character.getViewComponent().getView().setOnMouseClicked(null);
         selected.set(null);
 
-        character.getData().getAnimation().setAnimationChannel(CharacterAnimation.DEATH);
-
-        getMasterTimer().runOnceAfter(character::removeFromWorld, Duration.seconds(0.9));
-        getMasterTimer().runOnceAfter(this::initEnemies, Duration.seconds(0.1));
+        // the simulation releases the character once the death animation has played
+        character.getAnimation().setAnimationChannel(CharacterAnimation.DEATH);
     }
 
     private Text debug = new Text();
@@ -450,52 +569,85 @@ public class ZephyriaApp extends GameApplication {
                 new HotbarView(player),
                 new BasicInfoView(player),
                 new CharInfoView(player),
-                new InventoryView(player, getWidth(), getHeight()),
+                new InventoryView(player, stash, getWidth(), getHeight()),
                 new EquipmentView(player, getWidth(), getHeight()));
-    }
 
-    @Override
-    protected void onUpdate(double tpf) {}
+        stashView = new StashView(stash, player, getWidth(), getHeight());
+        stashView.setVisible(false);
+        getGameScene().addUINodes(stashView);
 
-    private void dropItem(Entity item, Point2D position) {
-        DescriptionComponent desc = item.getComponentUnsafe(DescriptionComponent.class);
+        heapView = new HeapBreakdownView(() -> getGameWorld().getEntities(), getWidth(), getHeight());
+        heapView.setVisible(false);
+        getGameScene().addUINodes(heapView);
 
-        EntityView view = new EntityView();
-        view.addNode(getAssetLoader().loadTexture(desc.getTextureName().get()));
-        view.setTranslateX(position.getX());
-        view.setTranslateY(position.getY());
-        view.setCursor(Cursor.CLOSED_HAND);
+        profilerView = new FrameProfilerView();
+        profilerView.setVisible(false);
+        getGameScene().addUINodes(profilerView);
+    }
 
-        view.setOnMouseClicked(event -> {
-            getGameScene().removeGameView(view);
-            player.getInventory().addItem(item);
-        });
+    @Override
+    protected void onUpdate(double tpf) {
+        FrameProfiler.INSTANCE.endFrame();
+
+        double viewX = getGameScene().getViewport().getX();
+        double viewY = getGameScene().getViewport().getY();
+
+        long start = FrameProfiler.INSTANCE.begin(FrameProfiler.Section.WORLD);
+        simulation.onUpdate(tpf, player.getTileX(), player.getTileY());
+        crowd.onUpdate(tpf);
+        FrameProfiler.INSTANCE.end(FrameProfiler.Section.WORLD, start);
+
+        // background canvas covers the screen, so it follows the viewport
+        bg.getPositionComponent().setValue(viewX, viewY);
+        tileMapRenderer.onUpdate(viewX, viewY);
+
+        start = FrameProfiler.INSTANCE.begin(FrameProfiler.Section.UI);
+        groundLootLayer.onUpdate(tpf, viewX, viewY);
+        crowdLayer.onUpdate(tpf, viewX, viewY);
+        characterOverlay.onUpdate(tpf, viewX, viewY);
+        damageText.onUpdate(tpf, viewX, viewY);
+        profilerView.onUpdate(tpf);
+        FrameProfiler.INSTANCE.end(FrameProfiler.Section.UI, start);
+
+        simulationStats.onUpdate(tpf, () -> getGameWorld().getEntities(), simulation, pathfinder);
+    }
 
-        getGameScene().addGameView(view);
+    /**
+     * Picks up all drops within radius of given world point that fit into inventory.
+     *
+     * @return true if anything was picked up
+     */
+    private boolean pickUpLoot(double x, double y, double radius) {
+        return groundLoot.pickup(x, y, radius, (itemID, count) -> {
+            ItemEntity first = EntityManager.INSTANCE.getItem(itemID);
+            first.setOwner(player);
 
-        TranslateTransition tt = new TranslateTransition(Duration.seconds(0.3), view);
-        tt.setInterpolator(Interpolator.EASE_IN);
-        tt.setByX(new Random().nextInt(20) - 10);
-        tt.setByY(10 + new Random().nextInt(10));
-        tt.play();
-    }
+            // existing stacks may take some of them, so a new slot per full stack is an upper bound
+            if (first.getMaxStack() > 1) {
+                if (player.getInventory().freeSlots() < (count + first.getMaxStack() - 1) / first.getMaxStack())
+                    return false;
 
-    private void showDamage(DamageResult damage, Point2D position) {
-        Text text = new Text(damage.getValue() + (damage.getCritical() ? "!" : ""));
-        text.setFill(damage.getCritical() ? Color.RED : Color.WHITE);
-        text.setFont(Font.font(damage.getCritical() ? 22 : 16));
+                return player.getInventory().addItem(first, count);
+            }
+
+            if (player.getInventory().freeSlots() < count)
+                return false;
 
-        EntityView view = new EntityView();
-        view.addNode(text);
-        view.setTranslateX(position.getX());
-        view.setTranslateY(position.getY());
+            List<ItemEntity> items = new ArrayList<>(count);
+            items.add(first);
+            for (int i = 1; i < count; i++) {
+                ItemEntity item = EntityManager.INSTANCE.getItem(itemID);
+                item.setOwner(player);
+                items.add(item);
+            }
 
-        getGameScene().addGameView(view);
+            player.getInventory().addItems(items);
+            return true;
+        }) > 0;
+    }
 
-        TranslateTransition tt = new TranslateTransition(Duration.seconds(1), view);
-        tt.setByY(-30);
-        tt.setOnFinished(e -> getGameScene().removeGameView(view));
-        tt.play();
+    private void showDamage(DamageResult damage, CharacterEntity target) {
+        damageText.show(target, damage, target.getPositionComponent().getValue());
     }
 
     private void initPlayer() {
@@ -505,7 +657,6 @@ public class ZephyriaApp extends GameApplication {
         player.getTypeComponent().setValue(EntityType.PLAYER);
         player.getPositionComponent().setValue(TILE_SIZE * 4, TILE_SIZE * 4);
 
-        player.addComponent(EntityManager.INSTANCE.makeCharacterSubView(player));
         spawnCharacter(player);
 
         // TODO: do something with circular references
@@ -524,49 +675,128 @@ public class ZephyriaApp extends GameApplication {
 //        player.getSkills().add(new SkillEntity(Data.Skill.Warrior.INSTANCE.ROAR()));
 //        player.getSkills().add(new SkillEntity(Data.Skill.Mage.INSTANCE.FIREBALL()));
 
-        player.getInventory().addItem(new WeaponEntity(Data.Weapon.INSTANCE.GUT_RIPPER()));
-        player.getInventory().addItem(new WeaponEntity(Data.Weapon.INSTANCE.DRAGON_CLAW()));
-        player.getInventory().addItem(new ArmorEntity(Data.Armor.INSTANCE.CHAINMAIL()));
+        player.getInventory().addItems(Arrays.asList(
+                EntityManager.INSTANCE.getWeapon(4003),
+                EntityManager.INSTANCE.getWeapon(4800),
+                EntityManager.INSTANCE.getArmor(5003)
+        ));
 
         // TEST DATA END
     }
 
     private void initEnemies() {
+        List<SpawnPoint> points = SpawnManager.spawnPointsOf(level);
+
+        spawns = new SpawnManager(world, level.getWalkability(), points, new Random(), RESPAWN_DELAY);
+        simulation = new Simulation(world, spawns, groundLoot, characterPool, new SplittableRandom());
+        spawns.populate();
+
         Random random = new Random();
 
-        spawnCharacter(EntityManager.INSTANCE.createCharacter(Data.Character.INSTANCE.SKELETON_ARCHER(), random.nextInt(15), random.nextInt(10)));
+        for (SpawnPoint point : points) {
+            for (int i = 0; i < point.getCrowd(); i++) {
+                int x = point.getMinX() + random.nextInt(point.getMaxX() - point.getMinX() + 1);
+                int y = point.getMinY() + random.nextInt(point.getMaxY() - point.getMinY() + 1);
+
+                if (level.getWalkability().isWalkable(x, y))
+                    crowd.add(point.getArchetypeID(), x, y);
+            }
+        }
+    }
+
+    /**
+     * Replaces a crowd member with a full character at the same position.
+     *
+     * @return the character or null if the member is in an inactive region
+     */
+    private CharacterEntity promote(int crowdIndex) {
+        int tileX = crowd.getTileX(crowdIndex);
+        int tileY = crowd.getTileY(crowdIndex);
+
+        // otherwise the region manager would store a dormant copy and the member would stay in the crowd
+        if (!world.isActive(tileX, tileY))
+            return null;
+
+        CharacterEntity character = world.addCharacter(crowd.getArchetypeID(crowdIndex), tileX, tileY, crowd.getHp(crowdIndex));
+
+        character.getPositionComponent().setValue(crowd.getX(crowdIndex), crowd.getY(crowdIndex));
+        character.getSp().setValue(crowd.getSp(crowdIndex));
+
+        crowd.remove(crowdIndex);
+        return character;
     }
 
     private void spawnCharacter(CharacterEntity character) {
         character.addComponent(new CollidableComponent(true));
 
-        AnimatedTexture texture = getAssetLoader()
-                .loadTexture(character.getComponentUnsafe(DescriptionComponent.class).getTextureName().get())
+        // sprite sheets are shared between characters of the same type
+        AnimatedTexture texture = new Texture(TextureCache.INSTANCE.image(character.getDescription().getTextureName().get()))
                 .toAnimatedTexture(CharacterAnimation.WALK_RIGHT);
 
-        character.getComponentUnsafe(CharacterDataComponent.class).setAnimation(texture);
+        character.setAnimation(texture);
         character.getViewComponent().setView(texture, true);
 
         if (!character.getTypeComponent().isType(EntityType.PLAYER)) {
             //character.addControl(new AIControl());
 
-            character.getViewComponent().getView().setOnMouseClicked(e -> {
-                selected.set(character);
-            });
+            makeSelectable(character);
         }
 
-        EntityView subView = character.getComponentUnsafe(SubViewComponent.class).getValue();
-
         getGameWorld().addEntity(character);
-        getGameScene().addGameView(subView);
+        characterOverlay.add(character);
+    }
 
-        character.activeProperty().addListener((o, wasActive, isActive) -> {
-            if (!isActive) {
-                getGameScene().removeGameView(subView);
-            }
+    private void makeSelectable(CharacterEntity character) {
+        character.getViewComponent().getView().setOnMouseClicked(e -> {
+            selected.set(character);
         });
     }
 
+    /**
+     * Adds and removes region content to / from the game world.
+     */
+    private class WorldHost implements RegionManager.Host {
+        @Override
+        public CharacterEntity spawnCharacter(int archetypeID, int tileX, int tileY, double hp) {
+            CharacterEntity pooled = characterPool.obtain(archetypeID, tileX, tileY, hp);
+            if (pooled != null) {
+                pooled.getAnimation().setAnimationChannel(CharacterAnimation.WALK_RIGHT);
+                makeSelectable(pooled);
+                return pooled;
+            }
+
+            CharacterEntity character = EntityManager.INSTANCE.createCharacter(
+                    EntityManager.INSTANCE.getCharacterDescription(archetypeID), tileX, tileY);
+
+            if (hp >= 0)
+                character.getHp().setValue(hp);
+
+            ZephyriaApp.this.spawnCharacter(character);
+            return character;
+        }
+
+        @Override
+        public void despawnCharacter(CharacterEntity character) {
+            if (selected.get() == character)
+                selected.set(null);
+
+            simulation.release(character);
+        }
+
+        @Override
+        public Entity spawnStatic(StaticObject obj) {
+            return Entities.builder()
+                    .at(obj.getTileX() * TILE_SIZE, obj.getTileY() * TILE_SIZE + obj.getOffsetY())
+                    .viewFromTexture(obj.getTextureName())
+                    .buildAndAttach(getGameWorld());
+        }
+
+        @Override
+        public void despawnStatic(Entity entity) {
+            entity.removeFromWorld();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
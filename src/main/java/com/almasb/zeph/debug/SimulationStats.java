@@ -0,0 +1,295 @@
+package com.almasb.zeph.debug;
+
+import com.almasb.fxgl.ecs.Entity;
+import com.almasb.fxgl.entity.GameEntity;
+import com.almasb.zeph.entity.EntityType;
+import com.almasb.zeph.entity.character.CharacterEntity;
+import com.almasb.zeph.map.GridPathfinder;
+import com.almasb.zeph.world.Simulation;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Publishes simulation counters over JMX.
+ *
+ * Totals are read from plain counters kept by the simulation and the pathfinder,
+ * so no {@link GameEvents} sink is needed and the event bus stays off unless a profiler is attached.
+ * All values (totals, entity counts, effects, frame time percentiles, rates) are computed by the game thread
+ * once per second in {@link #onUpdate} and published through volatile fields, so JMX reads never contend with it.
+ */
+public final class SimulationStats implements SimulationStatsMBean {
+
+    public static final String OBJECT_NAME = "com.almasb.zeph:type=SimulationStats";
+
+    /**
+     * Seconds between gauge refreshes.
+     */
+    private static final double PUBLISH_INTERVAL = 1.0;
+
+    /**
+     * Number of recent frames percentiles are computed over.
+     */
+    private static final int FRAMES = 600;
+
+    /**
+     * Number of refreshes kill and spawn rates are computed over, i.e. one minute.
+     */
+    private static final int RATE_WINDOW = 60;
+
+    private static final EntityType[] TYPES = EntityType.values();
+
+    // published values
+
+    private volatile long kills;
+    private volatile long spawns;
+    private volatile long pathRequests;
+    private volatile long pathNodesExpanded;
+
+    private final AtomicLongArray entityCounts = new AtomicLongArray(TYPES.length);
+    private volatile long pooledCharacters;
+    private volatile long activeEffects;
+    private volatile long activeStatuses;
+    private volatile long respawnQueueDepth;
+
+    private volatile double frameP50;
+    private volatile double frameP95;
+    private volatile double frameP99;
+    private volatile double frameMax;
+
+    private volatile double killsPerMinute;
+    private volatile double spawnsPerMinute;
+
+    // game thread only
+
+    private final long[] frames = new long[FRAMES];
+    private final long[] sortedFrames = new long[FRAMES];
+    private int frameCursor = 0;
+    private int frameCount = 0;
+
+    private final long[] killHistory = new long[RATE_WINDOW + 1];
+    private final long[] spawnHistory = new long[RATE_WINDOW + 1];
+    private int historyCursor = 0;
+    private int historyCount = 0;
+
+    private final long[] counts = new long[TYPES.length];
+
+    private double time = 0;
+    private long lastUpdate = 0;
+
+    /**
+     * Registers with the platform MBean server.
+     */
+    public void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    /**
+     * Records frame time and refreshes published values once per {@link #PUBLISH_INTERVAL},
+     * call every frame on the game thread.
+     *
+     * @param entities game world entities, only fetched when values are refreshed
+     */
+    public void onUpdate(double tpf, Supplier<? extends Collection<? extends Entity>> entities,
+                         Simulation simulation, GridPathfinder pathfinder) {
+        long now = System.nanoTime();
+
+        if (lastUpdate != 0) {
+            frames[frameCursor] = now - lastUpdate;
+            frameCursor = (frameCursor + 1) % FRAMES;
+            frameCount = Math.min(frameCount + 1, FRAMES);
+        }
+
+        lastUpdate = now;
+
+        time += tpf;
+
+        if (time < PUBLISH_INTERVAL)
+            return;
+
+        time = 0;
+
+        kills = simulation.getTotalKills();
+        spawns = simulation.getSpawns().getTotalSpawns();
+        pathRequests = pathfinder.getTotalSearches();
+        pathNodesExpanded = pathfinder.getTotalExpanded();
+        respawnQueueDepth = simulation.getSpawns().getQueuedCount();
+
+        publishEntities(entities.get());
+        publishFrames();
+        publishRates();
+    }
+
+    private void publishEntities(Collection<? extends Entity> entities) {
+        Arrays.fill(counts, 0);
+
+        long pooled = 0;
+        long effects = 0;
+        long statuses = 0;
+
+        for (Entity entity : entities) {
+            if (!(entity instanceof GameEntity))
+                continue;
+
+            Object type = ((GameEntity) entity).getTypeComponent().getValue();
+            if (type instanceof EntityType)
+                counts[((EntityType) type).ordinal()]++;
+
+            if (entity instanceof CharacterEntity) {
+                CharacterEntity character = (CharacterEntity) entity;
+
+                if (character.isParked()) {
+                    pooled++;
+                } else {
+                    effects += character.getCharConrol().getEffects().size();
+                    statuses += character.getCharConrol().getStatuses().size();
+                }
+            }
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            entityCounts.set(i, counts[i]);
+        }
+
+        pooledCharacters = pooled;
+        activeEffects = effects;
+        activeStatuses = statuses;
+    }
+
+    private void publishFrames() {
+        if (frameCount == 0)
+            return;
+
+        System.arraycopy(frames, 0, sortedFrames, 0, frameCount);
+        Arrays.sort(sortedFrames, 0, frameCount);
+
+        frameP50 = framePercentile(50);
+        frameP95 = framePercentile(95);
+        frameP99 = framePercentile(99);
+        frameMax = sortedFrames[frameCount - 1] / 1_000_000.0;
+    }
+
+    private double framePercentile(int p) {
+        int index = (int) Math.ceil(p / 100.0 * frameCount) - 1;
+        return sortedFrames[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private void publishRates() {
+        killHistory[historyCursor] = kills;
+        spawnHistory[historyCursor] = spawns;
+
+        historyCount = Math.min(historyCount + 1, killHistory.length);
+
+        if (historyCount > 1) {
+            int oldest = historyCount < killHistory.length ? 0 : (historyCursor + 1) % killHistory.length;
+            double minutes = (historyCount - 1) * PUBLISH_INTERVAL / 60;
+
+            killsPerMinute = (killHistory[historyCursor] - killHistory[oldest]) / minutes;
+            spawnsPerMinute = (spawnHistory[historyCursor] - spawnHistory[oldest]) / minutes;
+        }
+
+        historyCursor = (historyCursor + 1) % killHistory.length;
+    }
+
+    // SimulationStatsMBean
+
+    @Override
+    public long getPlayers() {
+        return entityCounts.get(EntityType.PLAYER.ordinal());
+    }
+
+    @Override
+    public long getCharacters() {
+        return entityCounts.get(EntityType.CHARACTER.ordinal()) - pooledCharacters;
+    }
+
+    @Override
+    public long getPooledCharacters() {
+        return pooledCharacters;
+    }
+
+    @Override
+    public long getProjectiles() {
+        return entityCounts.get(EntityType.PROJECTILE.ordinal()) + entityCounts.get(EntityType.SKILL_PROJECTILE.ordinal());
+    }
+
+    @Override
+    public long getEntityCount(String type) {
+        for (EntityType t : TYPES) {
+            if (t.name().equals(type))
+                return entityCounts.get(t.ordinal());
+        }
+
+        return -1;
+    }
+
+    @Override
+    public long getActiveEffects() {
+        return activeEffects;
+    }
+
+    @Override
+    public long getActiveStatuses() {
+        return activeStatuses;
+    }
+
+    @Override
+    public long getPathRequests() {
+        return pathRequests;
+    }
+
+    @Override
+    public long getPathNodesExpanded() {
+        return pathNodesExpanded;
+    }
+
+    @Override
+    public long getRespawnQueueDepth() {
+        return respawnQueueDepth;
+    }
+
+    @Override
+    public double getFrameTimeP50() {
+        return frameP50;
+    }
+
+    @Override
+    public double getFrameTimeP95() {
+        return frameP95;
+    }
+
+    @Override
+    public double getFrameTimeP99() {
+        return frameP99;
+    }
+
+    @Override
+    public double getFrameTimeMax() {
+        return frameMax;
+    }
+
+    @Override
+    public long getTotalKills() {
+        return kills;
+    }
+
+    @Override
+    public long getTotalSpawns() {
+        return spawns;
+    }
+
+    @Override
+    public double getKillsPerMinute() {
+        return killsPerMinute;
+    }
+
+    @Override
+    public double getSpawnsPerMinute() {
+        return spawnsPerMinute;
+    }
+}
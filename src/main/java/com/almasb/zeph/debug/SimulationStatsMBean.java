@@ -0,0 +1,61 @@
+package com.almasb.zeph.debug;
+
+/**
+ * Live simulation counters, readable with jconsole or any JMX client.
+ * All values are refreshed by the game thread once per second.
+ * Times are in milliseconds.
+ */
+public interface SimulationStatsMBean {
+
+    long getPlayers();
+
+    /**
+     * Characters in the game world, excluding pooled ones.
+     */
+    long getCharacters();
+
+    long getPooledCharacters();
+
+    /**
+     * Projectiles in flight, both basic attacks and skills.
+     */
+    long getProjectiles();
+
+    /**
+     * @param type name of an entity type, e.g. CHARACTER, see {@link com.almasb.zeph.entity.EntityType}
+     * @return entities of that type in the game world, including pooled characters, -1 if there is no such type
+     */
+    long getEntityCount(String type);
+
+    long getActiveEffects();
+
+    long getActiveStatuses();
+
+    long getPathRequests();
+
+    long getPathNodesExpanded();
+
+    /**
+     * Respawns waiting for their delay to pass.
+     */
+    long getRespawnQueueDepth();
+
+    /**
+     * Percentiles over recent frames of time between consecutive game updates.
+     */
+    double getFrameTimeP50();
+
+    double getFrameTimeP95();
+
+    double getFrameTimeP99();
+
+    double getFrameTimeMax();
+
+    long getTotalKills();
+
+    long getTotalSpawns();
+
+    double getKillsPerMinute();
+
+    double getSpawnsPerMinute();
+}
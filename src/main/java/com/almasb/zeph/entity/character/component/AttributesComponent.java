@@ -45,6 +45,8 @@ public class AttributesComponent extends AbstractComponent {
      * @param value
      */
     public final void setAttribute(Attribute attr, int value) {
+        fireFirstChange();
+
         attributes.put(attr, value);
         attributeProperties.get(attr).set(value);
     }
@@ -80,6 +82,8 @@ public class AttributesComponent extends AbstractComponent {
      * @param bonus value
      */
     public void addBonusAttribute(Attribute attr, int bonus) {
+        fireFirstChange();
+
         int value = getBonusAttribute(attr) + bonus;
         bAttributes.put(attr, value);
         bAttributeProperties.get(attr).set(value);
@@ -96,6 +100,26 @@ public class AttributesComponent extends AbstractComponent {
 
     private Map<Attribute, NumberBinding> bindings = new HashMap<>();
 
+    private Runnable onFirstChange;
+
+    /**
+     * Action is run once, just before the next change of any base or bonus attribute.
+     * Used to create stat bindings lazily for characters that start from a stat template.
+     *
+     * @param action action or null to clear
+     */
+    public void setOnFirstChange(Runnable action) {
+        onFirstChange = action;
+    }
+
+    private void fireFirstChange() {
+        if (onFirstChange != null) {
+            Runnable action = onFirstChange;
+            onFirstChange = null;
+            action.run();
+        }
+    }
+
     public NumberBinding totalAttributeProperty(Attribute attribute) {
         //return attributeProperty(attribute).add(bAttributeProperty(attribute));
         return bindings.get(attribute);
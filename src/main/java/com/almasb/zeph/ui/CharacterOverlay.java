@@ -0,0 +1,141 @@
+package com.almasb.zeph.ui;
+
+import com.almasb.zeph.Config;
+import com.almasb.zeph.entity.character.CharacterEntity;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws HP / SP bars and "Name Lv. N" labels of all visible characters
+ * on a single canvas. No per-character nodes or bindings are created,
+ * values are read directly from characters each frame.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class CharacterOverlay extends OverlayLayer {
+
+    private static final double TILE_SIZE = Config.INSTANCE.getTileSize();
+
+    private static final double LABEL_Y = 75;
+    private static final double HP_Y = 80;
+    private static final double SP_Y = 90;
+    private static final double BAR_HEIGHT = 10;
+
+    private static final Font FONT = Font.font(14);
+
+    private static final Color HP_FILL = Color.GREEN.brighter();
+    private static final Color SP_FILL = Color.BLUE.brighter().brighter();
+    private static final Color BAR_BACKGROUND = Color.rgb(0, 0, 0, 0.6);
+
+    private final List<Plate> plates = new ArrayList<>();
+
+    /**
+     * Only used to measure label width when name or level changes.
+     */
+    private final Text measure = new Text();
+
+    public CharacterOverlay(double width, double height) {
+        super(width, height);
+
+        measure.setFont(FONT);
+    }
+
+    /**
+     * Starts drawing bars and label for given character.
+     * The character is dropped automatically once it is no longer active,
+     * parked characters are kept but not drawn.
+     *
+     * @param character character
+     */
+    public void add(CharacterEntity character) {
+        plates.add(new Plate(character));
+    }
+
+    /**
+     * @return number of characters tracked by overlay
+     */
+    public int size() {
+        return plates.size();
+    }
+
+    @Override
+    protected void render(double tpf, double viewX, double viewY) {
+        g.setFont(FONT);
+
+        for (int i = plates.size() - 1; i >= 0; i--) {
+            Plate plate = plates.get(i);
+            CharacterEntity character = plate.character;
+
+            if (!character.isActive()) {
+                Plate last = plates.remove(plates.size() - 1);
+                if (last != plate)
+                    plates.set(i, last);
+                continue;
+            }
+
+            // pooled for reuse, drawn again once respawned
+            if (character.isParked())
+                continue;
+
+            double x = character.getPositionComponent().getX();
+            double y = character.getPositionComponent().getY();
+
+            if (!isVisible(x, y + LABEL_Y - 14, TILE_SIZE, HP_Y - LABEL_Y + 14 + 2 * BAR_HEIGHT, viewX, viewY))
+                continue;
+
+            x -= viewX;
+            y -= viewY;
+
+            drawBar(x, y + HP_Y, character.getHp().getValue(), character.getHp().getMaxValue(), HP_FILL);
+            drawBar(x, y + SP_Y, character.getSp().getValue(), character.getSp().getMaxValue(), SP_FILL);
+
+            plate.updateLabel();
+
+            g.setFill(Color.WHITE);
+            g.fillText(plate.label, x + TILE_SIZE / 2 - plate.labelWidth / 2, y + LABEL_Y);
+        }
+    }
+
+    private void drawBar(double x, double y, double value, double maxValue, Color fill) {
+        g.setFill(BAR_BACKGROUND);
+        g.fillRect(x, y, TILE_SIZE, BAR_HEIGHT);
+
+        if (maxValue > 0) {
+            g.setFill(fill);
+            g.fillRect(x, y, TILE_SIZE * Math.min(value / maxValue, 1), BAR_HEIGHT);
+        }
+    }
+
+    private final class Plate {
+        private final CharacterEntity character;
+
+        private String name;
+        private int level = -1;
+
+        private String label;
+        private double labelWidth;
+
+        Plate(CharacterEntity character) {
+            this.character = character;
+        }
+
+        void updateLabel() {
+            String newName = character.getDescription().getName().get();
+            int newLevel = character.getBaseLevel().get();
+
+            if (newLevel == level && newName.equals(name))
+                return;
+
+            name = newName;
+            level = newLevel;
+            label = name + " Lv. " + level;
+
+            measure.setText(label);
+            labelWidth = measure.getLayoutBounds().getWidth();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.almasb.zeph.ui;
+
+import com.almasb.zeph.CharacterAnimation;
+import com.almasb.zeph.Config;
+import com.almasb.zeph.entity.EntityManager;
+import com.almasb.zeph.entity.DescriptionComponent;
+import com.almasb.zeph.texture.TextureCache;
+import com.almasb.zeph.world.Crowd;
+import javafx.scene.image.Image;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws crowd members on a single canvas, each as the first walk frame
+ * of its sprite sheet in the direction it faces.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class CrowdLayer extends OverlayLayer {
+
+    private static final double TILE_SIZE = Config.INSTANCE.getTileSize();
+
+    /**
+     * Walk rows in the sprite sheet are ordered up, left, down, right, same as crowd facing.
+     */
+    private static final int FIRST_WALK_ROW = (int) (CharacterAnimation.WALK_UP.area().getMinY() / TILE_SIZE);
+
+    private final Crowd crowd;
+
+    /**
+     * Archetype ID -> sprite sheet.
+     */
+    private final Map<Integer, Image> sheets = new HashMap<>();
+
+    public CrowdLayer(Crowd crowd, double width, double height) {
+        super(width, height);
+        this.crowd = crowd;
+    }
+
+    @Override
+    protected void render(double tpf, double viewX, double viewY) {
+        for (int i = 0; i < crowd.getSize(); i++) {
+            double x = crowd.getX(i);
+            double y = crowd.getY(i);
+
+            if (!isVisible(x, y, TILE_SIZE, TILE_SIZE, viewX, viewY))
+                continue;
+
+            Image sheet = sheets.computeIfAbsent(crowd.getArchetypeID(i), this::loadSheet);
+
+            double row = FIRST_WALK_ROW + crowd.getFacing(i);
+
+            g.drawImage(sheet,
+                    0, row * TILE_SIZE, TILE_SIZE, TILE_SIZE,
+                    x - viewX, y - viewY, TILE_SIZE, TILE_SIZE);
+        }
+    }
+
+    private Image loadSheet(int archetypeID) {
+        DescriptionComponent description = (DescriptionComponent) EntityManager.INSTANCE.getCharacterDescription(archetypeID)
+                .stream()
+                .filter(c -> c instanceof DescriptionComponent)
+                .findFirst()
+                .get();
+
+        return TextureCache.INSTANCE.image(description.getTextureName().get());
+    }
+}
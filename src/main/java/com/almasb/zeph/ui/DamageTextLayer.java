@@ -0,0 +1,136 @@
+package com.almasb.zeph.ui;
+
+import com.almasb.fxgl.ecs.Entity;
+import com.almasb.zeph.combat.DamageResult;
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Floating combat text drawn on a single canvas.
+ * Text entries are recycled from a pool and hits on the same target
+ * that land within a short window are merged into one number.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class DamageTextLayer extends OverlayLayer {
+
+    /**
+     * How long a number stays on screen, in seconds.
+     */
+    private static final double LIFETIME = 1.0;
+
+    /**
+     * Hits on the same target within this window (seconds) are merged.
+     */
+    private static final double MERGE_WINDOW = 0.25;
+
+    /**
+     * How far a number floats up during its lifetime.
+     */
+    private static final double RISE = 30;
+
+    private static final Font FONT_NORMAL = Font.font(16);
+    private static final Font FONT_CRITICAL = Font.font(22);
+
+    private final List<FloatingText> active = new ArrayList<>();
+    private final ArrayDeque<FloatingText> pool = new ArrayDeque<>();
+
+    public DamageTextLayer(double width, double height) {
+        super(width, height);
+    }
+
+    /**
+     * Shows damage dealt to target at given world position.
+     *
+     * @param target the entity that received damage
+     * @param damage damage result
+     * @param position world position
+     */
+    public void show(Entity target, DamageResult damage, Point2D position) {
+        for (FloatingText text : active) {
+            if (text.target == target && text.age <= MERGE_WINDOW) {
+                text.merge(damage);
+                return;
+            }
+        }
+
+        FloatingText text = pool.isEmpty() ? new FloatingText() : pool.poll();
+        text.reset(target, damage, position.getX(), position.getY());
+
+        active.add(text);
+    }
+
+    /**
+     * @return number of numbers currently on screen
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    @Override
+    protected void render(double tpf, double viewX, double viewY) {
+        for (int i = active.size() - 1; i >= 0; i--) {
+            FloatingText text = active.get(i);
+            text.age += tpf;
+
+            if (text.age >= LIFETIME) {
+                // swap with last, order of drawing does not matter
+                FloatingText last = active.remove(active.size() - 1);
+                if (last != text)
+                    active.set(i, last);
+
+                text.target = null;
+                pool.push(text);
+                continue;
+            }
+
+            double y = text.y - RISE * text.age / LIFETIME;
+
+            if (!isVisible(text.x, y - 22, 60, 22, viewX, viewY))
+                continue;
+
+            g.setGlobalAlpha(1 - text.age / LIFETIME * 0.5);
+            g.setFont(text.critical ? FONT_CRITICAL : FONT_NORMAL);
+            g.setFill(text.critical ? Color.RED : Color.WHITE);
+            g.fillText(text.value, text.x - viewX, y - viewY);
+        }
+
+        g.setGlobalAlpha(1);
+    }
+
+    private static final class FloatingText {
+        private Entity target;
+
+        private int damage;
+        private boolean critical;
+        private String value;
+
+        private double x, y;
+        private double age;
+
+        void reset(Entity target, DamageResult result, double x, double y) {
+            this.target = target;
+            this.x = x;
+            this.y = y;
+            damage = result.getValue();
+            critical = result.getCritical();
+            age = 0;
+            updateValue();
+        }
+
+        void merge(DamageResult result) {
+            damage += result.getValue();
+            critical |= result.getCritical();
+            updateValue();
+        }
+
+        private void updateValue() {
+            value = critical ? damage + "!" : String.valueOf(damage);
+        }
+    }
+}
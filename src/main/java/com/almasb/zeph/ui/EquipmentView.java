@@ -4,9 +4,10 @@ import com.almasb.fxgl.ecs.Entity;
 import com.almasb.fxgl.app.FXGL;
 import com.almasb.fxgl.texture.Texture;
 import com.almasb.fxgl.ui.InGameWindow;
-import com.almasb.zeph.entity.DescriptionComponent;
 import com.almasb.zeph.entity.character.EquipPlace;
 import com.almasb.zeph.entity.character.PlayerEntity;
+import com.almasb.zeph.entity.item.ItemEntity;
+import com.almasb.zeph.texture.TextureCache;
 import javafx.animation.ScaleTransition;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
@@ -83,9 +84,12 @@ public final class EquipmentView extends InGameWindow {
         text.setWrappingWidth(200);
 
         tooltip.setGraphic(text);
+        tooltip.setOnShowing(e -> {
+            ItemEntity item = (ItemEntity) group.getUserData();
+            text.setText(item == null ? "" : item.describe());
+        });
         Tooltip.install(group, tooltip);
 
-        group.setUserData(text);
         return group;
     }
 
@@ -93,14 +97,14 @@ public final class EquipmentView extends InGameWindow {
         Group group = groups.get(place);
         group.getChildren().clear();
 
-        DescriptionComponent data = item.getComponentUnsafe(DescriptionComponent.class);
+        ItemEntity data = (ItemEntity) item;
 
-        Texture view = FXGL.getAssetLoader().loadTexture(data.getTextureName().get());
+        Texture view = TextureCache.INSTANCE.texture(data.getDesc().getTextureName().get());
 
         view.setOnMouseClicked(event -> player.getPlayerControl().unEquipItem(place));
         view.setCursor(Cursor.HAND);
 
         group.getChildren().add(view);
-        ((Text)group.getUserData()).textProperty().bind(data.getDescription());
+        group.setUserData(data);
     }
 }
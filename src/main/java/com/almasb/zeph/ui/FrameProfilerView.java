@@ -0,0 +1,83 @@
+package com.almasb.zeph.ui;
+
+import com.almasb.fxgl.ui.InGameWindow;
+import com.almasb.zeph.debug.FrameProfiler;
+import javafx.scene.control.Button;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Developer window with frame time percentiles per subsystem and the worst frames.
+ * The profiler only records while this window is visible.
+ * Dump writes the report and all recorded frames to a file in the working directory.
+ */
+public final class FrameProfilerView extends InGameWindow {
+
+    /**
+     * Seconds between text refreshes, so the report itself does not show up as UI time every frame.
+     */
+    private static final double REFRESH_INTERVAL = 0.5;
+
+    private final Text status = new Text();
+    private final Text report = new Text();
+
+    private double time = 0;
+
+    public FrameProfilerView() {
+        super("Profiler", WindowDecor.MINIMIZE);
+
+        relocate(20, 50);
+
+        setBackgroundColor(Color.rgb(25, 25, 25, 0.8));
+        setPrefSize(420, 420);
+
+        Button reset = new Button("Reset");
+        reset.setOnAction(e -> FrameProfiler.INSTANCE.reset());
+
+        Button dump = new Button("Dump");
+        dump.setOnAction(e -> dump());
+
+        HBox buttons = new HBox(5, reset, dump);
+
+        status.setFill(Color.WHITE);
+        status.setTranslateY(45);
+
+        report.setFill(Color.WHITE);
+        report.setFont(Font.font("Monospaced", 12));
+        report.setTranslateY(70);
+
+        setContentPane(new Pane(buttons, status, report));
+
+        visibleProperty().addListener((obs, old, visible) -> FrameProfiler.INSTANCE.setEnabled(visible));
+    }
+
+    public void onUpdate(double tpf) {
+        if (!isVisible())
+            return;
+
+        time += tpf;
+
+        if (time >= REFRESH_INTERVAL) {
+            time = 0;
+            report.setText(FrameProfiler.INSTANCE.report());
+        }
+    }
+
+    private void dump() {
+        Path file = Paths.get("frames-" + System.currentTimeMillis() + ".txt");
+
+        try {
+            FrameProfiler.INSTANCE.dump(file);
+            status.setText("Dumped to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            status.setText("Dump failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.almasb.zeph.ui;
+
+import com.almasb.zeph.entity.CatalogMetadata;
+import com.almasb.zeph.entity.EntityManager;
+import com.almasb.zeph.texture.TextureCache;
+import com.almasb.zeph.world.GroundLoot;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws all visible ground loot on a single canvas.
+ * Only buckets overlapping the viewport are visited.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class GroundLootLayer extends OverlayLayer {
+
+    private static final Font FONT = Font.font(12);
+
+    private final GroundLoot loot;
+
+    /**
+     * Item ID -> image and viewport, looked up once per item type.
+     */
+    private final Map<Integer, Sprite> sprites = new HashMap<>();
+
+    private double viewX, viewY;
+
+    private final GroundLoot.Visitor drawDrop = this::drawDrop;
+
+    public GroundLootLayer(GroundLoot loot, double width, double height) {
+        super(width, height);
+        this.loot = loot;
+    }
+
+    @Override
+    protected void render(double tpf, double viewX, double viewY) {
+        this.viewX = viewX;
+        this.viewY = viewY;
+
+        g.setFont(FONT);
+
+        // drops are positioned by their center, extend query by half of max icon size
+        loot.forEachIn(viewX - 32, viewY - 32, viewX + canvas.getWidth() + 32, viewY + canvas.getHeight() + 32, drawDrop);
+    }
+
+    private void drawDrop(int itemID, int count, double x, double y) {
+        Sprite sprite = sprites.computeIfAbsent(itemID, Sprite::new);
+
+        double w = sprite.viewport.getWidth();
+        double h = sprite.viewport.getHeight();
+
+        double left = x - viewX - w / 2;
+        double top = y - viewY - h / 2;
+
+        g.drawImage(sprite.image,
+                sprite.viewport.getMinX(), sprite.viewport.getMinY(), w, h,
+                left, top, w, h);
+
+        if (count > 1) {
+            g.setFill(Color.WHITE);
+            g.fillText(String.valueOf(count), left + w - 8, top + h);
+        }
+    }
+
+    private static final class Sprite {
+        private final Image image;
+        private final Rectangle2D viewport;
+
+        Sprite(int itemID) {
+            // the generated table avoids building the item template just to draw its icon,
+            // items loaded from JSON definitions are not in it
+            String name = CatalogMetadata.INSTANCE.contains(itemID)
+                    ? CatalogMetadata.INSTANCE.textureName(itemID)
+                    : EntityManager.INSTANCE.getItemDescription(itemID).getTextureName().get();
+
+            image = TextureCache.INSTANCE.sourceImage(name);
+            viewport = TextureCache.INSTANCE.viewport(name);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.almasb.zeph.ui;
+
+import com.almasb.fxgl.ecs.Entity;
+import com.almasb.fxgl.ui.InGameWindow;
+import com.almasb.zeph.debug.HeapAccounting;
+import javafx.scene.control.Button;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Developer window with estimated heap retained per entity archetype,
+ * or per component of each archetype. Measured on demand, since a measurement
+ * walks every entity. Export writes the full breakdown to a CSV file in the working directory.
+ */
+public final class HeapBreakdownView extends InGameWindow {
+
+    private static final int MAX_ROWS = 25;
+
+    private final Supplier<Collection<? extends Entity>> roots;
+
+    private final Text summary = new Text();
+    private final Text table = new Text();
+
+    private HeapAccounting.Snapshot snapshot;
+    private boolean byComponent = false;
+
+    public HeapBreakdownView(Supplier<Collection<? extends Entity>> roots, double width, double height) {
+        super("Heap", WindowDecor.MINIMIZE);
+
+        this.roots = roots;
+
+        relocate(width - 620, 50);
+
+        setBackgroundColor(Color.rgb(25, 25, 25, 0.8));
+        setPrefSize(600, 520);
+
+        Button refresh = new Button("Measure");
+        refresh.setOnAction(e -> measure());
+
+        Button mode = new Button("Components");
+        mode.setOnAction(e -> {
+            byComponent = !byComponent;
+            mode.setText(byComponent ? "Archetypes" : "Components");
+            show();
+        });
+
+        Button export = new Button("Export CSV");
+        export.setOnAction(e -> export());
+
+        HBox buttons = new HBox(5, refresh, mode, export);
+
+        summary.setFill(Color.WHITE);
+        summary.setTranslateY(45);
+
+        table.setFill(Color.WHITE);
+        table.setFont(Font.font("Monospaced", 12));
+        table.setTranslateY(70);
+
+        setContentPane(new Pane(buttons, summary, table));
+
+        visibleProperty().addListener((obs, old, visible) -> {
+            if (visible && snapshot == null)
+                measure();
+        });
+    }
+
+    private void measure() {
+        snapshot = HeapAccounting.INSTANCE.measure(roots.get());
+        show();
+    }
+
+    private void show() {
+        if (snapshot == null)
+            return;
+
+        summary.setText(String.format("%d entities, %.2f MB", snapshot.getEntityCount(), snapshot.getTotalBytes() / (1024.0 * 1024.0)));
+
+        List<HeapAccounting.Row> rows = byComponent ? snapshot.getRows() : snapshot.byArchetype();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %5s %-18s %-20s %5s %10s%n", "type", "id", "name", byComponent ? "component" : "", "count", "KB"));
+
+        for (int i = 0; i < Math.min(rows.size(), MAX_ROWS); i++) {
+            HeapAccounting.Row row = rows.get(i);
+
+            sb.append(String.format("%-16.16s %5d %-18.18s %-20.20s %5d %10.1f%n",
+                    row.getEntityType(), row.getArchetypeID(), row.getName(), row.getComponent(),
+                    row.getEntities(), row.getBytes() / 1024.0));
+        }
+
+        table.setText(sb.toString());
+    }
+
+    private void export() {
+        if (snapshot == null)
+            measure();
+
+        Path file = Paths.get("heap-" + System.currentTimeMillis() + ".csv");
+
+        try {
+            snapshot.writeCsv(file);
+            summary.setText("Exported to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            summary.setText("Export failed: " + e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.almasb.zeph.ui;
 
-import com.almasb.fxgl.app.FXGL;
 import com.almasb.fxgl.texture.Texture;
 import com.almasb.fxgl.ui.InGameWindow;
 import com.almasb.zeph.entity.DescriptionComponent;
 import com.almasb.zeph.entity.character.PlayerEntity;
 import com.almasb.zeph.entity.character.control.PlayerControl;
 import com.almasb.zeph.entity.skill.SkillEntity;
+import com.almasb.zeph.texture.TextureCache;
 import javafx.animation.ScaleTransition;
 import javafx.animation.StrokeTransition;
 import javafx.collections.ListChangeListener;
@@ -123,7 +123,7 @@ public class HotbarView extends InGameWindow {
             st.play();
         });
 
-        Texture view = FXGL.getAssetLoader().loadTexture(desc.getTextureName().get());
+        Texture view = TextureCache.INSTANCE.texture(desc.getTextureName().get());
         view.setFitWidth(62);
         view.setFitHeight(62);
         view.setTranslateX(2 + index * 69);
@@ -138,9 +138,9 @@ public class HotbarView extends InGameWindow {
         text.setFont(Font.font(20));
         text.setFill(Color.WHITE);
         text.setWrappingWidth(200);
-        text.textProperty().bind(desc.getDescription());
 
         tooltip.setGraphic(text);
+        tooltip.setOnShowing(e -> text.setText(skill.describe()));
         Tooltip.install(view, tooltip);
 
         skillsRoot.getChildren().addAll(view, btn);
@@ -1,19 +1,20 @@
 package com.almasb.zeph.ui;
 
-import com.almasb.fxgl.ecs.Entity;
 import com.almasb.fxgl.app.FXGL;
 import com.almasb.fxgl.texture.Texture;
 import com.almasb.fxgl.ui.InGameWindow;
-import com.almasb.zeph.entity.DescriptionComponent;
+import com.almasb.zeph.entity.EntityManager;
+import com.almasb.zeph.entity.Inventory;
+import com.almasb.zeph.entity.Stash;
 import com.almasb.zeph.entity.character.PlayerEntity;
 import com.almasb.zeph.entity.item.ArmorEntity;
+import com.almasb.zeph.entity.item.ItemEntity;
 import com.almasb.zeph.entity.item.WeaponEntity;
+import com.almasb.zeph.texture.TextureCache;
 import javafx.animation.ScaleTransition;
-import javafx.collections.ListChangeListener;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.Cursor;
-import javafx.scene.Node;
 import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.Pane;
@@ -21,22 +22,27 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
-import javafx.util.Pair;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.BitSet;
 
+/**
+ * One fixed node per inventory slot. Slot nodes are created once and only
+ * the slots reported by {@link Inventory.Listener} are refreshed.
+ * Shift + click moves an item to the stash.
+ */
 public class InventoryView extends InGameWindow {
 
-    private Map<Integer, Boolean> slots = new HashMap<>();
+    private static final int COLUMNS = 5;
+    private static final double SLOT_SIZE = 40;
+
     private Pane root = new Pane();
 
-    private ListChangeListener<Entity> listener;
+    private Slot[] slots;
 
     private PlayerEntity player;
+    private Stash stash;
 
-    public InventoryView(PlayerEntity player, double width, double height) {
+    public InventoryView(PlayerEntity player, Stash stash, double width, double height) {
         super("Inventory", WindowDecor.MINIMIZE);
 
         relocate(width - 202, height - 315);
@@ -46,48 +52,21 @@ public class InventoryView extends InGameWindow {
         setResizableWindow(false);
 
         this.player = player;
+        this.stash = stash;
 
-        for (int i = 0; i < 30; i++) {
-            slots.put(i, true);
-        }
-
-        listener = new ListChangeListener<Entity>() {
-            @Override
-            public void onChanged(ListChangeListener.Change<? extends Entity> change) {
-                while (change.next()) {
-                    if (change.wasAdded()) {
-                        for (Entity item : change.getAddedSubList()) {
-                            addItem(item);
-                        }
-                    }
-                    else if (change.wasRemoved()) {
-                        for (Entity item : change.getRemoved()) {
-
-                            for (Iterator<Node> it = root.getChildren().iterator(); it.hasNext(); ) {
-                                Node node = it.next();
-
-                                if (node.getUserData() != null) {
-                                    Pair<Entity, Integer> data = (Pair<Entity, Integer>) node.getUserData();
-
-                                    if (data.getKey() == item) {
-                                        slots.put(data.getValue(), true);
-                                        it.remove();
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        };
+        Texture background = FXGL.getAssetLoader().loadTexture("ui/inventory_right.png");
+        root.getChildren().add(background);
 
-        player.getInventory().getItems().forEach(this::addItem);
+        Inventory inventory = player.getInventory();
 
-        player.getInventory().getItems().addListener(listener);
+        slots = new Slot[inventory.getCapacity()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(i);
+            slots[i].refresh();
+            root.getChildren().add(slots[i]);
+        }
 
-        Texture background = FXGL.getAssetLoader().loadTexture("ui/inventory_right.png");
-        root.getChildren().add(background);
+        inventory.addListener(this::onSlotsChanged);
 
         setContentPane(root);
 
@@ -102,55 +81,96 @@ public class InventoryView extends InGameWindow {
         });
     }
 
-    private int getNextFreeSlot() {
-        for (int i = 0; i < 30; i++) {
-            if (slots.get(i))
-                return i;
+    private void onSlotsChanged(Inventory inventory, BitSet changed) {
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            slots[i].refresh();
         }
-
-        return -1;
     }
 
-    private void addItem(Entity item) {
-        int index = getNextFreeSlot();
-        slots.put(index, false);
+    private final class Slot extends Pane {
+        private final int index;
+
+        private final Text count = new Text();
+
+        /**
+         * Item currently shown, so the texture is only replaced when the item changes.
+         */
+        private ItemEntity shown;
 
-        DescriptionComponent data = item.getComponentUnsafe(DescriptionComponent.class);
+        Slot(int index) {
+            this.index = index;
 
-        Texture view = FXGL.getAssetLoader().loadTexture(data.getTextureName().get());
+            setTranslateX((index % COLUMNS) * SLOT_SIZE);
+            setTranslateY((index / COLUMNS) * SLOT_SIZE);
+            setPrefSize(SLOT_SIZE, SLOT_SIZE);
 
-        view.setUserData(new Pair<>(item, index));
-        view.setTranslateX((index % 5) * 40);
-        view.setTranslateY((index / 5) * 40);
-        view.setOnMouseClicked(event -> {
+            count.setFont(Font.font(12));
+            count.setFill(Color.WHITE);
+            count.setTranslateX(26);
+            count.setTranslateY(36);
 
-            if (event.getButton() == MouseButton.PRIMARY) {
-                if (item instanceof WeaponEntity) {
-                    player.getPlayerControl().equipWeapon((WeaponEntity) item);
-                } else if (item instanceof ArmorEntity) {
-                    player.getPlayerControl().equipArmor((ArmorEntity) item);
+            setOnMouseClicked(event -> {
+                ItemEntity item = player.getInventory().getItem(index);
+                if (item == null)
+                    return;
+
+                if (event.getButton() == MouseButton.PRIMARY && event.isShiftDown()) {
+                    // a stack shares one instance, so one of it moves as a new instance
+                    ItemEntity moved = item.getMaxStack() > 1 ? EntityManager.INSTANCE.getItem(item.getID()) : item;
+
+                    if (stash.add(moved)) {
+                        player.getInventory().removeFromSlot(index);
+                        moved.setOwner(null);
+                    }
+                } else if (event.getButton() == MouseButton.PRIMARY) {
+                    if (item instanceof WeaponEntity) {
+                        player.getPlayerControl().equipWeapon((WeaponEntity) item);
+                    } else if (item instanceof ArmorEntity) {
+                        player.getPlayerControl().equipArmor((ArmorEntity) item);
+                    }
+
+                    // TODO: other usable types
+                } else {
+                    // TODO: generalize
+                    if (item instanceof ArmorEntity)
+                        ((ArmorEntity) item).getRefineLevel().set(((ArmorEntity) item).getRefineLevel().get() + 1);
                 }
+            });
 
-                // TODO: other usable types
-            } else {
-                // TODO: generalize
-                if (item instanceof ArmorEntity)
-                    ((ArmorEntity) item).getRefineLevel().set(((ArmorEntity) item).getRefineLevel().get() + 1);
-            }
-        });
-        view.setCursor(Cursor.HAND);
+            Tooltip tooltip = new Tooltip();
 
-        Tooltip tooltip = new Tooltip();
+            Text text = new Text();
+            text.setFont(Font.font(20));
+            text.setFill(Color.WHITE);
+            text.setWrappingWidth(200);
 
-        Text text = new Text();
-        text.setFont(Font.font(20));
-        text.setFill(Color.WHITE);
-        text.setWrappingWidth(200);
-        text.textProperty().bind(data.getDescription());
+            tooltip.setGraphic(text);
+            tooltip.setOnShowing(e -> {
+                ItemEntity item = player.getInventory().getItem(index);
+                text.setText(item != null ? item.describe() : "");
+            });
+            Tooltip.install(this, tooltip);
+        }
 
-        tooltip.setGraphic(text);
-        Tooltip.install(view, tooltip);
+        void refresh() {
+            Inventory inventory = player.getInventory();
+            ItemEntity item = inventory.getItem(index);
 
-        root.getChildren().add(view);
+            if (item != shown) {
+                getChildren().clear();
+
+                if (item != null) {
+                    getChildren().addAll(TextureCache.INSTANCE.texture(item.getDesc().getTextureName().get()), count);
+                }
+
+                shown = item;
+            }
+
+            setVisible(item != null);
+            setCursor(item != null ? Cursor.HAND : Cursor.DEFAULT);
+
+            int n = inventory.getCount(index);
+            count.setText(n > 1 ? String.valueOf(n) : "");
+        }
     }
 }
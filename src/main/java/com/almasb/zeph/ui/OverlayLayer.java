@@ -0,0 +1,56 @@
+package com.almasb.zeph.ui;
+
+import com.almasb.fxgl.entity.EntityView;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * A single screen-sized canvas that lives in the game scene and follows the viewport.
+ * Subclasses draw everything they own in one pass per frame, instead of
+ * keeping a scene graph node per drawn object.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public abstract class OverlayLayer extends EntityView {
+
+    protected final Canvas canvas;
+    protected final GraphicsContext g;
+
+    public OverlayLayer(double width, double height) {
+        canvas = new Canvas(width, height);
+        canvas.setMouseTransparent(true);
+        g = canvas.getGraphicsContext2D();
+
+        setMouseTransparent(true);
+        addNode(canvas);
+    }
+
+    /**
+     * Moves the canvas to viewport origin, clears it and redraws the layer.
+     *
+     * @param tpf time per frame
+     * @param viewX viewport x in world coordinates
+     * @param viewY viewport y in world coordinates
+     */
+    public final void onUpdate(double tpf, double viewX, double viewY) {
+        setTranslateX(viewX);
+        setTranslateY(viewY);
+
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        render(tpf, viewX, viewY);
+    }
+
+    /**
+     * @return true if world rectangle is at least partially visible
+     */
+    protected final boolean isVisible(double x, double y, double width, double height, double viewX, double viewY) {
+        return x + width >= viewX && x <= viewX + canvas.getWidth()
+                && y + height >= viewY && y <= viewY + canvas.getHeight();
+    }
+
+    /**
+     * Draw the layer. World coordinates must be translated by -viewX, -viewY.
+     */
+    protected abstract void render(double tpf, double viewX, double viewY);
+}
@@ -0,0 +1,235 @@
+package com.almasb.zeph.ui;
+
+import com.almasb.fxgl.ui.InGameWindow;
+import com.almasb.zeph.combat.Element;
+import com.almasb.zeph.entity.Stash;
+import com.almasb.zeph.entity.character.PlayerEntity;
+import com.almasb.zeph.entity.item.ArmorType;
+import com.almasb.zeph.entity.item.ItemEntity;
+import com.almasb.zeph.entity.item.ItemLevel;
+import com.almasb.zeph.entity.item.WeaponType;
+import com.almasb.zeph.texture.TextureCache;
+import javafx.geometry.Orientation;
+import javafx.scene.Cursor;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Virtualized view of the stash. Only one screen of slot nodes exists,
+ * scrolling re-assigns them to a different range of the current query result.
+ * Clicking an item moves it to the player's inventory.
+ */
+public final class StashView extends InGameWindow {
+
+    private static final int COLUMNS = 8;
+    private static final int ROWS = 6;
+    private static final double SLOT_SIZE = 40;
+
+    private static final String ALL = "All";
+
+    private final Stash stash;
+    private final PlayerEntity player;
+
+    private final ChoiceBox<Object> typeChoice = new ChoiceBox<>();
+    private final ChoiceBox<Object> levelChoice = new ChoiceBox<>();
+    private final ChoiceBox<Object> elementChoice = new ChoiceBox<>();
+    private final ChoiceBox<Stash.SortKey> sortChoice = new ChoiceBox<>();
+
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Text countText = new Text();
+
+    private final Slot[] slots = new Slot[COLUMNS * ROWS];
+
+    private Stash.Result result;
+    private int firstRow = 0;
+
+    public StashView(Stash stash, PlayerEntity player, double width, double height) {
+        super("Stash", WindowDecor.MINIMIZE);
+
+        this.stash = stash;
+        this.player = player;
+
+        relocate(width / 2 - 200, height / 2 - 200);
+
+        setBackgroundColor(Color.rgb(25, 25, 133, 0.4));
+        setPrefSize(COLUMNS * SLOT_SIZE + 40, ROWS * SLOT_SIZE + 80);
+        setResizableWindow(false);
+
+        List<Object> types = new ArrayList<>();
+        types.add(ALL);
+        for (WeaponType type : WeaponType.values())
+            types.add(type);
+        for (ArmorType type : ArmorType.values())
+            types.add(type);
+
+        typeChoice.getItems().setAll(types);
+        levelChoice.getItems().add(ALL);
+        levelChoice.getItems().addAll((Object[]) ItemLevel.values());
+        elementChoice.getItems().add(ALL);
+        elementChoice.getItems().addAll((Object[]) Element.values());
+        sortChoice.getItems().setAll(Stash.SortKey.values());
+
+        typeChoice.setValue(ALL);
+        levelChoice.setValue(ALL);
+        elementChoice.setValue(ALL);
+        sortChoice.setValue(Stash.SortKey.NONE);
+
+        typeChoice.setOnAction(e -> requery());
+        levelChoice.setOnAction(e -> requery());
+        elementChoice.setOnAction(e -> requery());
+        sortChoice.setOnAction(e -> requery());
+
+        HBox filters = new HBox(5, typeChoice, levelChoice, elementChoice, sortChoice);
+
+        Pane grid = new Pane();
+        grid.setTranslateY(35);
+
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(i);
+            grid.getChildren().add(slots[i]);
+        }
+
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.setTranslateX(COLUMNS * SLOT_SIZE + 5);
+        scrollBar.setTranslateY(35);
+        scrollBar.setPrefHeight(ROWS * SLOT_SIZE);
+        scrollBar.setMin(0);
+        scrollBar.setUnitIncrement(1);
+        scrollBar.setBlockIncrement(ROWS);
+        scrollBar.valueProperty().addListener((obs, old, value) -> {
+            int row = (int) Math.round(value.doubleValue());
+            if (row != firstRow) {
+                firstRow = row;
+                refreshSlots();
+            }
+        });
+
+        grid.setOnScroll(e -> scrollBar.setValue(Math.max(scrollBar.getMin(),
+                Math.min(scrollBar.getMax(), scrollBar.getValue() - Math.signum(e.getDeltaY())))));
+
+        countText.setFill(Color.WHITE);
+        countText.setTranslateY(ROWS * SLOT_SIZE + 55);
+
+        Pane root = new Pane(filters, grid, scrollBar, countText);
+        setContentPane(root);
+
+        // results are re-queried lazily when the window is visible
+        stash.addListener(() -> {
+            if (isVisible())
+                requery();
+        });
+
+        visibleProperty().addListener((obs, old, visible) -> {
+            if (visible && (result == null || result.isStale()))
+                requery();
+        });
+
+        requery();
+    }
+
+    private Stash.Filter currentFilter() {
+        Stash.Filter filter = new Stash.Filter();
+
+        Object type = typeChoice.getValue();
+        if (type instanceof WeaponType)
+            filter.withWeaponType((WeaponType) type);
+        else if (type instanceof ArmorType)
+            filter.withArmorType((ArmorType) type);
+
+        Object level = levelChoice.getValue();
+        if (level instanceof ItemLevel)
+            filter.withItemLevel((ItemLevel) level);
+
+        Object element = elementChoice.getValue();
+        if (element instanceof Element)
+            filter.withElement((Element) element);
+
+        return filter;
+    }
+
+    private void requery() {
+        Stash.SortKey sort = sortChoice.getValue();
+
+        // highest damage / armor first
+        result = stash.query(currentFilter(), sort, sort != Stash.SortKey.NONE);
+
+        int rows = (result.getSize() + COLUMNS - 1) / COLUMNS;
+        int maxFirstRow = Math.max(rows - ROWS, 0);
+
+        scrollBar.setMax(maxFirstRow);
+        scrollBar.setVisibleAmount(maxFirstRow == 0 ? 1 : ROWS * maxFirstRow / (double) rows);
+
+        firstRow = Math.min(firstRow, maxFirstRow);
+        scrollBar.setValue(firstRow);
+
+        countText.setText(result.getSize() + " / " + stash.size() + " items");
+
+        refreshSlots();
+    }
+
+    private void refreshSlots() {
+        int offset = firstRow * COLUMNS;
+
+        for (int i = 0; i < slots.length; i++) {
+            int index = offset + i;
+            slots[i].show(index < result.getSize() ? result.get(index) : null);
+        }
+    }
+
+    private final class Slot extends Pane {
+
+        private ItemEntity item;
+
+        Slot(int index) {
+            setTranslateX((index % COLUMNS) * SLOT_SIZE);
+            setTranslateY((index / COLUMNS) * SLOT_SIZE);
+            setPrefSize(SLOT_SIZE, SLOT_SIZE);
+
+            setOnMouseClicked(event -> {
+                if (item == null || event.getButton() != MouseButton.PRIMARY)
+                    return;
+
+                ItemEntity moved = item;
+                if (!player.getInventory().isFull() && stash.remove(moved)) {
+                    player.getInventory().addItem(moved);
+                    moved.setOwner(player);
+                }
+            });
+
+            Tooltip tooltip = new Tooltip();
+
+            Text text = new Text();
+            text.setFont(Font.font(20));
+            text.setFill(Color.WHITE);
+            text.setWrappingWidth(200);
+
+            tooltip.setGraphic(text);
+            tooltip.setOnShowing(e -> text.setText(item != null ? item.describe() : ""));
+            Tooltip.install(this, tooltip);
+        }
+
+        void show(ItemEntity newItem) {
+            if (newItem == item)
+                return;
+
+            item = newItem;
+            getChildren().clear();
+
+            if (item != null) {
+                getChildren().add(TextureCache.INSTANCE.texture(item.getDesc().getTextureName().get()));
+            }
+
+            setCursor(item != null ? Cursor.HAND : Cursor.DEFAULT);
+        }
+    }
+}
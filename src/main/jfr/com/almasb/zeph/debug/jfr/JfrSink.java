@@ -0,0 +1,212 @@
+package com.almasb.zeph.debug.jfr;
+
+import com.almasb.zeph.combat.DamageResult;
+import com.almasb.zeph.combat.Stat;
+import com.almasb.zeph.debug.GameEvents;
+import com.almasb.zeph.entity.skill.SkillUseResult;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emits {@link GameEvents} as JDK Flight Recorder events.
+ * Only built with the jfr profile (-Pjfr) on a JDK with Flight Recorder (8u272+) and loaded reflectively by {@link GameEvents}.
+ * An event is allocated only if its type is enabled in the running recording.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class JfrSink implements GameEvents.Sink {
+
+    @Name("zeph.Damage")
+    @Label("Damage")
+    @Category({"Zephyria", "Combat"})
+    @StackTrace(false)
+    static final class DamageEvent extends Event {
+        @Label("Attacker Archetype")
+        int attackerID;
+
+        @Label("Target Archetype")
+        int targetID;
+
+        @Label("Type")
+        String type;
+
+        @Label("Element")
+        String element;
+
+        @Label("Value")
+        int value;
+
+        @Label("Critical")
+        boolean critical;
+    }
+
+    @Name("zeph.SkillCast")
+    @Label("Skill Cast")
+    @Category({"Zephyria", "Combat"})
+    @StackTrace(false)
+    static final class SkillCastEvent extends Event {
+        @Label("Caster Archetype")
+        int casterID;
+
+        @Label("Target Archetype")
+        int targetID;
+
+        @Label("Skill")
+        int skillID;
+
+        @Label("Damage")
+        int damage;
+    }
+
+    @Name("zeph.PathSearch")
+    @Label("Path Search")
+    @Category({"Zephyria", "Pathfinding"})
+    @StackTrace(false)
+    static final class PathSearchEvent extends Event {
+        @Label("Grid Width")
+        int gridWidth;
+
+        @Label("Grid Height")
+        int gridHeight;
+
+        @Label("Nodes Expanded")
+        int expanded;
+
+        @Label("Path Length")
+        @Description("Tiles in the found path, 0 if none")
+        int pathLength;
+
+        @Label("Search Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long searchTime;
+    }
+
+    @Name("zeph.Spawn")
+    @Label("Spawn")
+    @Category({"Zephyria", "World"})
+    @StackTrace(false)
+    static final class SpawnEvent extends Event {
+        @Label("Archetype")
+        int archetypeID;
+
+        @Label("Tile X")
+        int tileX;
+
+        @Label("Tile Y")
+        int tileY;
+    }
+
+    @Name("zeph.Kill")
+    @Label("Kill")
+    @Category({"Zephyria", "World"})
+    @StackTrace(false)
+    static final class KillEvent extends Event {
+        @Label("Killer Archetype")
+        int killerID;
+
+        @Label("Victim Archetype")
+        int victimID;
+    }
+
+    @Name("zeph.StatRecompute")
+    @Label("Stat Recompute")
+    @Category({"Zephyria", "Stats"})
+    @StackTrace(false)
+    static final class StatRecomputeEvent extends Event {
+        @Label("Archetype")
+        int archetypeID;
+
+        @Label("Stat")
+        String stat;
+    }
+
+    // checked before an event is allocated
+    private static final EventType DAMAGE = EventType.getEventType(DamageEvent.class);
+    private static final EventType SKILL_CAST = EventType.getEventType(SkillCastEvent.class);
+    private static final EventType PATH_SEARCH = EventType.getEventType(PathSearchEvent.class);
+    private static final EventType SPAWN = EventType.getEventType(SpawnEvent.class);
+    private static final EventType KILL = EventType.getEventType(KillEvent.class);
+    private static final EventType STAT_RECOMPUTE = EventType.getEventType(StatRecomputeEvent.class);
+
+    @Override
+    public void damage(int attackerID, int targetID, DamageResult result) {
+        if (!DAMAGE.isEnabled())
+            return;
+
+        DamageEvent event = new DamageEvent();
+        event.attackerID = attackerID;
+        event.targetID = targetID;
+        event.type = result.getType().name();
+        event.element = result.getElement().name();
+        event.value = result.getValue();
+        event.critical = result.getCritical();
+        event.commit();
+    }
+
+    @Override
+    public void skillCast(int casterID, int targetID, int skillID, SkillUseResult result) {
+        if (!SKILL_CAST.isEnabled())
+            return;
+
+        SkillCastEvent event = new SkillCastEvent();
+        event.casterID = casterID;
+        event.targetID = targetID;
+        event.skillID = skillID;
+        event.damage = result.getDamage().getValue();
+        event.commit();
+    }
+
+    @Override
+    public void pathSearch(int gridWidth, int gridHeight, int expanded, int pathLength, long nanos) {
+        if (!PATH_SEARCH.isEnabled())
+            return;
+
+        PathSearchEvent event = new PathSearchEvent();
+        event.gridWidth = gridWidth;
+        event.gridHeight = gridHeight;
+        event.expanded = expanded;
+        event.pathLength = pathLength;
+        event.searchTime = nanos;
+        event.commit();
+    }
+
+    @Override
+    public void spawn(int archetypeID, int tileX, int tileY) {
+        if (!SPAWN.isEnabled())
+            return;
+
+        SpawnEvent event = new SpawnEvent();
+        event.archetypeID = archetypeID;
+        event.tileX = tileX;
+        event.tileY = tileY;
+        event.commit();
+    }
+
+    @Override
+    public void kill(int killerID, int victimID) {
+        if (!KILL.isEnabled())
+            return;
+
+        KillEvent event = new KillEvent();
+        event.killerID = killerID;
+        event.victimID = victimID;
+        event.commit();
+    }
+
+    @Override
+    public void statRecompute(int archetypeID, Stat stat) {
+        if (!STAT_RECOMPUTE.isEnabled())
+            return;
+
+        StatRecomputeEvent event = new StatRecomputeEvent();
+        event.archetypeID = archetypeID;
+        event.stat = stat.name();
+        event.commit();
+    }
+}
@@ -8,8 +8,6 @@ package com.almasb.zeph
 object Config {
 
     val tileSize = 64
-    val mapWidth = 20
-    val mapHeight = 20
 
     // CHARACTER VALUES
 
@@ -45,4 +43,17 @@ object Config {
     val STARTING_MONEY = 100
 
     val MAX_INVENTORY_SIZE = 30
-}
\ No newline at end of file
+
+    /**
+     * Number of items the shared stash can hold.
+     */
+    val MAX_STASH_SIZE = 50000
+
+    // DEBUG
+
+    /**
+     * Track disposal scopes of all entities and periodically report the ones that leaked.
+     * Enabled with -Dzeph.debugLeaks=true.
+     */
+    val DEBUG_LEAKS = java.lang.Boolean.getBoolean("zeph.debugLeaks")
+}
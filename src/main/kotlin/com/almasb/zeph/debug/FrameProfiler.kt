@@ -0,0 +1,214 @@
+package com.almasb.zeph.debug
+
+import java.io.IOException
+import java.io.PrintWriter
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.*
+
+/**
+ * Time spent per subsystem in each frame.
+ *
+ * Code under measurement calls [begin] and passes the result to [end], times are summed
+ * per section until [endFrame], which stores them in ring buffers of the last [FRAMES] frames
+ * and keeps the [WORST] longest frames with their breakdown.
+ * When disabled [begin] returns 0 without reading the clock and [end] does nothing.
+ *
+ * Sections may nest, e.g. [Section.PATH] is also counted in the control that requested the path.
+ * Not thread-safe, all sections are expected to run on the game thread.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object FrameProfiler {
+
+    enum class Section {
+        REGEN, EFFECTS, SKILLS, AI, ATTACK, MOVEMENT, PATH, COLLISION, WORLD, UI
+    }
+
+    const val FRAMES = 600
+    const val WORST = 5
+
+    private val sections = Section.values()
+
+    /**
+     * Column for the whole frame, after section columns.
+     */
+    private val TOTAL = sections.size
+
+    private val current = LongArray(sections.size)
+
+    private val samples = Array(sections.size + 1) { LongArray(FRAMES) }
+    private var cursor = 0
+    private var count = 0
+
+    private val worst = Array(WORST) { LongArray(sections.size + 1) }
+    private val worstFrames = LongArray(WORST)
+
+    private val scratch = LongArray(FRAMES)
+
+    private var frame = 0L
+    private var frameStart = 0L
+
+    var isEnabled = false
+        set(value) {
+            field = value
+            frameStart = 0L
+            Arrays.fill(current, 0L)
+        }
+
+    /**
+     * @return start time to pass to [end], 0 if disabled
+     */
+    @Suppress("UNUSED_PARAMETER")
+    fun begin(section: Section) = if (isEnabled) System.nanoTime() else 0L
+
+    fun end(section: Section, start: Long) {
+        if (start != 0L)
+            current[section.ordinal] += System.nanoTime() - start
+    }
+
+    /**
+     * Closes the current frame, call once per frame.
+     * Frame time is the time since the previous call.
+     */
+    fun endFrame() {
+        if (!isEnabled)
+            return
+
+        val now = System.nanoTime()
+
+        if (frameStart != 0L) {
+            frame++
+
+            for (i in current.indices) {
+                samples[i][cursor] = current[i]
+            }
+
+            val total = now - frameStart
+            samples[TOTAL][cursor] = total
+
+            recordWorst(total)
+
+            cursor = (cursor + 1) % FRAMES
+            count = Math.min(count + 1, FRAMES)
+        }
+
+        Arrays.fill(current, 0L)
+        frameStart = now
+    }
+
+    private fun recordWorst(total: Long) {
+        var min = 0
+        for (i in 1..WORST - 1) {
+            if (worst[i][TOTAL] < worst[min][TOTAL])
+                min = i
+        }
+
+        if (total <= worst[min][TOTAL])
+            return
+
+        for (i in current.indices) {
+            worst[min][i] = current[i]
+        }
+
+        worst[min][TOTAL] = total
+        worstFrames[min] = frame
+    }
+
+    fun reset() {
+        cursor = 0
+        count = 0
+        frame = 0
+        frameStart = 0L
+
+        Arrays.fill(current, 0L)
+        worst.forEach { Arrays.fill(it, 0L) }
+        Arrays.fill(worstFrames, 0L)
+    }
+
+    /**
+     * @return [p]-th percentile (0..100) of [section] time over recorded frames in nanoseconds,
+     * whole frame time if [section] is null
+     */
+    fun percentile(section: Section?, p: Double): Long {
+        if (count == 0)
+            return 0
+
+        val column = samples[section?.ordinal ?: TOTAL]
+
+        System.arraycopy(column, 0, scratch, 0, count)
+        Arrays.sort(scratch, 0, count)
+
+        val index = Math.min(count - 1, Math.ceil(p / 100 * count).toInt() - 1)
+        return scratch[Math.max(index, 0)]
+    }
+
+    /**
+     * @return percentiles per section and the worst frames, times in milliseconds
+     */
+    fun report(): String {
+        val sb = StringBuilder()
+
+        sb.append(String.format("%d frames%n", count))
+        sb.append(String.format("%-10s %7s %7s %7s %7s%n", "section", "p50", "p95", "p99", "max"))
+
+        sections.forEach { appendRow(sb, it.name, it) }
+        appendRow(sb, "FRAME", null)
+
+        sb.append(String.format("%nworst frames%n"))
+
+        worstOrder().forEach { i ->
+            sb.append(String.format("#%-8d %7.2f ", worstFrames[i], ms(worst[i][TOTAL])))
+
+            // three largest sections of that frame
+            sections.sortedByDescending { worst[i][it.ordinal] }
+                    .take(3)
+                    .forEach { sb.append(String.format(" %s %.2f", it.name, ms(worst[i][it.ordinal]))) }
+
+            sb.append(String.format("%n"))
+        }
+
+        return sb.toString()
+    }
+
+    private fun appendRow(sb: StringBuilder, name: String, section: Section?) {
+        sb.append(String.format("%-10s %7.2f %7.2f %7.2f %7.2f%n", name,
+                ms(percentile(section, 50.0)),
+                ms(percentile(section, 95.0)),
+                ms(percentile(section, 99.0)),
+                ms(percentile(section, 100.0))))
+    }
+
+    private fun worstOrder() = (0..WORST - 1)
+            .filter { worst[it][TOTAL] > 0 }
+            .sortedByDescending { worst[it][TOTAL] }
+
+    /**
+     * Writes [report] followed by all recorded frames as CSV, oldest first, times in nanoseconds.
+     */
+    @Throws(IOException::class)
+    fun dump(file: Path) {
+        PrintWriter(Files.newBufferedWriter(file)).use { out ->
+            out.println(report())
+
+            out.print("frame")
+            sections.forEach { out.print("," + it.name) }
+            out.println(",FRAME")
+
+            val first = if (count < FRAMES) 0 else cursor
+
+            for (n in 0..count - 1) {
+                val index = (first + n) % FRAMES
+
+                out.print(frame - count + 1 + n)
+                for (column in samples) {
+                    out.print(",")
+                    out.print(column[index])
+                }
+                out.println()
+            }
+        }
+    }
+
+    private fun ms(nanos: Long) = nanos / 1000000.0
+}
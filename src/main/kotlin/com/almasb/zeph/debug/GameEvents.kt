@@ -0,0 +1,103 @@
+package com.almasb.zeph.debug
+
+import com.almasb.zeph.combat.DamageResult
+import com.almasb.zeph.combat.Stat
+import com.almasb.zeph.entity.character.CharacterEntity
+import com.almasb.zeph.entity.skill.SkillEntity
+import com.almasb.zeph.entity.skill.SkillUseResult
+
+/**
+ * Domain events for external profilers, e.g. damage, skill casts, path searches, spawns and kills.
+ * Characters are identified by archetype ID.
+ *
+ * Events go to registered [Sink]s. The JDK Flight Recorder sink is loaded reflectively at startup
+ * and is built only with the opt-in jfr profile (-Pjfr) on a JDK with Flight Recorder, i.e. 8u272+.
+ * With no sinks every event is an empty loop.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object GameEvents {
+
+    interface Sink {
+
+        fun damage(attackerID: Int, targetID: Int, result: DamageResult)
+
+        fun skillCast(casterID: Int, targetID: Int, skillID: Int, result: SkillUseResult)
+
+        fun pathSearch(gridWidth: Int, gridHeight: Int, expanded: Int, pathLength: Int, nanos: Long)
+
+        fun spawn(archetypeID: Int, tileX: Int, tileY: Int)
+
+        fun kill(killerID: Int, victimID: Int)
+
+        fun statRecompute(archetypeID: Int, stat: Stat)
+    }
+
+    private const val JFR_SINK = "com.almasb.zeph.debug.jfr.JfrSink"
+
+    /**
+     * Replaced, not modified, when a sink is added.
+     */
+    private var sinks: Array<Sink> = load()
+
+    /**
+     * True if any sink is registered, callers may skip preparing event data, e.g. timing, otherwise.
+     */
+    val isEnabled: Boolean
+        get() = sinks.size > 0
+
+    private fun load(): Array<Sink> {
+        try {
+            return arrayOf(Class.forName(JFR_SINK).newInstance() as Sink)
+        } catch (e: ReflectiveOperationException) {
+            // not built, e.g. compiled on JDK 8
+            return emptyArray()
+        } catch (e: LinkageError) {
+            // built, but running on a JVM without jdk.jfr
+            return emptyArray()
+        }
+    }
+
+    /**
+     * Registers another sink, call on the game thread.
+     */
+    fun addSink(sink: Sink) {
+        sinks += sink
+    }
+
+    fun damage(attacker: CharacterEntity, target: CharacterEntity, result: DamageResult) {
+        for (s in sinks) {
+            s.damage(attacker.getID(), target.getID(), result)
+        }
+    }
+
+    fun skillCast(caster: CharacterEntity, target: CharacterEntity, skill: SkillEntity, result: SkillUseResult) {
+        for (s in sinks) {
+            s.skillCast(caster.getID(), target.getID(), skill.desc.id.value, result)
+        }
+    }
+
+    fun pathSearch(gridWidth: Int, gridHeight: Int, expanded: Int, pathLength: Int, nanos: Long) {
+        for (s in sinks) {
+            s.pathSearch(gridWidth, gridHeight, expanded, pathLength, nanos)
+        }
+    }
+
+    fun spawn(archetypeID: Int, tileX: Int, tileY: Int) {
+        for (s in sinks) {
+            s.spawn(archetypeID, tileX, tileY)
+        }
+    }
+
+    fun kill(killer: CharacterEntity, victim: CharacterEntity) {
+        for (s in sinks) {
+            s.kill(killer.getID(), victim.getID())
+        }
+    }
+
+    fun statRecompute(character: CharacterEntity, stat: Stat) {
+        for (s in sinks) {
+            s.statRecompute(character.getID(), stat)
+        }
+    }
+}
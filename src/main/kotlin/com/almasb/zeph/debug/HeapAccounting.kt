@@ -0,0 +1,319 @@
+package com.almasb.zeph.debug
+
+import com.almasb.fxgl.app.GameApplication
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.GameWorld
+import com.almasb.fxgl.entity.GameEntity
+import com.almasb.fxgl.physics.PhysicsWorld
+import com.almasb.zeph.combat.EffectEntity
+import com.almasb.zeph.combat.StatusEffectEntity
+import com.almasb.zeph.entity.Catalog
+import com.almasb.zeph.entity.DescriptionComponent
+import com.almasb.zeph.entity.character.CharacterEntity
+import com.almasb.zeph.entity.item.ItemEntity
+import com.almasb.zeph.entity.skill.SkillEntity
+import javafx.scene.Node
+import javafx.scene.Parent
+import javafx.scene.Scene
+import javafx.stage.Window
+import java.io.IOException
+import java.io.Writer
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.*
+
+/**
+ * Estimates heap retained by entities, per entity type, archetype and component type.
+ *
+ * Sizes are computed by walking fields reflectively with a 64-bit JVM layout with compressed
+ * references (12 byte header, 4 byte references, 8 byte alignment). Each object is charged once,
+ * to the first entity that reaches it. Template components shared through [Catalog] are not charged.
+ * The walk does not enter other entities, which are measured on their own instead,
+ * nor scene nodes outside the entity's view, the application, the game and physics worlds
+ * every entity references, scenes, windows and classes.
+ *
+ * Must be called on the JavaFX thread, since views are walked.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object HeapAccounting {
+
+    private const val HEADER = 12
+    private const val ARRAY_HEADER = 16
+    private const val REFERENCE = 4
+    private const val ALIGNMENT = 8
+
+    /**
+     * Bytes charged to an entity itself rather than one of its components or controls.
+     */
+    const val SELF = "(entity)"
+
+    /**
+     * Stops walks that escaped into something large through a reference we did not expect.
+     */
+    private const val MAX_OBJECTS_PER_ENTITY = 200000
+
+    class Row(val entityType: String,
+              val archetypeID: Int,
+              val name: String,
+              val component: String) {
+
+        /**
+         * Entities that contributed to this row.
+         */
+        var entities = 0
+            internal set
+
+        var bytes = 0L
+            internal set
+    }
+
+    class Snapshot(val rows: List<Row>, val entityCount: Int) {
+
+        val totalBytes = rows.fold(0L) { sum, row -> sum + row.bytes }
+
+        /**
+         * Rows merged per entity type and archetype, largest first.
+         */
+        fun byArchetype(): List<Row> {
+            val merged = LinkedHashMap<String, Row>()
+
+            rows.forEach {
+                val row = merged.getOrPut(it.entityType + "#" + it.archetypeID) { Row(it.entityType, it.archetypeID, it.name, "") }
+                if (it.component == SELF)
+                    row.entities += it.entities
+                row.bytes += it.bytes
+            }
+
+            return merged.values.sortedByDescending { it.bytes }
+        }
+
+        @Throws(IOException::class)
+        fun writeCsv(writer: Writer) {
+            writer.write("entityType,archetypeID,name,component,entities,bytes\n")
+
+            rows.forEach {
+                writer.write("${it.entityType},${it.archetypeID},\"${it.name.replace("\"", "\"\"")}\",${it.component},${it.entities},${it.bytes}\n")
+            }
+
+            writer.flush()
+        }
+
+        @Throws(IOException::class)
+        fun writeCsv(file: Path) {
+            Files.newBufferedWriter(file).use { writeCsv(it) }
+        }
+    }
+
+    private class Layout(val shallowSize: Long, val references: Array<Field>)
+
+    private val layouts = HashMap<Class<*>, Layout>()
+
+    /**
+     * Measures [roots] and all entities reachable from them, e.g. items in inventories, skills and effects.
+     */
+    fun measure(roots: Collection<Entity>): Snapshot {
+        val rows = HashMap<String, Row>()
+
+        val seen = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>())
+        val entities = ArrayDeque<Entity>(roots)
+        val queued = Collections.newSetFromMap(IdentityHashMap<Any, Boolean>())
+        queued.addAll(roots)
+
+        var entityCount = 0
+
+        while (!entities.isEmpty()) {
+            val entity = entities.pollFirst()
+            entityCount++
+
+            // shared templates are charged to nobody
+            markTemplate(entity, seen)
+
+            val desc = descriptionOf(entity)
+            val type = entity.javaClass.simpleName
+            val id = desc?.id?.value ?: 0
+            val name = desc?.name?.value ?: type
+
+            val viewNodes = viewNodesOf(entity)
+            val found = ArrayList<Entity>()
+
+            val parts = ArrayList<Any>()
+            parts.addAll(entity.components)
+            parts.addAll(entity.controls)
+
+            parts.forEach {
+                val row = rows.getOrPut("$type#$id#${it.javaClass.simpleName}") { Row(type, id, name, it.javaClass.simpleName) }
+                row.entities++
+                row.bytes += walk(it, entity, viewNodes, seen, found)
+            }
+
+            val self = rows.getOrPut("$type#$id#$SELF") { Row(type, id, name, SELF) }
+            self.entities++
+            self.bytes += walk(entity, entity, viewNodes, seen, found)
+
+            found.forEach {
+                if (queued.add(it))
+                    entities.addLast(it)
+            }
+        }
+
+        return Snapshot(rows.values.sortedByDescending { it.bytes }, entityCount)
+    }
+
+    private fun descriptionOf(entity: Entity): DescriptionComponent? = when (entity) {
+        is CharacterEntity -> entity.description
+        is ItemEntity -> entity.desc
+        is SkillEntity -> entity.desc
+        is EffectEntity -> entity.desc
+        is StatusEffectEntity -> entity.desc
+        else -> null
+    }
+
+    private fun markTemplate(entity: Entity, seen: MutableSet<Any>) {
+        val id = descriptionOf(entity)?.id?.value ?: return
+
+        val range = when {
+            id in Catalog.characters -> Catalog.characters
+            id in Catalog.weapons -> Catalog.weapons
+            id in Catalog.armor -> Catalog.armor
+            id in Catalog.misc -> Catalog.misc
+            else -> return
+        }
+
+        val template = range.template(id)
+        seen.add(template)
+        seen.addAll(template)
+    }
+
+    private fun viewNodesOf(entity: Entity): Set<Node> {
+        val nodes = Collections.newSetFromMap(IdentityHashMap<Node, Boolean>())
+
+        if (entity is GameEntity)
+            collectNodes(entity.viewComponent.view, nodes)
+
+        return nodes
+    }
+
+    private fun collectNodes(node: Node, nodes: MutableSet<Node>) {
+        nodes.add(node)
+
+        if (node is Parent)
+            node.childrenUnmodifiable.forEach { collectNodes(it, nodes) }
+    }
+
+    /**
+     * @return bytes of objects reachable from [start] not charged before
+     */
+    private fun walk(start: Any, owner: Entity, viewNodes: Set<Node>, seen: MutableSet<Any>, found: MutableList<Entity>): Long {
+        val stack = ArrayDeque<Any>()
+        stack.push(start)
+
+        var bytes = 0L
+        var objects = 0
+
+        while (!stack.isEmpty() && objects < MAX_OBJECTS_PER_ENTITY) {
+            val obj = stack.pop()
+
+            if (obj is Entity) {
+                // components refer back to the owner, which is walked separately
+                if (obj !== start) {
+                    if (obj !== owner)
+                        found.add(obj)
+                    continue
+                }
+            } else if (isBoundary(obj, viewNodes)) {
+                continue
+            }
+
+            if (!seen.add(obj))
+                continue
+
+            objects++
+
+            val type = obj.javaClass
+
+            if (type.isArray) {
+                bytes += arraySize(obj)
+
+                if (!type.componentType.isPrimitive) {
+                    (obj as Array<*>).forEach {
+                        if (it != null)
+                            stack.push(it)
+                    }
+                }
+            } else {
+                val layout = layoutOf(type)
+                bytes += layout.shallowSize
+
+                layout.references.forEach {
+                    val value = it.get(obj)
+                    if (value != null)
+                        stack.push(value)
+                }
+            }
+        }
+
+        return bytes
+    }
+
+    private fun isBoundary(obj: Any, viewNodes: Set<Node>) =
+            obj is Class<*>
+                    || obj is ClassLoader
+                    || obj is Thread
+                    || obj is GameApplication
+                    || obj is GameWorld
+                    || obj is PhysicsWorld
+                    || obj is Scene
+                    || obj is Window
+                    || (obj is Node && obj !in viewNodes)
+
+    private fun arraySize(array: Any): Long {
+        val length = java.lang.reflect.Array.getLength(array)
+        return align(ARRAY_HEADER + length.toLong() * sizeOf(array.javaClass.componentType))
+    }
+
+    private fun layoutOf(type: Class<*>): Layout {
+        return layouts.getOrPut(type) {
+            var size = HEADER.toLong()
+            val references = ArrayList<Field>()
+
+            var c: Class<*>? = type
+            while (c != null) {
+                c.declaredFields.forEach {
+                    if (!Modifier.isStatic(it.modifiers)) {
+                        size += sizeOf(it.type)
+
+                        // fields of classes we are not allowed to open are counted, but not followed
+                        if (!it.type.isPrimitive && trySetAccessible(it))
+                            references.add(it)
+                    }
+                }
+
+                c = c.superclass
+            }
+
+            Layout(align(size), references.toTypedArray())
+        }
+    }
+
+    private fun trySetAccessible(field: Field): Boolean {
+        try {
+            field.isAccessible = true
+            return true
+        } catch (e: RuntimeException) {
+            return false
+        }
+    }
+
+    private fun sizeOf(type: Class<*>) = when (type) {
+        java.lang.Long.TYPE, java.lang.Double.TYPE -> 8
+        java.lang.Integer.TYPE, java.lang.Float.TYPE -> 4
+        java.lang.Short.TYPE, java.lang.Character.TYPE -> 2
+        java.lang.Byte.TYPE, java.lang.Boolean.TYPE -> 1
+        else -> REFERENCE
+    }
+
+    private fun align(size: Long) = (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT
+}
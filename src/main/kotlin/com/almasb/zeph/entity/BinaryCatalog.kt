@@ -0,0 +1,284 @@
+package com.almasb.zeph.entity
+
+import com.almasb.fxgl.ecs.Component
+import com.almasb.zeph.combat.Attribute
+import com.almasb.zeph.combat.Element
+import com.almasb.zeph.combat.Rune
+import com.almasb.zeph.entity.character.CharacterType
+import com.almasb.zeph.entity.character.component.CharacterDataComponent
+import com.almasb.zeph.entity.item.ArmorType
+import com.almasb.zeph.entity.item.ItemLevel
+import com.almasb.zeph.entity.item.WeaponType
+import com.almasb.zeph.entity.item.component.ArmorDataComponent
+import com.almasb.zeph.entity.item.component.EquippableComponent
+import com.almasb.zeph.entity.item.component.WeaponDataComponent
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Memory-mapped catalog of externally defined weapons, armor and monsters (.zcat).
+ * Only the index is consulted on lookup, an entry is decoded when it is requested,
+ * so catalog size does not affect startup time or heap usage.
+ *
+ * Layout (big endian):
+ * magic, version, entry count, index of (id, offset) sorted by id, records.
+ * A record is a kind byte followed by id, name, description, texture and kind specific fields.
+ * Enums are stored by name, strings as UTF-8 with a 2 byte length.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class BinaryCatalog private constructor(private val buffer: ByteBuffer) {
+
+    companion object {
+        const val EXTENSION = ".zcat"
+
+        private const val MAGIC = 0x5A434154 // ZCAT
+        private const val VERSION = 1
+
+        private const val HEADER_SIZE = 12
+        private const val INDEX_ENTRY_SIZE = 8
+
+        private const val KIND_WEAPON = 1
+        private const val KIND_ARMOR = 2
+        private const val KIND_CHARACTER = 3
+
+        fun write(definitions: List<List<Component>>, file: Path) {
+            val sorted = definitions.sortedBy { idOf(it) }
+
+            val records = ByteArrayOutputStream()
+            val out = DataOutputStream(records)
+            val offsets = IntArray(sorted.size)
+
+            val recordsStart = HEADER_SIZE + sorted.size * INDEX_ENTRY_SIZE
+
+            sorted.forEachIndexed { i, components ->
+                offsets[i] = recordsStart + out.size()
+                writeRecord(out, components)
+            }
+
+            DataOutputStream(Files.newOutputStream(file)).use {
+                it.writeInt(MAGIC)
+                it.writeInt(VERSION)
+                it.writeInt(sorted.size)
+
+                sorted.forEachIndexed { i, components ->
+                    it.writeInt(idOf(components))
+                    it.writeInt(offsets[i])
+                }
+
+                records.writeTo(it)
+            }
+        }
+
+        /**
+         * Maps the file into memory. The mapping stays valid after the channel is closed.
+         */
+        fun map(file: Path): BinaryCatalog {
+            val buffer = FileChannel.open(file, StandardOpenOption.READ).use {
+                it.map(FileChannel.MapMode.READ_ONLY, 0, it.size())
+            }
+
+            buffer.order(ByteOrder.BIG_ENDIAN)
+
+            if (buffer.getInt(0) != MAGIC)
+                throw IllegalArgumentException("$file is not a catalog file")
+
+            val version = buffer.getInt(4)
+            if (version != VERSION)
+                throw IllegalArgumentException("$file has unsupported version $version")
+
+            return BinaryCatalog(buffer)
+        }
+
+        private fun idOf(components: List<Component>) = (components[0] as DescriptionComponent).id.value
+
+        private fun writeRecord(out: DataOutputStream, components: List<Component>) {
+            val desc = components[0] as DescriptionComponent
+            val data = components[1]
+
+            out.writeByte(when (data) {
+                is WeaponDataComponent -> KIND_WEAPON
+                is ArmorDataComponent -> KIND_ARMOR
+                is CharacterDataComponent -> KIND_CHARACTER
+                else -> throw IllegalArgumentException("Unsupported definition: ${data.javaClass}")
+            })
+
+            out.writeInt(desc.id.value)
+            writeString(out, desc.name.value)
+            writeString(out, desc.description.value)
+            writeString(out, desc.textureName.value)
+
+            when (data) {
+                is WeaponDataComponent -> {
+                    writeString(out, data.type.name)
+                    out.writeInt(data.pureDamage)
+                    writeEquippable(out, data)
+                }
+
+                is ArmorDataComponent -> {
+                    writeString(out, data.armorType.name)
+                    out.writeInt(data.armor)
+                    out.writeInt(data.marmor)
+                    writeEquippable(out, data)
+                }
+
+                is CharacterDataComponent -> {
+                    writeString(out, data.type.name)
+                    out.writeInt(data.baseLevel)
+                    writeString(out, data.element.name)
+                    out.writeInt(data.rewardXP.base)
+                    out.writeInt(data.rewardXP.stat)
+                    out.writeInt(data.rewardXP.job)
+
+                    out.writeShort(data.attributes.size)
+                    data.attributes.forEach { attribute, value ->
+                        writeString(out, attribute.name)
+                        out.writeInt(value)
+                    }
+
+                    out.writeShort(data.dropItems.size)
+                    data.dropItems.forEach {
+                        out.writeInt(it.first)
+                        out.writeInt(it.second)
+                    }
+                }
+            }
+        }
+
+        private fun writeString(out: DataOutputStream, value: String) {
+            val bytes = value.toByteArray(Charsets.UTF_8)
+            out.writeShort(bytes.size)
+            out.write(bytes)
+        }
+
+        private fun writeEquippable(out: DataOutputStream, data: EquippableComponent) {
+            writeString(out, data.itemLevel.name)
+            writeString(out, data.element.name)
+            out.writeInt(data.price)
+
+            out.writeShort(data.runes.size)
+            data.runes.forEach {
+                writeString(out, it.attribute.name)
+                out.writeInt(it.bonus)
+            }
+        }
+    }
+
+    val size: Int
+        get() = buffer.getInt(8)
+
+    operator fun contains(id: Int) = indexOf(id) >= 0
+
+    /**
+     * @return IDs of all entries, in ascending order
+     */
+    fun ids() = IntArray(size) { buffer.getInt(HEADER_SIZE + it * INDEX_ENTRY_SIZE) }
+
+    /**
+     * Decodes entry [id].
+     *
+     * @return new data components or null if there is no such entry
+     */
+    fun read(id: Int): List<Component>? {
+        val index = indexOf(id)
+        if (index < 0)
+            return null
+
+        // duplicate keeps reads independent of each other
+        val record = buffer.duplicate()
+        record.position(buffer.getInt(HEADER_SIZE + index * INDEX_ENTRY_SIZE + 4))
+
+        val kind = record.get().toInt()
+
+        val desc = DescriptionComponent(record.int, getString(record), getString(record), getString(record))
+
+        val data: Component = when (kind) {
+            KIND_WEAPON -> {
+                val type = WeaponType.valueOf(getString(record))
+                val damage = record.int
+                val itemLevel = ItemLevel.valueOf(getString(record))
+
+                val weapon = WeaponDataComponent(itemLevel, type, damage)
+                        .withElement(Element.valueOf(getString(record)))
+                        .withPrice(record.int)
+
+                readRunes(record).forEach { weapon.withRune(it) }
+                weapon
+            }
+
+            KIND_ARMOR -> {
+                val type = ArmorType.valueOf(getString(record))
+                val armor = record.int
+                val marmor = record.int
+                val itemLevel = ItemLevel.valueOf(getString(record))
+
+                val data = ArmorDataComponent(itemLevel, type, armor, marmor)
+                        .withElement(Element.valueOf(getString(record)))
+                        .withPrice(record.int)
+
+                readRunes(record).forEach { data.withRune(it) }
+                data
+            }
+
+            KIND_CHARACTER -> {
+                val data = CharacterDataComponent(CharacterType.valueOf(getString(record)))
+                        .withLevel(record.int)
+                        .withElement(Element.valueOf(getString(record)))
+                        .withXP(record.int, record.int, record.int)
+
+                for (i in 1..record.short) {
+                    data.withAttribute(Attribute.valueOf(getString(record)), record.int)
+                }
+
+                for (i in 1..record.short) {
+                    data.withDrop(record.int, record.int)
+                }
+
+                data
+            }
+
+            else -> throw IllegalStateException("Unknown record kind $kind for ID $id")
+        }
+
+        return listOf(desc, data)
+    }
+
+    private fun readRunes(record: ByteBuffer) = (1..record.short).map {
+        Rune(Attribute.valueOf(getString(record)), record.int)
+    }
+
+    /**
+     * Binary search over the index without copying it.
+     */
+    private fun indexOf(id: Int): Int {
+        var low = 0
+        var high = size - 1
+
+        while (low <= high) {
+            val mid = (low + high).ushr(1)
+            val midID = buffer.getInt(HEADER_SIZE + mid * INDEX_ENTRY_SIZE)
+
+            if (midID < id)
+                low = mid + 1
+            else if (midID > id)
+                high = mid - 1
+            else
+                return mid
+        }
+
+        return -1
+    }
+
+    private fun getString(record: ByteBuffer): String {
+        val length = record.short.toInt() and 0xFFFF
+        val bytes = ByteArray(length)
+        record.get(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+}
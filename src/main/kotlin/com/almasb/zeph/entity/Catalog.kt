@@ -0,0 +1,131 @@
+package com.almasb.zeph.entity
+
+import com.almasb.fxgl.ecs.Component
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.util.*
+
+/**
+ * Templates of all items and characters, indexed by ID.
+ * Each ID range is a dense array, so a lookup is a bounds check and an array read.
+ * A template is built by its factory the first time it is requested, checked
+ * against its registered ID and then shared by all instances.
+ * Template components are never attached to entities.
+ *
+ * Factories are registered by the [CatalogIndex] generated at build time,
+ * so startup does not scan or invoke anything in [Data].
+ * IDs without a factory are looked up in the packed catalog of JSON definitions,
+ * see [BinaryCatalog].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object Catalog {
+
+    /**
+     * Factories for IDs in [base, base + size).
+     */
+    class Range(val base: Int, size: Int) {
+
+        private val factories = arrayOfNulls<() -> List<Component>>(size)
+        private val templates = arrayOfNulls<List<Component>>(size)
+
+        operator fun contains(id: Int) = id >= base && id - base < factories.size
+                && (factories[id - base] != null || packed?.contains(id) ?: false)
+
+        fun register(id: Int, factory: () -> List<Component>) {
+            if (id < base || id - base >= factories.size)
+                throw IllegalArgumentException("ID $id is outside of range $base..${base + factories.size - 1}")
+
+            if (factories[id - base] != null)
+                throw IllegalArgumentException("Duplicate ID $id")
+
+            factories[id - base] = factory
+        }
+
+        /**
+         * @return shared data components of [id]
+         */
+        fun template(id: Int): List<Component> {
+            val index = id - base
+
+            if (index < 0 || index >= factories.size)
+                throw IllegalArgumentException("ID $id not found in the database")
+
+            var components = templates[index]
+
+            if (components == null) {
+                val factory = factories[index]
+
+                components = if (factory != null) factory() else packed?.read(id)
+
+                if (components == null)
+                    throw IllegalArgumentException("ID $id not found in the database")
+
+                val actualID = (components[0] as DescriptionComponent).id.value
+                if (actualID != id)
+                    throw IllegalStateException("ID $id is registered with a factory that builds ID $actualID")
+
+                templates[index] = components
+            }
+
+            return components
+        }
+    }
+
+    const val CHARACTER_BASE = 2000
+    const val WEAPON_BASE = 4000
+    const val ARMOR_BASE = 5000
+    const val MISC_BASE = 6000
+    const val SKILL_BASE = 7000
+    const val RANGE_SIZE = 1000
+
+    const val PACKED_CATALOG = "/assets/data/catalog.zcat"
+
+    val characters = Range(CHARACTER_BASE, RANGE_SIZE)
+    val weapons = Range(WEAPON_BASE, RANGE_SIZE)
+    val armor = Range(ARMOR_BASE, RANGE_SIZE)
+    val misc = Range(MISC_BASE, RANGE_SIZE)
+
+    init {
+        val indices = ServiceLoader.load(CatalogIndex::class.java).toList()
+
+        if (indices.isEmpty()) {
+            // generated index is missing, e.g. run from an IDE without the maven build
+            CatalogScanner.scan().forEach { entry ->
+                when (entry.category) {
+                    CatalogScanner.Category.CHARACTER -> characters.register(entry.id) { entry.create() }
+                    CatalogScanner.Category.WEAPON -> weapons.register(entry.id) { entry.create() }
+                    CatalogScanner.Category.ARMOR -> armor.register(entry.id) { entry.create() }
+                    CatalogScanner.Category.MISC -> misc.register(entry.id) { entry.create() }
+
+                    // skills are not built from templates
+                    CatalogScanner.Category.SKILL -> {}
+                }
+            }
+        } else {
+            indices.forEach { it.register(this) }
+        }
+    }
+
+    /**
+     * Entries defined in JSON, packed at build time. Null if not packed.
+     */
+    private val packed: BinaryCatalog? by lazy {
+        val url = javaClass.getResource(PACKED_CATALOG)
+
+        if (url == null) {
+            null
+        } else if (url.protocol == "file") {
+            BinaryCatalog.map(Paths.get(url.toURI()))
+        } else {
+            // resources inside a jar cannot be mapped, so the catalog is extracted once
+            val file = Files.createTempFile("zeph", BinaryCatalog.EXTENSION)
+            file.toFile().deleteOnExit()
+
+            url.openStream().use { Files.copy(it, file, StandardCopyOption.REPLACE_EXISTING) }
+
+            BinaryCatalog.map(file)
+        }
+    }
+}
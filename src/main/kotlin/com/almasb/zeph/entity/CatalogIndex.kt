@@ -0,0 +1,13 @@
+package com.almasb.zeph.entity
+
+/**
+ * Registers factories with the [Catalog].
+ * An implementation is generated at build time by [com.almasb.zeph.tools.CatalogCompiler]
+ * and found via [java.util.ServiceLoader].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+interface CatalogIndex {
+
+    fun register(catalog: Catalog)
+}
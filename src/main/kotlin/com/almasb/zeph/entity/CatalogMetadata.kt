@@ -0,0 +1,52 @@
+package com.almasb.zeph.entity
+
+import java.util.*
+
+/**
+ * Names, texture names and prices of all catalog entries, read from the table
+ * generated at build time. Lets UI show an entry without building its template.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object CatalogMetadata {
+
+    const val TABLE = "/assets/data/catalog.tsv"
+
+    private val ids: IntArray
+    private val names: Array<String>
+    private val textureNames: Array<String>
+    private val prices: IntArray
+
+    init {
+        val rows = javaClass.getResourceAsStream(TABLE)?.bufferedReader(Charsets.UTF_8)?.useLines { lines ->
+            lines.drop(1)
+                    .filter { it.isNotBlank() }
+                    .map { it.split('\t') }
+                    .toList()
+        } ?: emptyList()
+
+        // table is written sorted by id
+        ids = IntArray(rows.size) { rows[it][0].toInt() }
+        names = Array(rows.size) { rows[it][1] }
+        textureNames = Array(rows.size) { rows[it][2] }
+        prices = IntArray(rows.size) { rows[it][3].toInt() }
+    }
+
+    fun contains(id: Int) = Arrays.binarySearch(ids, id) >= 0
+
+    fun name(id: Int) = names[indexOf(id)]
+
+    fun textureName(id: Int) = textureNames[indexOf(id)]
+
+    fun price(id: Int) = prices[indexOf(id)]
+
+    fun size() = ids.size
+
+    private fun indexOf(id: Int): Int {
+        val index = Arrays.binarySearch(ids, id)
+        if (index < 0)
+            throw IllegalArgumentException("ID $id not found in catalog metadata")
+
+        return index
+    }
+}
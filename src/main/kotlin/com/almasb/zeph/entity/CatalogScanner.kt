@@ -0,0 +1,87 @@
+package com.almasb.zeph.entity
+
+import com.almasb.fxgl.ecs.Component
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.*
+
+/**
+ * Finds factory methods in [Data] via reflection.
+ * Used by the catalog compiler at build time and by [Catalog]
+ * when the generated index is not on the classpath (e.g. when run from an IDE).
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object CatalogScanner {
+
+    enum class Category {
+        CHARACTER,
+        WEAPON,
+        ARMOR,
+        MISC,
+        SKILL;
+
+        /**
+         * Read on use rather than passed to the constructor, since reading it initializes [Catalog],
+         * whose fallback scan needs this enum initialized already.
+         */
+        val base: Int
+            get() = when (this) {
+                CHARACTER -> Catalog.CHARACTER_BASE
+                WEAPON -> Catalog.WEAPON_BASE
+                ARMOR -> Catalog.ARMOR_BASE
+                MISC -> Catalog.MISC_BASE
+                SKILL -> Catalog.SKILL_BASE
+            }
+
+        fun isInRange(id: Int) = id >= base && id - base < Catalog.RANGE_SIZE
+    }
+
+    /**
+     * A factory method of a Kotlin object nested in [Data].
+     */
+    class Entry(val id: Int, val category: Category, val owner: Any, val method: Method) {
+
+        @Suppress("UNCHECKED_CAST")
+        fun create() = method.invoke(owner) as List<Component>
+
+        /**
+         * @return Java expression that calls the factory
+         */
+        fun toJavaCall() = "${owner.javaClass.canonicalName}.INSTANCE.${method.name}()"
+
+        override fun toString() = "${owner.javaClass.simpleName}.${method.name}()"
+    }
+
+    fun scan(): List<Entry> {
+        val entries = ArrayList<Entry>()
+
+        scan(Data.Character, Category.CHARACTER, entries)
+        scan(Data.Weapon, Category.WEAPON, entries)
+        scan(Data.Armor, Category.ARMOR, entries)
+        scan(Data.Misc, Category.MISC, entries)
+        scan(Data.Skill, Category.SKILL, entries)
+
+        return entries
+    }
+
+    private fun scan(owner: Any, category: Category, entries: MutableList<Entry>) {
+        owner.javaClass.declaredMethods
+                .filter { Modifier.isPublic(it.modifiers) && !it.isSynthetic
+                        && it.parameterCount == 0 && List::class.java.isAssignableFrom(it.returnType) }
+                .sortedBy { it.name }
+                .forEach {
+                    @Suppress("UNCHECKED_CAST")
+                    val components = it.invoke(owner) as List<Component>
+
+                    val id = (components[0] as DescriptionComponent).id.value
+                    entries.add(Entry(id, category, owner, it))
+                }
+
+        // nested objects, e.g. Data.Skill.Warrior
+        owner.javaClass.declaredClasses
+                .mapNotNull { cls -> cls.declaredFields.firstOrNull { it.name == "INSTANCE" }?.get(null) }
+                .sortedBy { it.javaClass.name }
+                .forEach { scan(it, category, entries) }
+    }
+}
@@ -9,8 +9,10 @@ import com.almasb.zeph.entity.item.ArmorType
 import com.almasb.zeph.entity.item.ItemLevel
 import com.almasb.zeph.entity.item.WeaponType
 import com.almasb.zeph.entity.item.component.ArmorDataComponent
+import com.almasb.zeph.entity.item.component.MiscDataComponent
 import com.almasb.zeph.entity.item.component.WeaponDataComponent
 import com.almasb.zeph.entity.skill.*
+import javafx.beans.value.ChangeListener
 import java.util.*
 
 /**
@@ -31,11 +33,13 @@ object Data {
         fun KNIFE() = listOf<Component>(
                 DescriptionComponent(4001, "Knife", "A simple knife with poor blade.", "items/weapons/knife.png"),
                 WeaponDataComponent(ItemLevel.NORMAL, WeaponType.DAGGER, 15)
+                        .withPrice(150)
         )
 
         fun GUT_RIPPER() = listOf<Component>(
                 DescriptionComponent(4003, "The Gut Ripper", "A fierce weapon that punctures and ruptures enemies with vicious and lightning fast blows.", "items/weapons/gut_ripper.png"),
                 WeaponDataComponent(ItemLevel.EPIC, WeaponType.DAGGER, 100)
+                        .withPrice(12000)
                         .withRune(Rune(Attribute.AGILITY, 4))
                         .withRune(Rune(Attribute.DEXTERITY, 4))
                         .withRune(Rune(Attribute.LUCK, 1))
@@ -54,11 +58,13 @@ object Data {
         fun IRON_SWORD() = listOf<Component>(
                 DescriptionComponent(4100, "Iron Sword", "A standard warrior's sword with decent attack damage.", "items/weapons/iron_sword.png"),
                 WeaponDataComponent(ItemLevel.NORMAL, WeaponType.ONE_H_SWORD, 25)
+                        .withPrice(250)
         )
 
         fun GETSUGA_TENSHO() = listOf<Component>(
                 DescriptionComponent(4101, "Getsuga Tensho", "A powerful sword that is carved from the fangs of the moon itself and pierced through heaven.", "items/weapons/getsuga_tensho.png"),
                 WeaponDataComponent(ItemLevel.EPIC, WeaponType.ONE_H_SWORD, 150)
+                        .withPrice(18000)
                         .withRune(Rune(Attribute.STRENGTH, 5))
                         .withRune(Rune(Attribute.AGILITY, 4))
                         .withRune(Rune(Attribute.DEXTERITY, 4))
@@ -70,18 +76,21 @@ object Data {
         fun CLAYMORE() = listOf<Component>(
                 DescriptionComponent(4200, "Claymore", "Large, double-edged broad sword that was used by the Scottish highlanders.", "items/weapons/claymore.png"),
                 WeaponDataComponent(ItemLevel.NORMAL, WeaponType.TWO_H_SWORD, 35)
+                        .withPrice(400)
                         .withRune(Rune(Attribute.STRENGTH, 1))
         )
 
         fun BROADSWORD() = listOf<Component>(
                 DescriptionComponent(4201, "Broadsword", "A sword with a wide, double sided blade.", "items/weapons/broadsword.png"),
                 WeaponDataComponent(ItemLevel.NORMAL, WeaponType.TWO_H_SWORD, 28)
+                        .withPrice(350)
                         .withRune(Rune(Attribute.LUCK, 1))
         )
 
         fun FROSTMOURN() = listOf<Component>(
                 DescriptionComponent(4202, "Frostmourn", "The legendary sword of the Ice Dungeon's King.", "items/weapons/frostmourn.png"),
                 WeaponDataComponent(ItemLevel.EPIC, WeaponType.TWO_H_SWORD, 130)
+                        .withPrice(15000)
                         .withRune(Rune(Attribute.DEXTERITY, 5))
                         .withRune(Rune(Attribute.STRENGTH, 3))
         )
@@ -89,12 +98,14 @@ object Data {
         fun BATTLESWORD() = listOf<Component>(
                 DescriptionComponent(4203, "Battlesword", "A terrifying two-handed sword that is said to stimulate the nerves in order to kill, once it's in the wearer's hands.", "items/weapons/battlesword.png"),
                 WeaponDataComponent(ItemLevel.NORMAL, WeaponType.TWO_H_SWORD, 44)
+                        .withPrice(550)
                         .withRune(Rune(Attribute.STRENGTH, 2))
         )
 
         fun LONGSWORD() = listOf<Component>(
                 DescriptionComponent(4204, "Longsword", "A two-handed sword with straight double-edged blade.", "items/weapons/longsword.png"),
                 WeaponDataComponent(ItemLevel.NORMAL, WeaponType.TWO_H_SWORD, 33)
+                        .withPrice(380)
                         .withRune(Rune(Attribute.AGILITY, 1))
                         .withRune(Rune(Attribute.DEXTERITY, 2))
         )
@@ -105,6 +116,7 @@ object Data {
         fun SOUL_REAPER() = listOf<Component>(
                 DescriptionComponent(4300, "Soul Reaper", "Forged in the dephts of Aesmir, it is said the weilder can feel the weapon crave the souls of its enemies.", "items/weapons/soul_reaper.png"),
                 WeaponDataComponent(ItemLevel.EPIC, WeaponType.TWO_H_AXE, 170)
+                        .withPrice(20000)
                         .withRune(Rune(Attribute.STRENGTH, 7))
                         .withRune(Rune(Attribute.VITALITY, 4))
                         .withRune(Rune(Attribute.DEXTERITY, 2))
@@ -121,6 +133,7 @@ object Data {
         fun DRAGON_CLAW() = listOf<Component>(
                 DescriptionComponent(4800, "Dragon's Claw", "A mythical bow made of claws of the legendary dragon. Contains dragon's wisdom and loyal to only one master throughout his whole life. Grants dragon's and earlier owner's wisdom and knowledge to the new master.", "items/weapons/dragon_claw.png"),
                 WeaponDataComponent(ItemLevel.EPIC, WeaponType.BOW, 130)
+                        .withPrice(15000)
                         .withRune(Rune(Attribute.WISDOM, 3))
                         .withRune(Rune(Attribute.DEXTERITY, 4))
                         .withRune(Rune(Attribute.LUCK, 1))
@@ -151,30 +164,35 @@ object Data {
         fun CHAINMAIL() = listOf<Component>(
                 DescriptionComponent(5003, "Chainmail", "Armour consisting of small metal rings linked together in a pattern to form a mesh.", "items/armor/chainmail.png"),
                 ArmorDataComponent(ItemLevel.NORMAL, ArmorType.BODY, 10, 5)
+                        .withPrice(600)
                         .withRune(Rune(Attribute.STRENGTH, 2))
         )
 
         fun SOUL_BARRIER() = listOf<Component>(
                 DescriptionComponent(5004, "Soul Barrier", "Protects its wearer from magic attacks.", "items/armor/soul_barrier.png"),
                 ArmorDataComponent(ItemLevel.UNIQUE, ArmorType.BODY, 10, 50)
+                        .withPrice(6000)
                         .withRune(Rune(Attribute.WILLPOWER, 2))
         )
 
         fun DOMOVOI() = listOf<Component>(
                 DescriptionComponent(5005, "Domovoi", "Generations of guardians have bled in this armour, imbuing it with spirits of protection. Spirits that awaken when the wearers need is greatest.", "items/armor/domovoi.png"),
                 ArmorDataComponent(ItemLevel.UNIQUE, ArmorType.BODY, 15, 35)
+                        .withPrice(6500)
                         .withRune(Rune(Attribute.WILLPOWER, 3))
         )
 
         fun SAPPHIRE_LEGION_PLATE_ARMOR() = listOf<Component>(
                 DescriptionComponent(5006, "Sapphire Legion Plate Armor", "Produced in the Jaded Forges of the Jewelled King, strictly for use by warriors who have proved their mastery of combat through decades of service.", "items/armor/sapphire_legion_plate_armor.png"),
                 ArmorDataComponent(ItemLevel.UNIQUE, ArmorType.BODY, 30, 10)
+                        .withPrice(7000)
                         .withRune(Rune(Attribute.VITALITY, 4))
         )
 
         fun THANATOS_BODY_ARMOR() = listOf<Component>(
                 DescriptionComponent(5007, "Thanatos Body Armor", "A shattered piece of Thanatos' legendary armor. Grants its user great constitution.", "items/armor/thanatos_body_armor.png"),
                 ArmorDataComponent(ItemLevel.EPIC, ArmorType.BODY, 50, 25)
+                        .withPrice(14000)
                         .withRune(Rune(Attribute.VITALITY, 5))
                         .withRune(Rune(Attribute.PERCEPTION, 3))
         )
@@ -184,6 +202,14 @@ object Data {
         // SHOES 5300
     }
 
+    object Misc {
+        fun BONE_FRAGMENT() = listOf<Component>(
+                DescriptionComponent(6000, "Bone Fragment", "A splinter of bone left behind by the restless dead.", "items/misc/bone_fragment.png"),
+                MiscDataComponent(50)
+                        .withPrice(8)
+        )
+    }
+
     object Character {
         fun SKELETON_ARCHER() = listOf<Component>(
                 DescriptionComponent(2004, "Skeleton-Archer", "Skeleton-Archer Description.", "chars/enemies/skeleton_archer.png"),
@@ -196,6 +222,7 @@ object Data {
                         .withAttribute(Attribute.DEXTERITY, 3)
                         .withAttribute(Attribute.AGILITY, 2)
                         .withDrop(4001, 50)
+                        .withDrop(6000, 70)
         )
     }
 
@@ -244,11 +271,11 @@ object Data {
                             .onLearn { caster, skill ->
                                 skill.data.onCast(caster, caster, skill)
 
-                                caster.stats.statProperty(Stat.MAX_HP).addListener({ o, old, new ->
+                                caster.scope.listen(caster.stats.statProperty(Stat.MAX_HP), ChangeListener<Number> { o, old, new ->
                                     skill.data.onCast(caster, caster, skill)
                                 })
 
-                                skill.level.addListener({o, old, new ->
+                                caster.scope.listen(skill.level, ChangeListener<Number> { o, old, new ->
                                     skill.data.onCast(caster, caster, skill)
                                 })
                             }
@@ -269,7 +296,7 @@ object Data {
                             .onLearn { caster, skill ->
                                 skill.data.onCast(caster, caster, skill)
 
-                                skill.level.addListener({o, old, new ->
+                                caster.scope.listen(skill.level, ChangeListener<Number> { o, old, new ->
                                     skill.data.onCast(caster, caster, skill)
                                 })
                             }
@@ -504,7 +531,7 @@ object Data {
                             .onLearn { caster, skill ->
                                 skill.data.onCast(caster, caster, skill)
 
-                                skill.level.addListener({o, old, new ->
+                                caster.scope.listen(skill.level, ChangeListener<Number> { o, old, new ->
                                     skill.data.onCast(caster, caster, skill)
                                 })
                             }
@@ -528,7 +555,7 @@ object Data {
                             .onLearn { caster, skill ->
                                 skill.data.onCast(caster, caster, skill)
 
-                                skill.level.addListener({o, old, new ->
+                                caster.scope.listen(skill.level, ChangeListener<Number> { o, old, new ->
                                     skill.data.onCast(caster, caster, skill)
                                 })
                             }
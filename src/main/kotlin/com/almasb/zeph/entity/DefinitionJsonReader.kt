@@ -0,0 +1,268 @@
+package com.almasb.zeph.entity
+
+import com.almasb.fxgl.ecs.Component
+import com.almasb.zeph.combat.Attribute
+import com.almasb.zeph.combat.Element
+import com.almasb.zeph.combat.Experience
+import com.almasb.zeph.combat.Rune
+import com.almasb.zeph.entity.character.CharacterType
+import com.almasb.zeph.entity.character.component.CharacterDataComponent
+import com.almasb.zeph.entity.item.ArmorType
+import com.almasb.zeph.entity.item.ItemLevel
+import com.almasb.zeph.entity.item.WeaponType
+import com.almasb.zeph.entity.item.component.ArmorDataComponent
+import com.almasb.zeph.entity.item.component.WeaponDataComponent
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import java.io.InputStream
+import java.util.*
+
+/**
+ * Streaming reader for weapon, armor and monster definitions in JSON.
+ * Each file is an array of objects, produces the same components as factories in [Data].
+ *
+ * Common fields: id, name, description, texture.
+ * Weapon: itemLevel, type, damage, element, price, runes [{attribute, bonus}].
+ * Armor: itemLevel, type, armor, marmor, element, price, runes.
+ * Monster: type, level, element, xp {base, stat, job}, attributes {NAME: value}, drops [{item, chance}].
+ * Enum values are given by name, e.g. "EPIC", "TWO_H_SWORD".
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object DefinitionJsonReader {
+
+    private val factory = JsonFactory()
+
+    fun readWeapons(input: InputStream) = readAll(input) { readWeapon(it) }
+
+    fun readArmor(input: InputStream) = readAll(input) { readArmor(it) }
+
+    fun readMonsters(input: InputStream) = readAll(input) { readMonster(it) }
+
+    private inline fun readAll(input: InputStream, read: (JsonParser) -> List<Component>): List<List<Component>> {
+        factory.createParser(input).use { parser ->
+            parser.nextToken()
+
+            val result = ArrayList<List<Component>>()
+            readArray(parser) { result.add(read(it)) }
+            return result
+        }
+    }
+
+    private fun readWeapon(parser: JsonParser): List<Component> {
+        val desc = Desc()
+        var itemLevel = ItemLevel.NORMAL
+        var type = WeaponType.MACE
+        var damage = 0
+        var element = Element.NEUTRAL
+        var price = 0
+        val runes = ArrayList<Rune>()
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+
+            if (desc.read(field, parser))
+                continue
+
+            when (field) {
+                "itemLevel" -> itemLevel = ItemLevel.valueOf(parser.text)
+                "type" -> type = WeaponType.valueOf(parser.text)
+                "damage" -> damage = parser.intValue
+                "element" -> element = Element.valueOf(parser.text)
+                "price" -> price = parser.intValue
+                "runes" -> readArray(parser) { runes.add(readRune(it)) }
+                else -> parser.skipChildren()
+            }
+        }
+
+        val data = WeaponDataComponent(itemLevel, type, damage)
+                .withElement(element)
+                .withPrice(price)
+
+        runes.forEach { data.withRune(it) }
+
+        return listOf(desc.toComponent(), data)
+    }
+
+    private fun readArmor(parser: JsonParser): List<Component> {
+        val desc = Desc()
+        var itemLevel = ItemLevel.NORMAL
+        var type = ArmorType.BODY
+        var armor = 0
+        var marmor = 0
+        var element = Element.NEUTRAL
+        var price = 0
+        val runes = ArrayList<Rune>()
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+
+            if (desc.read(field, parser))
+                continue
+
+            when (field) {
+                "itemLevel" -> itemLevel = ItemLevel.valueOf(parser.text)
+                "type" -> type = ArmorType.valueOf(parser.text)
+                "armor" -> armor = parser.intValue
+                "marmor" -> marmor = parser.intValue
+                "element" -> element = Element.valueOf(parser.text)
+                "price" -> price = parser.intValue
+                "runes" -> readArray(parser) { runes.add(readRune(it)) }
+                else -> parser.skipChildren()
+            }
+        }
+
+        val data = ArmorDataComponent(itemLevel, type, armor, marmor)
+                .withElement(element)
+                .withPrice(price)
+
+        runes.forEach { data.withRune(it) }
+
+        return listOf(desc.toComponent(), data)
+    }
+
+    private fun readMonster(parser: JsonParser): List<Component> {
+        val desc = Desc()
+        var type = CharacterType.NORMAL
+        var level = 1
+        var element = Element.NEUTRAL
+        var xp = Experience(0, 0, 0)
+        val attributes = LinkedHashMap<Attribute, Int>()
+        val drops = ArrayList<Pair<Int, Int>>()
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+
+            if (desc.read(field, parser))
+                continue
+
+            when (field) {
+                "type" -> type = CharacterType.valueOf(parser.text)
+                "level" -> level = parser.intValue
+                "element" -> element = Element.valueOf(parser.text)
+                "xp" -> xp = readXP(parser)
+                "attributes" -> {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        val attribute = Attribute.valueOf(parser.currentName)
+                        parser.nextToken()
+                        attributes[attribute] = parser.intValue
+                    }
+                }
+                "drops" -> readArray(parser) { drops.add(readDrop(it)) }
+                else -> parser.skipChildren()
+            }
+        }
+
+        val data = CharacterDataComponent(type)
+                .withLevel(level)
+                .withElement(element)
+                .withXP(xp.base, xp.stat, xp.job)
+
+        attributes.forEach { attribute, value -> data.withAttribute(attribute, value) }
+        drops.forEach { data.withDrop(it.first, it.second) }
+
+        return listOf(desc.toComponent(), data)
+    }
+
+    private fun readXP(parser: JsonParser): Experience {
+        val xp = Experience(0, 0, 0)
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+
+            when (field) {
+                "base" -> xp.base = parser.intValue
+                "stat" -> xp.stat = parser.intValue
+                "job" -> xp.job = parser.intValue
+                else -> parser.skipChildren()
+            }
+        }
+
+        return xp
+    }
+
+    /**
+     * @return item ID to drop chance
+     */
+    private fun readDrop(parser: JsonParser): Pair<Int, Int> {
+        var item = 0
+        var chance = 0
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+
+            when (field) {
+                "item" -> item = parser.intValue
+                "chance" -> chance = parser.intValue
+                else -> parser.skipChildren()
+            }
+        }
+
+        return item.to(chance)
+    }
+
+    private fun readRune(parser: JsonParser): Rune {
+        var attribute = Attribute.STRENGTH
+        var bonus = 0
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+
+            when (field) {
+                "attribute" -> attribute = Attribute.valueOf(parser.text)
+                "bonus" -> bonus = parser.intValue
+                else -> parser.skipChildren()
+            }
+        }
+
+        return Rune(attribute, bonus)
+    }
+
+    /**
+     * Fields shared by all definitions.
+     */
+    private class Desc {
+        var id = -1
+        var name = ""
+        var description = ""
+        var texture = ""
+
+        /**
+         * @return true if [field] was consumed
+         */
+        fun read(field: String, parser: JsonParser): Boolean {
+            when (field) {
+                "id" -> id = parser.intValue
+                "name" -> name = parser.text
+                "description" -> description = parser.text
+                "texture" -> texture = parser.text
+                else -> return false
+            }
+
+            return true
+        }
+
+        fun toComponent(): DescriptionComponent {
+            if (id < 0)
+                throw IllegalArgumentException("Definition \"$name\" has no id")
+
+            return DescriptionComponent(id, name, description, texture)
+        }
+    }
+
+    private inline fun readArray(parser: JsonParser, action: (JsonParser) -> Unit) {
+        if (parser.currentToken != JsonToken.START_ARRAY)
+            throw IllegalArgumentException("Malformed definitions: expected array but was ${parser.currentToken}")
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            action(parser)
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.almasb.zeph.entity
+
+import java.util.*
+
+/**
+ * Small LRU cache of generated description texts, keyed by template ID
+ * and the mutable state the text depends on (e.g. refine level, skill level).
+ * Texts are only generated when a tooltip is about to show.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object DescriptionCache {
+
+    const val MAX_SIZE = 128
+
+    private val cache = object : LinkedHashMap<Long, String>(MAX_SIZE * 4 / 3 + 1, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Long, String>) = size > MAX_SIZE
+    }
+
+    /**
+     * @return cached text for ([id], [state]) or the text produced by [build]
+     */
+    fun get(id: Int, state: Int, build: () -> String): String {
+        val key = (id.toLong() shl 32) or (state.toLong() and 0xFFFFFFFFL)
+
+        return cache.getOrPut(key, build)
+    }
+
+    fun size() = cache.size
+
+    fun clear() = cache.clear()
+}
@@ -0,0 +1,148 @@
+package com.almasb.zeph.entity
+
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.zeph.Config
+import javafx.beans.InvalidationListener
+import javafx.beans.Observable
+import javafx.beans.property.Property
+import javafx.beans.value.ChangeListener
+import javafx.beans.value.ObservableValue
+import javafx.collections.ListChangeListener
+import javafx.collections.ObservableList
+import java.util.*
+
+/**
+ * Tracks listeners and bindings registered on behalf of [owner]
+ * and releases them all in [dispose], which is called when the owner leaves the world.
+ * Anything registered after disposal is released immediately.
+ * Each registration returns a handle that can be passed to [release] to undo it early.
+ *
+ * With [Config.DEBUG_LEAKS] every scope is tracked, see [reportLeaks].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class DisposalScope(val owner: Entity) {
+
+    private val disposers = ArrayList<Runnable>()
+
+    var isDisposed = false
+        private set
+
+    init {
+        if (Config.DEBUG_LEAKS)
+            live.add(this)
+    }
+
+    fun <T> listen(observable: ObservableValue<T>, listener: ChangeListener<in T>): Runnable {
+        observable.addListener(listener)
+        return add(Runnable { observable.removeListener(listener) })
+    }
+
+    fun listen(observable: Observable, listener: InvalidationListener): Runnable {
+        observable.addListener(listener)
+        return add(Runnable { observable.removeListener(listener) })
+    }
+
+    fun <E> listen(list: ObservableList<E>, listener: ListChangeListener<in E>): Runnable {
+        list.addListener(listener)
+        return add(Runnable { list.removeListener(listener) })
+    }
+
+    /**
+     * Binds [property] to [source] until disposal.
+     */
+    fun <T> bind(property: Property<T>, source: ObservableValue<out T>): Runnable {
+        property.bind(source)
+        return add(Runnable { property.unbind() })
+    }
+
+    /**
+     * Runs [action] on disposal.
+     */
+    fun onDispose(action: Runnable): Runnable {
+        return add(action)
+    }
+
+    /**
+     * Undoes a single registration before disposal.
+     *
+     * @param handle returned by the registration
+     */
+    fun release(handle: Runnable) {
+        if (disposers.remove(handle))
+            handle.run()
+    }
+
+    /**
+     * @return number of registrations not yet released
+     */
+    fun size() = disposers.size
+
+    fun dispose() {
+        if (isDisposed)
+            return
+
+        isDisposed = true
+
+        // in reverse, so bindings are released before the listeners registered before them
+        for (i in disposers.indices.reversed()) {
+            disposers[i].run()
+        }
+
+        disposers.clear()
+    }
+
+    private fun add(disposer: Runnable): Runnable {
+        if (isDisposed) {
+            if (Config.DEBUG_LEAKS)
+                lateRegistrations++
+
+            disposer.run()
+            return disposer
+        }
+
+        disposers.add(disposer)
+        return disposer
+    }
+
+    companion object {
+
+        /**
+         * Scopes created while [Config.DEBUG_LEAKS] is on, weakly held.
+         */
+        private val live = Collections.newSetFromMap(WeakHashMap<DisposalScope, Boolean>())
+
+        private var lateRegistrations = 0
+
+        @JvmStatic fun isTracking() = Config.DEBUG_LEAKS
+
+        /**
+         * @return number of registrations held by tracked scopes that are not disposed
+         */
+        @JvmStatic fun liveRegistrations() = live.sumBy { if (it.isDisposed) 0 else it.size() }
+
+        /**
+         * A scope has leaked if its owner is no longer active but the scope was never disposed.
+         * Registrations made after disposal are counted as well, they were released immediately.
+         *
+         * @return one line per leak, empty if none or if tracking is off
+         */
+        @JvmStatic fun reportLeaks(): List<String> {
+            val report = ArrayList<String>()
+
+            val leaked = live.filter { !it.isDisposed && !it.owner.isActive && it.size() > 0 }
+                    .groupBy { it.owner.javaClass.simpleName }
+
+            for ((type, scopes) in leaked) {
+                report.add("Leaked: ${scopes.size} scope(s) of inactive $type holding ${scopes.sumBy { it.size() }} registration(s)")
+            }
+
+            if (lateRegistrations > 0) {
+                report.add("Registered after disposal: $lateRegistrations")
+                lateRegistrations = 0
+            }
+
+            return report
+        }
+    }
+}
@@ -1,23 +1,16 @@
 package com.almasb.zeph.entity
 
 import com.almasb.fxgl.ecs.Component
-import com.almasb.fxgl.ecs.Entity
-import com.almasb.fxgl.entity.EntityView
-import com.almasb.fxgl.ui.ProgressBar
 import com.almasb.zeph.Config
 import com.almasb.zeph.entity.character.CharacterEntity
-import com.almasb.zeph.entity.character.component.SubViewComponent
+import com.almasb.zeph.entity.character.EquipPlace
 import com.almasb.zeph.entity.item.ArmorEntity
+import com.almasb.zeph.entity.item.ItemEntity
+import com.almasb.zeph.entity.item.MiscItemEntity
 import com.almasb.zeph.entity.item.WeaponEntity
 import javafx.geometry.Point2D
-import javafx.scene.Group
-import javafx.scene.paint.Color
-import javafx.scene.text.Font
-import javafx.scene.text.Text
-import java.lang.reflect.Method
 import java.util.*
 
-@Suppress("UNCHECKED_CAST")
 /**
  *
  *
@@ -25,103 +18,49 @@ import java.util.*
  */
 object EntityManager {
 
-    private val weapons = HashMap<Int, Method>()
-    private val armor = HashMap<Int, Method>()
+    fun getWeapon(id: Int) = WeaponEntity(Catalog.weapons.template(id))
 
-    fun getWeapon(id: Int) = WeaponEntity(weapons[id]!!.invoke(Data.Weapon) as List<Component>)
+    fun getArmor(id: Int) = ArmorEntity(Catalog.armor.template(id))
 
-    fun getArmor(id: Int) = ArmorEntity(armor[id]!!.invoke(Data.Armor) as List<Component>)
+    fun getMisc(id: Int) = MiscItemEntity(Catalog.misc.template(id))
 
-    fun getItem(id: Int): Entity {
-        if (weapons.containsKey(id))
-            return getWeapon(id)
+    fun getCharacterDescription(id: Int) = Catalog.characters.template(id)
 
-        if (armor.containsKey(id))
-            return getArmor(id)
+    /**
+     * Placeholder items (hands, clothes, etc.) have no state of their own,
+     * so one instance per ID is shared by everyone.
+     */
+    private val emptyItems = HashMap<Int, ItemEntity>()
 
-        throw IllegalArgumentException("ID $id not found in the database")
-    }
+    /**
+     * @return shared placeholder item used when nothing is equipped at [place]
+     */
+    fun getEmptyItem(place: EquipPlace) = emptyItems.getOrPut(place.emptyID) { getItem(place.emptyID) }
 
-    init {
-        Data.Weapon.javaClass.declaredMethods.forEach {
-            val list = it.invoke(Data.Weapon) as List<Component>
+    fun getItem(id: Int): ItemEntity {
+        if (id in Catalog.weapons)
+            return getWeapon(id)
 
-            val id = (list[0] as DescriptionComponent).id.value
-            weapons[id] = it
-        }
+        if (id in Catalog.armor)
+            return getArmor(id)
 
-        Data.Armor.javaClass.declaredMethods.forEach {
-            val list = it.invoke(Data.Armor) as List<Component>
+        if (id in Catalog.misc)
+            return getMisc(id)
 
-            val id = (list[0] as DescriptionComponent).id.value
-            armor[id] = it
-        }
+        throw IllegalArgumentException("ID $id not found in the database")
     }
 
-    fun makeHPBar(): ProgressBar {
-        val bar = ProgressBar(false)
-
-        with(bar) {
-            setHeight(25.0)
-            setFill(Color.GREEN.brighter())
-            setTraceFill(Color.GREEN.brighter())
-            isLabelVisible = true
+    /**
+     * @return shared description of item [id], without creating an item instance
+     */
+    fun getItemDescription(id: Int): DescriptionComponent {
+        val template = when (id) {
+            in Catalog.weapons -> Catalog.weapons.template(id)
+            in Catalog.misc -> Catalog.misc.template(id)
+            else -> Catalog.armor.template(id)
         }
 
-        return bar
-    }
-
-    fun makeSkillBar(): ProgressBar {
-        val bar = ProgressBar(false)
-
-        with(bar) {
-            setHeight(25.0)
-            setFill(Color.BLUE.brighter().brighter())
-            setTraceFill(Color.BLUE)
-            isLabelVisible = true
-        }
-
-        return bar
-    }
-
-    fun makeCharacterSubView(entity: CharacterEntity): SubViewComponent {
-        val barHP = makeHPBar()
-        val barSP = makeSkillBar()
-
-        barHP.translateX = 0.0
-        barHP.translateY = 80.0
-        barHP.setWidth(Config.tileSize.toDouble())
-        barHP.setHeight(10.0)
-        barHP.isLabelVisible = false
-
-        barSP.translateX = 0.0
-        barSP.translateY = 90.0
-        barSP.setWidth(Config.tileSize.toDouble())
-        barSP.setHeight(10.0)
-        barSP.isLabelVisible = false
-
-        barHP.maxValueProperty().bind(entity.hp.maxValueProperty())
-        barHP.currentValueProperty().bind(entity.hp.valueProperty())
-
-        barSP.maxValueProperty().bind(entity.sp.maxValueProperty())
-        barSP.currentValueProperty().bind(entity.sp.valueProperty())
-
-        val text = Text()
-        text.font = Font.font(14.0)
-        text.fill = Color.WHITE
-        text.textProperty().bind(entity.description.name.concat(" Lv. ").concat(entity.baseLevel))
-        text.translateX = Config.tileSize.toDouble() / 2 - text.layoutBounds.width / 2
-        text.translateY = 75.0
-
-        val vbox = Group(barHP, barSP, text)
-
-        val subView = EntityView()
-        subView.addNode(vbox)
-
-        subView.translateXProperty().bind(entity.positionComponent.xProperty())
-        subView.translateYProperty().bind(entity.positionComponent.yProperty())
-
-        return SubViewComponent(subView)
+        return template.first { it is DescriptionComponent } as DescriptionComponent
     }
 
     fun createCharacter(dataComponents: List<Component>, x: Int, y: Int): CharacterEntity {
@@ -129,8 +68,6 @@ object EntityManager {
         char.typeComponent.value = EntityType.CHARACTER
         char.positionComponent.value = Point2D(x * Config.tileSize.toDouble(), y * Config.tileSize.toDouble())
 
-        char.addComponent(makeCharacterSubView(char))
-
         return char
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,335 @@
 package com.almasb.zeph.entity
 
-import com.almasb.fxgl.ecs.Entity
 import com.almasb.zeph.Config
-import javafx.collections.FXCollections
+import com.almasb.zeph.entity.item.ItemEntity
+import java.util.*
 
 /**
+ * Fixed number of slots, each holding an item and its count.
+ * Free slots are tracked in a bitset and slots of items in an identity map,
+ * so add / remove do not scan the inventory.
  *
+ * Listeners receive the set of changed slots. Changes made inside [batch]
+ * (and by bulk operations) are coalesced into a single notification.
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
-class Inventory {
+class Inventory(val capacity: Int = Config.MAX_INVENTORY_SIZE) {
 
-    private val _items = FXCollections.observableArrayList<Entity>()
+    interface Listener {
+        fun onSlotsChanged(inventory: Inventory, slots: BitSet)
+    }
+
+    private val items = arrayOfNulls<ItemEntity>(capacity)
+    private val counts = IntArray(capacity)
+
+    /**
+     * Set bit means the slot is free.
+     */
+    private val free = BitSet(capacity)
+
+    private val slotOf = IdentityHashMap<ItemEntity, Int>()
+
+    /**
+     * Template ID -> slot of a stack that still has room.
+     */
+    private val openStacks = HashMap<Int, Int>()
+
+    /**
+     * Template ID -> total count over all stacks of a stackable item.
+     */
+    private val stackCounts = HashMap<Int, Int>()
+
+    private val listeners = ArrayList<Listener>()
+
+    private var batchDepth = 0
+    private val changed = BitSet(capacity)
+
+    init {
+        free.set(0, capacity)
+    }
+
+    fun addListener(listener: Listener) {
+        listeners.add(listener)
+    }
+
+    fun removeListener(listener: Listener) {
+        listeners.remove(listener)
+    }
+
+    fun getItem(slot: Int) = items[slot]
+
+    fun getCount(slot: Int) = counts[slot]
+
+    fun isFree(slot: Int) = free.get(slot)
+
+    fun freeSlots() = free.cardinality()
+
+    fun usedSlots() = capacity - freeSlots()
+
+    fun isFull() = free.isEmpty
+
+    operator fun contains(item: ItemEntity) = slotOf.containsKey(item) || (item.maxStack > 1 && stackCounts.containsKey(item.getID()))
+
+    /**
+     * Adds [count] of [item]. Stackable items are merged into existing stacks of the same template first.
+     *
+     * @return true if everything was added
+     */
+    @JvmOverloads
+    fun addItem(item: ItemEntity, count: Int = 1): Boolean {
+        var remaining = count
+
+        beginBatch()
+
+        try {
+            if (item.maxStack > 1) {
+                while (remaining > 0) {
+                    val slot = openStacks[item.getID()] ?: break
+
+                    val added = Math.min(remaining, item.maxStack - counts[slot])
+                    counts[slot] += added
+                    remaining -= added
+
+                    addToStackCount(item.getID(), added)
+
+                    if (counts[slot] == item.maxStack) {
+                        openStacks.remove(item.getID())
+
+                        // other stacks may still have room, fill them before taking a new slot
+                        findStack(item.getID(), true)?.let { openStacks[item.getID()] = it }
+                    }
+
+                    changed.set(slot)
+                }
+            }
+
+            while (remaining > 0) {
+                val slot = free.nextSetBit(0)
+                if (slot < 0)
+                    break
+
+                // non-stackable items are distinct instances, so only the first one can use this instance
+                if (item.maxStack == 1 && remaining < count)
+                    break
+
+                val added = Math.min(remaining, item.maxStack)
+                put(slot, item, added)
+                remaining -= added
+            }
+        } finally {
+            endBatch()
+        }
+
+        return remaining == 0
+    }
+
+    /**
+     * Adds all items, notifying listeners once.
+     *
+     * @return number of items added
+     */
+    fun addItems(items: Collection<ItemEntity>): Int {
+        var added = 0
+
+        batch {
+            items.forEach {
+                if (addItem(it))
+                    added++
+            }
+        }
+
+        return added
+    }
+
+    /**
+     * Removes up to [count] of [item] (or of its template if stackable).
+     *
+     * @return true if anything was removed
+     */
+    @JvmOverloads
+    fun removeItem(item: ItemEntity, count: Int = 1): Boolean {
+        val slot = slotOf[item] ?: (if (item.maxStack > 1) openStacks[item.getID()] ?: findStack(item.getID()) else null) ?: return false
+
+        beginBatch()
+
+        try {
+            take(slot, count)
+        } finally {
+            endBatch()
+        }
 
-    //fun getItems() = FXCollections.unmodifiableObservableList(_items)
+        return true
+    }
+
+    /**
+     * Removes up to [count] of the item in [slot].
+     *
+     * @return false if the slot is free
+     */
+    @JvmOverloads
+    fun removeFromSlot(slot: Int, count: Int = 1): Boolean {
+        if (items[slot] == null)
+            return false
+
+        beginBatch()
 
-    fun getItems() = _items
+        try {
+            take(slot, count)
+        } finally {
+            endBatch()
+        }
 
-    fun addItem(item: Entity) {
-        _items.add(item)
+        return true
     }
 
-    fun removeItem(item: Entity) {
-        _items.remove(item)
+    /**
+     * Removes all items, notifying listeners once.
+     */
+    fun removeItems(items: Collection<ItemEntity>) {
+        batch {
+            items.forEach { removeItem(it) }
+        }
     }
 
-    fun isFull() = _items.size >= Config.MAX_INVENTORY_SIZE
-}
\ No newline at end of file
+    /**
+     * Removes everything in [slot].
+     *
+     * @return the item that was in the slot
+     */
+    fun clearSlot(slot: Int): ItemEntity? {
+        val item = items[slot] ?: return null
+
+        beginBatch()
+
+        try {
+            take(slot, counts[slot])
+        } finally {
+            endBatch()
+        }
+
+        return item
+    }
+
+    /**
+     * Packs items to the front in given order, notifying listeners once.
+     */
+    fun sort(comparator: Comparator<ItemEntity>) {
+        val occupied = ArrayList<Int>(usedSlots())
+        for (i in 0..capacity - 1) {
+            if (items[i] != null)
+                occupied.add(i)
+        }
+
+        val sortedItems = occupied.map { items[it]!! }.toMutableList()
+        val sortedCounts = occupied.map { counts[it] }.toMutableList()
+
+        val order = occupied.indices.sortedWith(Comparator { a, b -> comparator.compare(sortedItems[a], sortedItems[b]) })
+
+        batch {
+            for (i in 0..capacity - 1) {
+                if (items[i] != null)
+                    take(i, counts[i])
+            }
+
+            order.forEachIndexed { slot, index -> put(slot, sortedItems[index], sortedCounts[index]) }
+        }
+    }
+
+    /**
+     * Runs [action] and notifies listeners once about all changes it made.
+     */
+    fun batch(action: () -> Unit) {
+        beginBatch()
+
+        try {
+            action()
+        } finally {
+            endBatch()
+        }
+    }
+
+    /**
+     * @return all distinct items in slot order, a stack spread over several slots is listed once
+     */
+    fun getItems(): List<ItemEntity> = items.filterNotNull().distinct()
+
+    private fun put(slot: Int, item: ItemEntity, count: Int) {
+        items[slot] = item
+        counts[slot] = count
+        free.clear(slot)
+        changed.set(slot)
+
+        if (item.maxStack > 1) {
+            if (count < item.maxStack)
+                openStacks.putIfAbsent(item.getID(), slot)
+
+            addToStackCount(item.getID(), count)
+        } else {
+            slotOf[item] = slot
+        }
+    }
+
+    private fun take(slot: Int, count: Int) {
+        val item = items[slot]!!
+
+        val removed = Math.min(count, counts[slot])
+        counts[slot] -= removed
+        changed.set(slot)
+
+        if (item.maxStack > 1)
+            addToStackCount(item.getID(), -removed)
+
+        if (counts[slot] == 0) {
+            items[slot] = null
+            free.set(slot)
+
+            slotOf.remove(item)
+
+            if (openStacks[item.getID()] == slot) {
+                openStacks.remove(item.getID())
+
+                findStack(item.getID(), true)?.let { openStacks[item.getID()] = it }
+            }
+        } else if (item.maxStack > 1) {
+            openStacks.putIfAbsent(item.getID(), slot)
+        }
+    }
+
+    private fun addToStackCount(id: Int, delta: Int) {
+        val total = (stackCounts[id] ?: 0) + delta
+
+        if (total > 0)
+            stackCounts[id] = total
+        else
+            stackCounts.remove(id)
+    }
+
+    /**
+     * Only used for stackable items when no open stack is recorded.
+     */
+    private fun findStack(id: Int, openOnly: Boolean = false): Int? {
+        for (i in 0..capacity - 1) {
+            val item = items[i]
+            if (item != null && item.getID() == id && (!openOnly || counts[i] < item.maxStack))
+                return i
+        }
+
+        return null
+    }
+
+    private fun beginBatch() {
+        batchDepth++
+    }
+
+    private fun endBatch() {
+        batchDepth--
+
+        if (batchDepth == 0 && !changed.isEmpty) {
+            val slots = changed.clone() as BitSet
+            changed.clear()
+
+            listeners.forEach { it.onSlotsChanged(this, slots) }
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.almasb.zeph.entity
+
+import com.almasb.zeph.Config
+import com.almasb.zeph.combat.Element
+import com.almasb.zeph.entity.item.*
+import com.almasb.zeph.entity.item.component.EquippableComponent
+import java.util.*
+
+/**
+ * Shared storage for a large number of item instances.
+ *
+ * Each item gets an int handle. Handles are kept in bitsets per weapon type,
+ * armor type, item level and element, and in arrays sorted by damage and armor,
+ * so a query combines bitsets and walks a sorted array instead of scanning items.
+ * Query results are arrays of handles that can be paged cheaply.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class Stash(val capacity: Int = Config.MAX_STASH_SIZE) {
+
+    enum class SortKey {
+        NONE, DAMAGE, ARMOR
+    }
+
+    /**
+     * Null fields match everything.
+     */
+    class Filter {
+        var weaponType: WeaponType? = null
+        var armorType: ArmorType? = null
+        var itemLevel: ItemLevel? = null
+        var element: Element? = null
+
+        fun withWeaponType(type: WeaponType?): Filter {
+            weaponType = type
+            return this
+        }
+
+        fun withArmorType(type: ArmorType?): Filter {
+            armorType = type
+            return this
+        }
+
+        fun withItemLevel(level: ItemLevel?): Filter {
+            itemLevel = level
+            return this
+        }
+
+        fun withElement(element: Element?): Filter {
+            this.element = element
+            return this
+        }
+    }
+
+    /**
+     * Snapshot of matching handles and their generations.
+     * Once the stash changes the result is stale and should be queried again,
+     * removed items are returned as null, even if their handle was reused since.
+     */
+    inner class Result internal constructor(private val handles: IntArray,
+                                            private val generations: IntArray,
+                                            private val version: Int) {
+
+        val size: Int
+            get() = handles.size
+
+        fun isStale() = version != this@Stash.version
+
+        operator fun get(index: Int): ItemEntity? {
+            val handle = handles[index]
+
+            return if (this@Stash.generations[handle] == generations[index]) items[handle] else null
+        }
+
+        fun pageCount(pageSize: Int) = (size + pageSize - 1) / pageSize
+
+        fun page(page: Int, pageSize: Int): List<ItemEntity> {
+            val from = page * pageSize
+            val to = Math.min(from + pageSize, size)
+
+            val list = ArrayList<ItemEntity>(Math.max(to - from, 0))
+            for (i in from..to - 1) {
+                get(i)?.let { list.add(it) }
+            }
+
+            return list
+        }
+    }
+
+    /**
+     * Handles ordered by an int key, ties broken by handle.
+     */
+    private class SortedIndex {
+        var keys = IntArray(64)
+        var handles = IntArray(64)
+        var size = 0
+
+        fun add(key: Int, handle: Int) {
+            if (size == keys.size) {
+                keys = Arrays.copyOf(keys, size * 2)
+                handles = Arrays.copyOf(handles, size * 2)
+            }
+
+            val i = -(find(key, handle) + 1)
+
+            System.arraycopy(keys, i, keys, i + 1, size - i)
+            System.arraycopy(handles, i, handles, i + 1, size - i)
+
+            keys[i] = key
+            handles[i] = handle
+            size++
+        }
+
+        fun remove(key: Int, handle: Int) {
+            val i = find(key, handle)
+            if (i < 0)
+                return
+
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1)
+            System.arraycopy(handles, i + 1, handles, i, size - i - 1)
+            size--
+        }
+
+        private fun find(key: Int, handle: Int): Int {
+            var low = 0
+            var high = size - 1
+
+            while (low <= high) {
+                val mid = (low + high).ushr(1)
+                val cmp = if (keys[mid] != key) Integer.compare(keys[mid], key) else Integer.compare(handles[mid], handle)
+
+                if (cmp < 0)
+                    low = mid + 1
+                else if (cmp > 0)
+                    high = mid - 1
+                else
+                    return mid
+            }
+
+            return -(low + 1)
+        }
+    }
+
+    private var items = arrayOfNulls<ItemEntity>(64)
+    private var sortKeys = IntArray(64)
+
+    /**
+     * Incremented when a handle is freed, so results can tell a reused handle from the one they saw.
+     */
+    private var generations = IntArray(64)
+    private var nextHandle = 0
+    private val freeHandles = ArrayDeque<Int>()
+
+    private val handles = IdentityHashMap<ItemEntity, Int>()
+
+    private val all = BitSet()
+    private val byWeaponType = Array(WeaponType.values().size) { BitSet() }
+    private val byArmorType = Array(ArmorType.values().size) { BitSet() }
+    private val byItemLevel = Array(ItemLevel.values().size) { BitSet() }
+    private val byElement = Array(Element.values().size) { BitSet() }
+
+    private val byDamage = SortedIndex()
+    private val byArmor = SortedIndex()
+
+    private val listeners = ArrayList<Runnable>()
+
+    /**
+     * Incremented on every change.
+     */
+    var version = 0
+        private set
+
+    fun size() = handles.size
+
+    fun isFull() = size() >= capacity
+
+    operator fun contains(item: ItemEntity) = handles.containsKey(item)
+
+    fun addListener(listener: Runnable) {
+        listeners.add(listener)
+    }
+
+    fun removeListener(listener: Runnable) {
+        listeners.remove(listener)
+    }
+
+    /**
+     * @return false if stash is full or already holds [item]
+     */
+    fun add(item: ItemEntity): Boolean {
+        if (!put(item))
+            return false
+
+        changed()
+        return true
+    }
+
+    /**
+     * Adds all items that fit, notifying listeners once.
+     *
+     * @return number of items added
+     */
+    fun addAll(items: Collection<ItemEntity>): Int {
+        val added = items.count { put(it) }
+
+        if (added > 0)
+            changed()
+
+        return added
+    }
+
+    fun remove(item: ItemEntity): Boolean {
+        val handle = handles.remove(item) ?: return false
+
+        unindex(item, handle)
+
+        items[handle] = null
+        generations[handle]++
+        freeHandles.push(handle)
+
+        changed()
+        return true
+    }
+
+    /**
+     * Call after a stored item changed a value used for sorting, e.g. its refine level.
+     */
+    fun reindex(item: ItemEntity) {
+        val handle = handles[item] ?: return
+
+        unindex(item, handle)
+        index(item, handle)
+        changed()
+    }
+
+    /**
+     * @return handles of items matching [filter] ordered by [sort]
+     */
+    @JvmOverloads
+    fun query(filter: Filter, sort: SortKey = SortKey.NONE, descending: Boolean = false): Result {
+        val match = all.clone() as BitSet
+
+        filter.weaponType?.let { match.and(byWeaponType[it.ordinal]) }
+        filter.armorType?.let { match.and(byArmorType[it.ordinal]) }
+        filter.itemLevel?.let { match.and(byItemLevel[it.ordinal]) }
+        filter.element?.let { match.and(byElement[it.ordinal]) }
+
+        val index = when (sort) {
+            SortKey.NONE -> null
+            SortKey.DAMAGE -> byDamage
+            SortKey.ARMOR -> byArmor
+        }
+
+        val result: IntArray
+
+        if (index == null) {
+            result = IntArray(match.cardinality())
+
+            var i = 0
+            var h = match.nextSetBit(0)
+            while (h >= 0) {
+                result[i++] = h
+                h = match.nextSetBit(h + 1)
+            }
+
+            if (descending)
+                reverse(result)
+        } else {
+            // sorted index only holds items that have the key, e.g. weapons for damage
+            val buffer = IntArray(Math.min(match.cardinality(), index.size))
+            var n = 0
+
+            for (i in 0..index.size - 1) {
+                val h = index.handles[if (descending) index.size - 1 - i else i]
+
+                if (match.get(h))
+                    buffer[n++] = h
+            }
+
+            result = if (n == buffer.size) buffer else Arrays.copyOf(buffer, n)
+        }
+
+        return Result(result, IntArray(result.size) { generations[result[it]] }, version)
+    }
+
+    private fun put(item: ItemEntity): Boolean {
+        if (isFull() || contains(item))
+            return false
+
+        val handle = if (freeHandles.isEmpty()) nextHandle++ else freeHandles.pop()
+
+        if (handle == items.size) {
+            items = Arrays.copyOf(items, handle * 2)
+            sortKeys = Arrays.copyOf(sortKeys, handle * 2)
+            generations = Arrays.copyOf(generations, handle * 2)
+        }
+
+        items[handle] = item
+        handles[item] = handle
+
+        index(item, handle)
+        return true
+    }
+
+    private fun index(item: ItemEntity, handle: Int) {
+        all.set(handle)
+
+        val data = equippable(item) ?: return
+
+        byItemLevel[data.itemLevel.ordinal].set(handle)
+        byElement[data.element.ordinal].set(handle)
+
+        if (item is WeaponEntity) {
+            byWeaponType[item.data.type.ordinal].set(handle)
+
+            sortKeys[handle] = item.pureDamage.value
+            byDamage.add(sortKeys[handle], handle)
+        } else if (item is ArmorEntity) {
+            byArmorType[item.data.armorType.ordinal].set(handle)
+
+            sortKeys[handle] = item.armor.value
+            byArmor.add(sortKeys[handle], handle)
+        }
+    }
+
+    private fun unindex(item: ItemEntity, handle: Int) {
+        all.clear(handle)
+
+        val data = equippable(item) ?: return
+
+        byItemLevel[data.itemLevel.ordinal].clear(handle)
+        byElement[data.element.ordinal].clear(handle)
+
+        if (item is WeaponEntity) {
+            byWeaponType[item.data.type.ordinal].clear(handle)
+            byDamage.remove(sortKeys[handle], handle)
+        } else if (item is ArmorEntity) {
+            byArmorType[item.data.armorType.ordinal].clear(handle)
+            byArmor.remove(sortKeys[handle], handle)
+        }
+    }
+
+    private fun equippable(item: ItemEntity): EquippableComponent? = when (item) {
+        is WeaponEntity -> item.data
+        is ArmorEntity -> item.data
+        else -> null
+    }
+
+    private fun reverse(array: IntArray) {
+        var i = 0
+        var j = array.size - 1
+
+        while (i < j) {
+            val tmp = array[i]
+            array[i++] = array[j]
+            array[j--] = tmp
+        }
+    }
+
+    private fun changed() {
+        version++
+        listeners.forEach { it.run() }
+    }
+}
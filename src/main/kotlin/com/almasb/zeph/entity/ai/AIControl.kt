@@ -1,11 +1,12 @@
 package com.almasb.zeph.entity.ai
 
-import com.almasb.fxgl.ai.pathfinding.AStarGrid
 import com.almasb.fxgl.ecs.AbstractControl
 import com.almasb.fxgl.ecs.Entity
 import com.almasb.fxgl.app.FXGL
 import com.almasb.zeph.Config
 import com.almasb.zeph.ZephyriaApp
+import com.almasb.zeph.debug.FrameProfiler
+import com.almasb.zeph.debug.FrameProfiler.Section
 import com.almasb.zeph.entity.character.CharacterEntity
 import com.almasb.zeph.entity.character.PlayerEntity
 
@@ -24,11 +25,9 @@ class AIControl : AbstractControl() {
     private var attacking = false
 
     private val range = 5
-    private val grid: AStarGrid
     private val player: PlayerEntity
 
     init {
-        grid = (FXGL.getApp() as ZephyriaApp).grid
         player = (FXGL.getApp() as ZephyriaApp).player
 
         attackControl.selected.value = player
@@ -44,6 +43,8 @@ class AIControl : AbstractControl() {
     }
 
     override fun onUpdate(entity: Entity, tpf: Double) {
+        val start = FrameProfiler.begin(Section.AI)
+
         if (isInRange()) {
             if (!attacking) {
                 moveControl.enabled = false
@@ -57,6 +58,8 @@ class AIControl : AbstractControl() {
                 attacking = false
             }
         }
+
+        FrameProfiler.end(Section.AI, start)
     }
 
     private fun isInRange() = player.positionComponent.distance(char.positionComponent) <= range * Config.tileSize
@@ -11,6 +11,8 @@ import com.almasb.fxgl.entity.control.ProjectileControl
 import com.almasb.fxgl.texture.AnimatedTexture
 import com.almasb.zeph.CharacterAnimation
 import com.almasb.zeph.Config
+import com.almasb.zeph.debug.FrameProfiler
+import com.almasb.zeph.debug.FrameProfiler.Section
 import com.almasb.zeph.entity.EntityType
 import com.almasb.zeph.entity.character.CharacterEntity
 import com.almasb.zeph.entity.item.component.OwnerComponent
@@ -33,12 +35,16 @@ class AttackControl : AbstractControl() {
 
     override fun onAdded(entity: Entity) {
         char = entity as CharacterEntity
-        animation = char.data.animation
+        animation = char.animation
     }
 
     override fun onUpdate(entity: Entity, tpf: Double) {
+        val start = FrameProfiler.begin(Section.ATTACK)
+
         if (selected.value is CharacterEntity)
             startAttack(char, selected.value as GameEntity)
+
+        FrameProfiler.end(Section.ATTACK, start)
     }
 
     private fun startAttack(attacker: CharacterEntity, target: GameEntity) {
@@ -70,7 +76,7 @@ class AttackControl : AbstractControl() {
     private fun attack(attacker: CharacterEntity, target: GameEntity) {
         val vector = target.boundingBoxComponent.centerWorld.subtract(attacker.boundingBoxComponent.centerWorld)
 
-        val animation = attacker.data.animation
+        val animation = attacker.animation
 
         if (Math.abs(vector.x) >= Math.abs(vector.y)) {
             if (vector.x >= 0) {
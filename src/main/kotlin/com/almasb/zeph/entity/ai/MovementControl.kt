@@ -1,6 +1,5 @@
 package com.almasb.zeph.entity.ai
 
-import com.almasb.fxgl.ai.pathfinding.AStarNode
 import com.almasb.fxgl.ecs.AbstractControl
 import com.almasb.fxgl.ecs.Entity
 import com.almasb.fxgl.app.FXGL
@@ -8,8 +7,11 @@ import com.almasb.fxgl.texture.AnimatedTexture
 import com.almasb.zeph.CharacterAnimation
 import com.almasb.zeph.Config
 import com.almasb.zeph.ZephyriaApp
+import com.almasb.zeph.debug.FrameProfiler
+import com.almasb.zeph.debug.GameEvents
+import com.almasb.zeph.debug.FrameProfiler.Section
 import com.almasb.zeph.entity.character.CharacterEntity
-import java.util.*
+import com.almasb.zeph.map.GridPathfinder
 
 /**
  *
@@ -23,29 +25,39 @@ open class MovementControl : AbstractControl() {
     protected lateinit var char: CharacterEntity
     private lateinit var animation: AnimatedTexture
 
-    private val grid = (FXGL.getApp() as ZephyriaApp).grid
-    protected var path: MutableList<AStarNode> = ArrayList()
+    protected val pathfinder = (FXGL.getApp() as ZephyriaApp).pathfinder
+
+    /**
+     * Remaining tiles to walk, as indices into the walkability grid.
+     */
+    private var path = GridPathfinder.NO_PATH
+    private var pathIndex = 0
+
+    fun hasPath() = pathIndex < path.size
 
     override fun onAdded(entity: Entity) {
         char = entity as CharacterEntity
-        animation = char.data.animation
+        animation = char.animation
     }
 
     override fun onUpdate(entity: Entity, tpf: Double) {
         if (!enabled)
             return
 
-        while (!path.isEmpty()) {
-            val node = path[0]
+        val start = FrameProfiler.begin(Section.MOVEMENT)
+        val width = pathfinder.grid.width
 
-            var dx = node.x * Config.tileSize - char.positionComponent.x
-            var dy = node.y * Config.tileSize - char.positionComponent.y
+        while (hasPath()) {
+            val node = path[pathIndex]
+
+            var dx = (node % width) * Config.tileSize - char.positionComponent.x
+            var dy = (node / width) * Config.tileSize - char.positionComponent.y
 
             dx = Math.signum(dx)
             dy = Math.signum(dy)
 
             if (dx == 0.0 && dy == 0.0) {
-                path.removeAt(0)
+                pathIndex++
                 continue
             } else if (dx > 0) {
                 animation.setAnimationChannel(CharacterAnimation.WALK_RIGHT)
@@ -63,12 +75,23 @@ open class MovementControl : AbstractControl() {
             char.positionComponent.translate(dx, dy)
             break
         }
+
+        FrameProfiler.end(Section.MOVEMENT, start)
     }
 
     fun moveTo(x: Int, y: Int) {
         val startX = char.getTileX()
         val startY = char.getTileY()
 
-        path = grid.getPath(startX, startY, x, y)
+        val start = FrameProfiler.begin(Section.PATH)
+        val searchStart = if (GameEvents.isEnabled) System.nanoTime() else 0L
+
+        path = pathfinder.findPath(startX, startY, x, y)
+
+        if (GameEvents.isEnabled)
+            GameEvents.pathSearch(pathfinder.grid.width, pathfinder.grid.height, pathfinder.lastExpanded, path.size, System.nanoTime() - searchStart)
+
+        FrameProfiler.end(Section.PATH, start)
+        pathIndex = 0
     }
 }
\ No newline at end of file
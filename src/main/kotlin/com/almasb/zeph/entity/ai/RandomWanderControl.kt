@@ -1,7 +1,6 @@
 package com.almasb.zeph.entity.ai
 
 import com.almasb.fxgl.ecs.Entity
-import com.almasb.zeph.Config
 import java.util.*
 
 /**
@@ -17,7 +16,7 @@ class RandomWanderControl : MovementControl() {
     override fun onUpdate(entity: Entity, tpf: Double) {
         super.onUpdate(entity, tpf)
 
-        if (path.isEmpty()) {
+        if (!hasPath()) {
             time += tpf
 
             if (time >= 3.0) {
@@ -28,8 +27,8 @@ class RandomWanderControl : MovementControl() {
     }
 
     private fun nextRandomPoint() {
-        val targetX = random.nextInt(Config.mapWidth)
-        val targetY = random.nextInt(Config.mapHeight)
+        val targetX = random.nextInt(pathfinder.grid.width)
+        val targetY = random.nextInt(pathfinder.grid.height)
 
         moveTo(targetX, targetY)
     }
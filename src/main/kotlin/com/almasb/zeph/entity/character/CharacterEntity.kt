@@ -2,9 +2,12 @@ package com.almasb.zeph.entity.character
 
 import com.almasb.fxgl.ecs.Component
 import com.almasb.fxgl.entity.GameEntity
+import com.almasb.fxgl.texture.AnimatedTexture
 import com.almasb.zeph.Config
 import com.almasb.zeph.combat.Element
 import com.almasb.zeph.entity.DescriptionComponent
+import com.almasb.zeph.entity.DisposalScope
+import com.almasb.zeph.entity.EntityManager
 import com.almasb.zeph.entity.Inventory
 import com.almasb.zeph.entity.character.component.*
 import com.almasb.zeph.entity.character.control.CharacterControl
@@ -12,6 +15,7 @@ import com.almasb.zeph.entity.item.WeaponEntity
 import com.almasb.zeph.entity.skill.SkillEntity
 import javafx.beans.property.SimpleIntegerProperty
 import javafx.beans.property.SimpleObjectProperty
+import javafx.beans.value.ChangeListener
 import javafx.collections.FXCollections
 
 /**
@@ -19,7 +23,7 @@ import javafx.collections.FXCollections
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
-open class CharacterEntity(dataComponents: List<Component>) : GameEntity() {
+open class CharacterEntity(template: List<Component>) : GameEntity() {
 
     val charClass = SimpleObjectProperty<CharacterClass>(CharacterClass.MONSTER)
 
@@ -42,8 +46,40 @@ open class CharacterEntity(dataComponents: List<Component>) : GameEntity() {
     val statXP = SimpleIntegerProperty()
     val jobXP = SimpleIntegerProperty()
 
-    val description: DescriptionComponent
-    val data: CharacterDataComponent
+    /**
+     * Shared with all characters of the same type, must not be modified.
+     */
+    val description = template.first { it is DescriptionComponent } as DescriptionComponent
+
+    /**
+     * Shared with all characters of the same type, must not be modified.
+     */
+    val data = template.first { it is CharacterDataComponent } as CharacterDataComponent
+
+    lateinit var animation: AnimatedTexture
+
+    /**
+     * Index of the spawn point this character counts towards, -1 if none.
+     */
+    var spawnTag = -1
+
+    /**
+     * True while this character waits in a pool to be reused.
+     * A parked character stays in the game world, but is hidden, not updated and not collidable.
+     */
+    var isParked = false
+
+    /**
+     * True from the kill until the character is reused from a pool.
+     */
+    var isKilled = false
+
+    /**
+     * Listeners and bindings registered on behalf of this character on observables
+     * that may outlive it. Released when the character is removed from the world,
+     * parking does not release them.
+     */
+    val scope = DisposalScope(this)
 
     val charConrol = CharacterControl()
 
@@ -54,24 +90,29 @@ open class CharacterEntity(dataComponents: List<Component>) : GameEntity() {
         addComponent(hp)
         addComponent(sp)
 
-        dataComponents.forEach { addComponent(it) }
-
-        description = getComponentUnsafe(DescriptionComponent::class.java)
-        data = getComponentUnsafe(CharacterDataComponent::class.java)
-
         charClass.value = data.charClass
 
         data.attributes.forEach { attribute, value ->  attributes.setAttribute(attribute, value)}
         baseLevel.value = data.baseLevel
 
-        weapon.value = data.defaultWeapon
+        weapon.value = EntityManager.getEmptyItem(EquipPlace.RIGHT_HAND) as WeaponEntity
 
         weaponElement.value = data.element
         armorElement.value = data.element
 
         addControl(charConrol)
+
+        activeProperty().addListener(ChangeListener<Boolean> { o, wasActive, isActive ->
+            if (!isActive)
+                scope.dispose()
+        })
     }
 
+    /**
+     * @return archetype ID, shared by all characters built from the same template
+     */
+    fun getID() = description.id.value
+
     fun getTileX() = positionComponent.x.toInt() / Config.tileSize
 
     fun getTileY() = positionComponent.y.toInt() / Config.tileSize
@@ -1,6 +1,7 @@
 package com.almasb.zeph.entity.character
 
 import com.almasb.fxgl.ecs.Component
+import com.almasb.fxgl.ecs.Entity
 import com.almasb.zeph.Config
 import com.almasb.zeph.entity.DescriptionComponent
 import com.almasb.zeph.entity.character.component.CharacterDataComponent
@@ -8,6 +9,7 @@ import com.almasb.zeph.entity.character.component.MoneyComponent
 import com.almasb.zeph.entity.character.control.PlayerControl
 import com.almasb.zeph.entity.item.WeaponEntity
 import javafx.beans.property.SimpleIntegerProperty
+import javafx.beans.value.ChangeListener
 
 /**
  *
@@ -40,7 +42,7 @@ class PlayerEntity(name: String, textureName: String) : CharacterEntity(listOf<C
         addControl(playerControl)
         //addControl(PlayerActionControl())
 
-        playerControl.equipProperty(EquipPlace.RIGHT_HAND).addListener({ o, old, newWeapon ->
+        scope.listen(playerControl.equipProperty(EquipPlace.RIGHT_HAND), ChangeListener<Entity> { o, old, newWeapon ->
             weapon.value = newWeapon as WeaponEntity
         })
     }
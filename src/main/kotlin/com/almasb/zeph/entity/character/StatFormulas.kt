@@ -0,0 +1,89 @@
+package com.almasb.zeph.entity.character
+
+import com.almasb.zeph.combat.Attribute
+import com.almasb.zeph.combat.Attribute.*
+import com.almasb.zeph.combat.Stat
+
+/**
+ * Base stat formulas, shared by live stat bindings of characters and
+ * by precomputed [StatTemplate]s, so both always agree.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object StatFormulas {
+
+    /**
+     * @property attributes total attributes the stat is recomputed on
+     * @property usesLevel whether the stat is recomputed on base level change
+     */
+    class Formula(val stat: Stat,
+                  val attributes: Array<Attribute>,
+                  val usesLevel: Boolean,
+                  private val formula: (Values) -> Double) {
+
+        fun compute(values: Values) = formula(values)
+    }
+
+    /**
+     * Inputs of a formula.
+     */
+    interface Values {
+        fun attribute(attribute: Attribute): Int
+        fun level(): Int
+        fun charClass(): CharacterClass
+    }
+
+    val ALL = listOf(
+            Formula(Stat.MAX_HP, arrayOf(VITALITY, STRENGTH), true) {
+                val vit = it.attribute(VITALITY)
+                1.0 + vit * 0.5 + it.attribute(STRENGTH) * 0.3 + it.level() * 0.25 + (vit / 10) + it.charClass().hp * it.level()
+            },
+
+            Formula(Stat.MAX_SP, arrayOf(WISDOM, WILLPOWER, INTELLECT), true) {
+                val wis = it.attribute(WISDOM)
+                1.0 + wis * 0.4 + it.attribute(WILLPOWER) * 0.3 + it.level() * 0.25 + (wis / 10).toDouble() + it.attribute(INTELLECT) * 0.3 + it.charClass().sp * it.level()
+            },
+
+            Formula(Stat.HP_REGEN, arrayOf(VITALITY), false) { 1 + it.attribute(VITALITY) * 0.1 },
+
+            Formula(Stat.SP_REGEN, arrayOf(WISDOM), false) { 2 + it.attribute(WISDOM) * 0.1 },
+
+            Formula(Stat.ATK, arrayOf(STRENGTH, DEXTERITY, PERCEPTION, LUCK), true) {
+                val str = it.attribute(STRENGTH)
+                str * 0.5 + it.attribute(DEXTERITY) * 0.3 + it.attribute(PERCEPTION) * 0.2 + it.attribute(LUCK) * 0.1 + it.level().toDouble() + (str / 10 * (str / 10 + 1)).toDouble()
+            },
+
+            Formula(Stat.MATK, arrayOf(INTELLECT, DEXTERITY, PERCEPTION, LUCK), false) {
+                it.attribute(INTELLECT) * 0.5 + it.attribute(WISDOM) * 0.4 + it.attribute(WILLPOWER) * 0.4 + it.attribute(DEXTERITY) * 0.3 + it.attribute(PERCEPTION) * 0.2 + it.attribute(LUCK) * 0.1
+            },
+
+            Formula(Stat.DEF, arrayOf(VITALITY, PERCEPTION, STRENGTH), true) {
+                val vit = it.attribute(VITALITY)
+                vit * 0.5 + it.attribute(PERCEPTION) * 0.2 + it.attribute(STRENGTH) * 0.1 + it.level() * 0.25 + (vit / 20).toDouble()
+            },
+
+            Formula(Stat.MDEF, arrayOf(WILLPOWER, WISDOM, PERCEPTION, INTELLECT), true) {
+                val wil = it.attribute(WILLPOWER)
+                val int_ = it.attribute(INTELLECT)
+                wil * 0.5 + it.attribute(WISDOM) * 0.3 + it.attribute(PERCEPTION) * 0.2 + int_ * 0.1 + it.level() * 0.25 + (wil / 20 * int_ / 10).toDouble()
+            },
+
+            Formula(Stat.ASPD, arrayOf(AGILITY, DEXTERITY), false) { it.attribute(AGILITY) * 0.5 + it.attribute(DEXTERITY) * 0.2 },
+
+            Formula(Stat.MSPD, arrayOf(DEXTERITY, WILLPOWER, WISDOM, INTELLECT, PERCEPTION, LUCK), false) {
+                it.attribute(DEXTERITY) * 0.3 + it.attribute(WILLPOWER) * 0.1 + it.attribute(WISDOM) * 0.1 + it.attribute(INTELLECT) * 0.1 + it.attribute(PERCEPTION) * 0.1 + it.attribute(LUCK) * 0.1
+            },
+
+            Formula(Stat.CRIT_CHANCE, arrayOf(LUCK, PERCEPTION, WISDOM), false) {
+                it.attribute(LUCK) * 0.5 + it.attribute(PERCEPTION) * 0.1 + it.attribute(WISDOM) * 0.1
+            },
+
+            Formula(Stat.MCRIT_CHANCE, arrayOf(LUCK, WILLPOWER, PERCEPTION), false) {
+                it.attribute(LUCK) * 0.5 + it.attribute(WILLPOWER) * 0.2 + it.attribute(PERCEPTION) * 0.1
+            },
+
+            Formula(Stat.CRIT_DMG, arrayOf(LUCK), false) { 2 + it.attribute(LUCK) * 0.01 },
+
+            Formula(Stat.MCRIT_DMG, arrayOf(LUCK), false) { 2 + it.attribute(LUCK) * 0.01 }
+    )
+}
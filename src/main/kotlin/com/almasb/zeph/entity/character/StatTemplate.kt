@@ -0,0 +1,68 @@
+package com.almasb.zeph.entity.character
+
+import com.almasb.zeph.combat.Attribute
+import com.almasb.zeph.combat.Stat
+import com.almasb.zeph.entity.Catalog
+import com.almasb.zeph.entity.character.component.CharacterDataComponent
+import com.almasb.zeph.entity.character.component.StatsComponent
+import java.util.*
+
+/**
+ * Base stats of a monster archetype at a given level, computed once and
+ * shared by all monsters of that archetype and level.
+ * A monster copies these values instead of binding its stats to its attributes,
+ * bindings are only created once its attributes or level change.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class StatTemplate private constructor(val archetypeID: Int, val level: Int, private val stats: DoubleArray) {
+
+    companion object {
+        private val templates = HashMap<Long, StatTemplate>()
+
+        /**
+         * @return template matching archetype and level of [character]
+         */
+        fun of(character: CharacterEntity) = of(character.getID(), character.baseLevel.value, character.data)
+
+        /**
+         * @return template of [archetypeID] at its base level
+         */
+        fun of(archetypeID: Int): StatTemplate {
+            val data = Catalog.characters.template(archetypeID).first { it is CharacterDataComponent } as CharacterDataComponent
+
+            return of(archetypeID, data.baseLevel, data)
+        }
+
+        private fun of(archetypeID: Int, level: Int, data: CharacterDataComponent): StatTemplate {
+            return templates.getOrPut(archetypeID.toLong().shl(32) or level.toLong()) {
+                val values = object : StatFormulas.Values {
+                    override fun attribute(attribute: Attribute) = data.attributes[attribute] ?: 0
+                    override fun level() = level
+                    override fun charClass() = data.charClass
+                }
+
+                val stats = DoubleArray(Stat.values().size)
+                StatFormulas.ALL.forEach { stats[it.stat.ordinal] = it.compute(values) }
+
+                StatTemplate(archetypeID, level, stats)
+            }
+        }
+
+        /**
+         * @return number of computed templates
+         */
+        fun size() = templates.size
+    }
+
+    fun getStat(stat: Stat) = stats[stat.ordinal]
+
+    /**
+     * Sets base stats of [component] to template values, no bindings are created.
+     */
+    fun applyTo(component: StatsComponent) {
+        StatFormulas.ALL.forEach {
+            component.statProperty(it.stat).set(stats[it.stat.ordinal].toInt())
+        }
+    }
+}
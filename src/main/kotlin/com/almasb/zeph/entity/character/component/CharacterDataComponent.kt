@@ -1,18 +1,16 @@
 package com.almasb.zeph.entity.character.component
 
 import com.almasb.fxgl.ecs.AbstractComponent
-import com.almasb.fxgl.texture.AnimatedTexture
 import com.almasb.zeph.combat.Attribute
 import com.almasb.zeph.combat.Element
 import com.almasb.zeph.combat.Experience
-import com.almasb.zeph.entity.Data
 import com.almasb.zeph.entity.character.CharacterClass
 import com.almasb.zeph.entity.character.CharacterType
-import com.almasb.zeph.entity.item.WeaponEntity
 import java.util.*
 
 /**
  * Data structure that contains "init" values.
+ * Shared by all characters of the same type, must not be modified after creation.
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
@@ -23,8 +21,6 @@ class CharacterDataComponent(val type: CharacterType) : AbstractComponent() {
     var baseLevel = 1
     val attributes = HashMap<Attribute, Int>()
 
-    val defaultWeapon = WeaponEntity(Data.Weapon.HANDS())
-
     var element = Element.NEUTRAL
 
     val rewardXP = Experience(0, 0, 0)
@@ -34,8 +30,6 @@ class CharacterDataComponent(val type: CharacterType) : AbstractComponent() {
      */
     val dropItems = ArrayList<Pair<Int, Int> >()
 
-    lateinit var animation: AnimatedTexture
-
     fun withLevel(value: Int): CharacterDataComponent {
         baseLevel = value
         return this
@@ -1,12 +0,0 @@
-package com.almasb.zeph.entity.character.component
-
-import com.almasb.fxgl.ecs.component.ObjectComponent
-import com.almasb.fxgl.entity.EntityView
-
-/**
- *
- *
- * @author Almas Baimagambetov (almaslvl@gmail.com)
- */
-class SubViewComponent(view: EntityView) : ObjectComponent<EntityView>(view) {
-}
\ No newline at end of file
@@ -4,7 +4,13 @@ import com.almasb.fxgl.ecs.AbstractControl
 import com.almasb.fxgl.ecs.Entity
 import com.almasb.zeph.Config
 import com.almasb.zeph.combat.*
+import com.almasb.zeph.debug.FrameProfiler
+import com.almasb.zeph.debug.GameEvents
+import com.almasb.zeph.debug.FrameProfiler.Section
 import com.almasb.zeph.entity.character.CharacterEntity
+import com.almasb.zeph.entity.character.PlayerEntity
+import com.almasb.zeph.entity.character.StatFormulas
+import com.almasb.zeph.entity.character.StatTemplate
 import com.almasb.zeph.entity.character.component.AttributesComponent
 import com.almasb.zeph.entity.character.component.HPComponent
 import com.almasb.zeph.entity.character.component.SPComponent
@@ -12,9 +18,12 @@ import com.almasb.zeph.entity.character.component.StatsComponent
 import com.almasb.zeph.entity.skill.SkillEntity
 import com.almasb.zeph.entity.skill.SkillType
 import com.almasb.zeph.entity.skill.SkillUseResult
+import javafx.beans.InvalidationListener
+import javafx.beans.Observable
 import javafx.beans.binding.Bindings
 import javafx.collections.FXCollections
 import javafx.geometry.Point2D
+import java.util.*
 import java.util.concurrent.Callable
 
 open class CharacterControl : AbstractControl() {
@@ -86,7 +95,15 @@ open class CharacterControl : AbstractControl() {
     }
 
     private fun init() {
-        bindStats()
+        if (char is PlayerEntity) {
+            bindStats()
+        } else {
+            // monsters of the same archetype and level share base stats until they diverge
+            StatTemplate.of(char).applyTo(stats)
+
+            attributes.setOnFirstChange(Runnable { materializeStats() })
+            levelRegistration = char.scope.listen(char.baseLevel, levelListener)
+        }
 
         hp.maxValueProperty().bind(stats.totalStatProperty(Stat.MAX_HP))
         hp.restorePercentageMax(100.0)
@@ -95,23 +112,34 @@ open class CharacterControl : AbstractControl() {
         sp.restorePercentageMax(100.0)
     }
 
-    private fun str()   = attributes.getTotalAttribute(Attribute.STRENGTH)
-
-    private fun vit()   = attributes.getTotalAttribute(Attribute.VITALITY)
+    private val levelListener = InvalidationListener { materializeStats() }
 
-    private fun dex()   = attributes.getTotalAttribute(Attribute.DEXTERITY)
-
-    private fun agi()   = attributes.getTotalAttribute(Attribute.AGILITY)
+    /**
+     * Handle of [levelListener] in the character's scope, null once stats are bound.
+     */
+    private var levelRegistration: Runnable? = null
 
-    private fun int_()  = attributes.getTotalAttribute(Attribute.INTELLECT)
+    /**
+     * True if base stats are bound to attributes and level,
+     * false while they are copied from a [StatTemplate].
+     */
+    var hasStatBindings = false
+        private set
 
-    private fun wis()   = attributes.getTotalAttribute(Attribute.WISDOM)
+    /**
+     * Replaces template stat values with bindings, called on first attribute or level change.
+     */
+    private fun materializeStats() {
+        if (hasStatBindings)
+            return
 
-    private fun wil()   = attributes.getTotalAttribute(Attribute.WILLPOWER)
+        attributes.setOnFirstChange(null)
 
-    private fun per()   = attributes.getTotalAttribute(Attribute.PERCEPTION)
+        levelRegistration?.let { char.scope.release(it) }
+        levelRegistration = null
 
-    private fun luc()   = attributes.getTotalAttribute(Attribute.LUCK)
+        bindStats()
+    }
 
     private fun level() = char.baseLevel.intValue()
 
@@ -119,65 +147,46 @@ open class CharacterControl : AbstractControl() {
      * Bind base stats to attributes.
      */
     private fun bindStats() {
-        val str = attributes.totalAttributeProperty(Attribute.STRENGTH)
-        val vit = attributes.totalAttributeProperty(Attribute.VITALITY)
-        val dex = attributes.totalAttributeProperty(Attribute.DEXTERITY)
-        val agi = attributes.totalAttributeProperty(Attribute.AGILITY)
-        val int_ = attributes.totalAttributeProperty(Attribute.INTELLECT)
-        val wis = attributes.totalAttributeProperty(Attribute.WISDOM)
-        val wil = attributes.totalAttributeProperty(Attribute.WILLPOWER)
-        val per = attributes.totalAttributeProperty(Attribute.PERCEPTION)
-        val luc = attributes.totalAttributeProperty(Attribute.LUCK)
-
-        val level = char.baseLevel
-
-        stats.statProperty(Stat.MAX_HP).bind(Bindings.createDoubleBinding(Callable {
-            1.0 + vit() * 0.5 + str() * 0.3 + level() * 0.25 + (vit() / 10) + char.charClass.value.hp * level()
-        }, vit, str, level))
-
-        stats.statProperty(Stat.MAX_SP).bind(Bindings.createDoubleBinding(Callable {
-            1.0 + wis() * 0.4 + wil() * 0.3 + level() * 0.25 + (wis() / 10).toDouble() + int_() * 0.3 + char.charClass.value.sp * level()
-        }, wis, wil, level, int_))
+        hasStatBindings = true
 
-        stats.statProperty(Stat.HP_REGEN).bind(Bindings.createDoubleBinding(Callable{ 1 + vit() * 0.1 },
-                vit))
-
-        stats.statProperty(Stat.SP_REGEN).bind(Bindings.createDoubleBinding(Callable{ 2 + wis() * 0.1 },
-                wis))
-
-        stats.statProperty(Stat.ATK).bind(Bindings.createDoubleBinding(Callable{ str() * 0.5 + dex() * 0.3 + per() * 0.2 + luc() * 0.1 + level().toDouble() + (str() / 10 * (str() / 10 + 1)).toDouble() },
-                str, dex, per, luc, level))
-
-        stats.statProperty(Stat.MATK).bind(Bindings.createDoubleBinding(Callable{ int_() * 0.5 + wis() * 0.4 + wil() * 0.4 + dex() * 0.3 + per() * 0.2 + luc() * 0.1 },
-                int_, dex, per, luc))
-
-        stats.statProperty(Stat.DEF).bind(Bindings.createDoubleBinding(Callable{ vit() * 0.5 + per() * 0.2 + str() * 0.1 + level() * 0.25 + (vit() / 20).toDouble() },
-                vit, per, str, level))
+        val values = object : StatFormulas.Values {
+            override fun attribute(attribute: Attribute) = attributes.getTotalAttribute(attribute)
+            override fun level() = char.baseLevel.intValue()
+            override fun charClass() = char.charClass.value
+        }
 
-        stats.statProperty(Stat.MDEF).bind(Bindings.createDoubleBinding(Callable{ wil() * 0.5 + wis() * 0.3 + per() * 0.2 + int_() * 0.1 + level() * 0.25 + (wil() / 20 * int_() / 10).toDouble() },
-                wil, wis, per, int_, level))
+        StatFormulas.ALL.forEach { formula ->
+            val dependencies = ArrayList<Observable>()
+            formula.attributes.forEach { dependencies.add(attributes.totalAttributeProperty(it)) }
 
-        stats.statProperty(Stat.ASPD).bind(Bindings.createDoubleBinding(Callable{ agi() * 0.5 + dex() * 0.2 },
-                agi, dex))
+            if (formula.usesLevel)
+                dependencies.add(char.baseLevel)
 
-        stats.statProperty(Stat.MSPD).bind(Bindings.createDoubleBinding(Callable{ dex() * 0.3 + wil() * 0.1 + wis() * 0.1 + int_() * 0.1 + per() * 0.1 + luc() * 0.1 },
-                dex, wil, wis, int_, per, luc))
+            stats.statProperty(formula.stat).bind(Bindings.createDoubleBinding(Callable {
+                GameEvents.statRecompute(char, formula.stat)
+                formula.compute(values)
+            }, *dependencies.toTypedArray()))
+        }
+    }
 
-        stats.statProperty(Stat.CRIT_CHANCE).bind(Bindings.createDoubleBinding(Callable{ luc() * 0.5 + per() * 0.1 + wis() * 0.1 },
-                luc, per, wis))
+    private var regenTick = 0.0
 
-        stats.statProperty(Stat.MCRIT_CHANCE).bind(Bindings.createDoubleBinding(Callable{ luc() * 0.5 + wil() * 0.2 + per() * 0.1 },
-                luc, wil, per))
+    /**
+     * Ends all effects and statuses and restores hp / sp,
+     * so a pooled character can be reused as if newly created.
+     */
+    fun reset() {
+        effects.forEach { it.onEnd(char) }
+        effects.clear()
+        statuses.clear()
 
-        stats.statProperty(Stat.CRIT_DMG).bind(Bindings.createDoubleBinding(Callable{ 2 + luc() * 0.01 },
-                luc))
+        regenTick = 0.0
+        atkTick = 0.0
 
-        stats.statProperty(Stat.MCRIT_DMG).bind(Bindings.createDoubleBinding(Callable{ 2 + luc() * 0.01 },
-                luc))
+        hp.restorePercentageMax(100.0)
+        sp.restorePercentageMax(100.0)
     }
 
-    private var regenTick = 0.0
-
     /**
      * Regeneration tick. HP/SP.
      */
@@ -243,15 +252,22 @@ open class CharacterControl : AbstractControl() {
         if (hp.isZero)
             return
 
+        var start = FrameProfiler.begin(Section.REGEN)
         updateRegen(tpf)
+        FrameProfiler.end(Section.REGEN, start)
 
         if (!canAttack())
             atkTick += tpf
 
+        start = FrameProfiler.begin(Section.SKILLS)
         updateSkills(tpf)
+        FrameProfiler.end(Section.SKILLS, start)
+
         // check buffs
+        start = FrameProfiler.begin(Section.EFFECTS)
         updateEffects(tpf)
         updateStatusEffects(tpf)
+        FrameProfiler.end(Section.EFFECTS, start)
     }
 
     /**
@@ -304,7 +320,9 @@ open class CharacterControl : AbstractControl() {
         val totalDamage = Math.max(Math.round(elementalDamageModifier * damageAfterReduction), 0).toInt()
         target.hp.damage(totalDamage.toDouble())
 
-        return DamageResult(DamageType.PHYSICAL, element, totalDamage, crit)
+        val result = DamageResult(DamageType.PHYSICAL, element, totalDamage, crit)
+        GameEvents.damage(char, target, result)
+        return result
     }
 
     /**
@@ -340,7 +358,9 @@ open class CharacterControl : AbstractControl() {
         val totalDamage = Math.max(Math.round(elementalDamageModifier * damageAfterReduction), 0).toInt()
         target.hp.damage(totalDamage.toDouble())
 
-        return DamageResult(DamageType.MAGICAL, element, totalDamage, crit)
+        val result = DamageResult(DamageType.MAGICAL, element, totalDamage, crit)
+        GameEvents.damage(char, target, result)
+        return result
     }
 
     /**
@@ -357,7 +377,9 @@ open class CharacterControl : AbstractControl() {
         val amount = value.toInt()
         (target as CharacterEntity).hp.damage(amount.toDouble())
 
-        return DamageResult(DamageType.PURE, Element.NEUTRAL, amount, false)
+        val result = DamageResult(DamageType.PURE, Element.NEUTRAL, amount, false)
+        GameEvents.damage(char, target, result)
+        return result
     }
 
     fun useSelfSkill(index: Int): SkillUseResult {
@@ -376,6 +398,7 @@ open class CharacterControl : AbstractControl() {
         skill.putOnCooldown()
 
         skill.data.onCast(char, char, skill)
+        GameEvents.skillCast(char, char, skill, SkillUseResult.NONE)
 
         return SkillUseResult.NONE
     }
@@ -399,7 +422,9 @@ open class CharacterControl : AbstractControl() {
         sp.value -= skill.manaCost.intValue()
         skill.putOnCooldown()
 
-        return skill.data.onCast(char, target, skill)
+        val result = skill.data.onCast(char, target, skill)
+        GameEvents.skillCast(char, target, skill, result)
+        return result
     }
 
     fun useAreaSkill(index: Int, target: Point2D): SkillUseResult {
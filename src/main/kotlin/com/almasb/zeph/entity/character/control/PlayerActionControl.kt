@@ -1,10 +1,9 @@
 package com.almasb.zeph.entity.character.control
 
-import com.almasb.fxgl.ai.pathfinding.AStarGrid
 import com.almasb.fxgl.ecs.AbstractControl
 import com.almasb.fxgl.ecs.Entity
-import com.almasb.fxgl.app.FXGL
-import com.almasb.zeph.ZephyriaApp
+import com.almasb.zeph.debug.FrameProfiler
+import com.almasb.zeph.debug.FrameProfiler.Section
 import com.almasb.zeph.entity.ai.AttackControl
 import com.almasb.zeph.entity.ai.MovementControl
 import com.almasb.zeph.entity.character.CharacterEntity
@@ -27,12 +26,6 @@ class PlayerActionControl : AbstractControl() {
 
     private var attacking = false
 
-    private val grid: AStarGrid
-
-    init {
-        grid = (FXGL.getApp() as ZephyriaApp).grid
-    }
-
     override fun onAdded(entity: Entity) {
         player = entity as PlayerEntity
 
@@ -44,6 +37,7 @@ class PlayerActionControl : AbstractControl() {
     }
 
     override fun onUpdate(entity: Entity, tpf: Double) {
+        val start = FrameProfiler.begin(Section.AI)
 
         if (selected.value is CharacterEntity /* TODO: && can be attacked, i.e. enemy */) {
 
@@ -65,6 +59,8 @@ class PlayerActionControl : AbstractControl() {
                 attacking = false
             }
         }
+
+        FrameProfiler.end(Section.AI, start)
     }
 
     fun moveTo(x: Int, y: Int) {
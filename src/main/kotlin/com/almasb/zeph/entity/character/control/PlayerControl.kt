@@ -4,12 +4,12 @@ import com.almasb.fxgl.ecs.Entity
 import com.almasb.zeph.Config
 import com.almasb.zeph.combat.Attribute
 import com.almasb.zeph.combat.Experience
-import com.almasb.zeph.entity.DescriptionComponent
 import com.almasb.zeph.entity.EntityManager
 import com.almasb.zeph.entity.character.EquipPlace
 import com.almasb.zeph.entity.character.PlayerEntity
 import com.almasb.zeph.entity.item.ArmorEntity
 import com.almasb.zeph.entity.item.ArmorType
+import com.almasb.zeph.entity.item.ItemEntity
 import com.almasb.zeph.entity.item.WeaponEntity
 import com.almasb.zeph.entity.item.WeaponType
 import com.almasb.zeph.entity.skill.SkillType
@@ -33,7 +33,7 @@ class PlayerControl : CharacterControl() {
         player = entity as PlayerEntity
 
         EquipPlace.values().forEach {
-            val item: Entity = if (it.isWeapon) EntityManager.getWeapon(it.emptyID) else EntityManager.getArmor(it.emptyID)
+            val item = EntityManager.getEmptyItem(it)
 
             if (item is WeaponEntity)
                 item.onEquip(player)
@@ -183,49 +183,54 @@ class PlayerControl : CharacterControl() {
     fun getLeftWeapon() = getEquip(EquipPlace.LEFT_HAND) as WeaponEntity
 
     fun equipWeapon(weapon: WeaponEntity) {
-        player.inventory.removeItem(weapon)
-
-        if (weapon.data.type.isTwoHanded()) {
-
-            if (30 - player.inventory.getItems().size == 1
-                && !isFree(EquipPlace.RIGHT_HAND)
-                && !isFree(EquipPlace.LEFT_HAND)) {
-                // ex case, when inventory is full and player tries to equip 2H weapon
-                // but holds two 1H weapons
-                player.inventory.addItem(weapon)
-                return
+        // inventory views are refreshed once for the whole swap
+        player.inventory.batch {
+            player.inventory.removeItem(weapon)
+
+            if (weapon.data.type.isTwoHanded()) {
+
+                if (player.inventory.freeSlots() < 2
+                    && !isFree(EquipPlace.RIGHT_HAND)
+                    && !isFree(EquipPlace.LEFT_HAND)) {
+                    // ex case, when inventory is full and player tries to equip 2H weapon
+                    // but holds two 1H weapons
+                    player.inventory.addItem(weapon)
+                    return@batch
+                }
+
+                unEquipItem(EquipPlace.RIGHT_HAND)
+                unEquipItem(EquipPlace.LEFT_HAND)
+                setEquip(EquipPlace.RIGHT_HAND, weapon)
+                setEquip(EquipPlace.LEFT_HAND, weapon)
+
+            } else if (weapon.data.type == WeaponType.SHIELD || !isFree(EquipPlace.RIGHT_HAND)) {
+                unEquipItem(EquipPlace.LEFT_HAND)
+                setEquip(EquipPlace.LEFT_HAND, weapon)
+            } else {    // normal 1H weapon
+                unEquipItem(EquipPlace.RIGHT_HAND)
+                setEquip(EquipPlace.RIGHT_HAND, weapon)
             }
 
-            unEquipItem(EquipPlace.RIGHT_HAND)
-            unEquipItem(EquipPlace.LEFT_HAND)
-            setEquip(EquipPlace.RIGHT_HAND, weapon)
-            setEquip(EquipPlace.LEFT_HAND, weapon)
-
-        } else if (weapon.data.type == WeaponType.SHIELD || !isFree(EquipPlace.RIGHT_HAND)) {
-            unEquipItem(EquipPlace.LEFT_HAND)
-            setEquip(EquipPlace.LEFT_HAND, weapon)
-        } else {    // normal 1H weapon
-            unEquipItem(EquipPlace.RIGHT_HAND)
-            setEquip(EquipPlace.RIGHT_HAND, weapon)
+            weapon.onEquip(player)
+            player.weaponElement.value = weapon.data.element
         }
-
-        weapon.onEquip(player)
-        player.weaponElement.value = weapon.data.element
     }
 
     fun equipArmor(armor: ArmorEntity) {
-        player.inventory.removeItem(armor)
+        player.inventory.batch {
+            player.inventory.removeItem(armor)
 
-        val place = when (armor.data.armorType) {
-            ArmorType.BODY -> EquipPlace.BODY
-            ArmorType.HELM -> EquipPlace.HELM
-            ArmorType.SHOES -> EquipPlace.SHOES
-        }
+            val place = when (armor.data.armorType) {
+                ArmorType.BODY -> EquipPlace.BODY
+                ArmorType.HELM -> EquipPlace.HELM
+                ArmorType.SHOES -> EquipPlace.SHOES
+            }
 
-        unEquipItem(place)
-        setEquip(place, armor)
-        armor.onEquip(player)
-        player.armorElement.value = armor.data.element
+            unEquipItem(place)
+            setEquip(place, armor)
+            armor.onEquip(player)
+            player.armorElement.value = armor.data.element
+        }
     }
 
     fun unEquipItem(place: EquipPlace) {
@@ -237,9 +242,9 @@ class PlayerControl : CharacterControl() {
         if (item is WeaponEntity) {
             if (item.data.type.isTwoHanded()) {
                 if (place == EquipPlace.RIGHT_HAND)
-                    setEquip(EquipPlace.LEFT_HAND, EntityManager.getWeapon(place.emptyID))
+                    setEquip(EquipPlace.LEFT_HAND, EntityManager.getEmptyItem(EquipPlace.LEFT_HAND))
                 else
-                    setEquip(EquipPlace.RIGHT_HAND, EntityManager.getWeapon(place.emptyID))
+                    setEquip(EquipPlace.RIGHT_HAND, EntityManager.getEmptyItem(EquipPlace.RIGHT_HAND))
             }
 
             item.onUnEquip(player)
@@ -247,18 +252,13 @@ class PlayerControl : CharacterControl() {
             item.onUnEquip(player)
         }
 
-        player.inventory.addItem(item)
+        player.inventory.addItem(item as ItemEntity)
 
         // replace with default
-        if (place.isWeapon) {
-            setEquip(place, EntityManager.getWeapon(place.emptyID))
-        } else {
-            setEquip(place, EntityManager.getArmor(place.emptyID))
-        }
+        setEquip(place, EntityManager.getEmptyItem(place))
     }
 
-    fun isFree(place: EquipPlace) = getEquip(place)
-            .getComponentUnsafe(DescriptionComponent::class.java).id.value == place.emptyID
+    fun isFree(place: EquipPlace) = (getEquip(place) as ItemEntity).getID() == place.emptyID
 
     // TODO: player version of canAttack that uses aspd of both weapons
 }
\ No newline at end of file
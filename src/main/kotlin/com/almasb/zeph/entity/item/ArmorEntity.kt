@@ -2,40 +2,30 @@ package com.almasb.zeph.entity.item
 
 import com.almasb.fxgl.ecs.Component
 import com.almasb.fxgl.ecs.Entity
-import com.almasb.zeph.combat.Element
 import com.almasb.zeph.combat.Stat
-import com.almasb.zeph.entity.DescriptionComponent
+import com.almasb.zeph.entity.DescriptionCache
 import com.almasb.zeph.entity.character.component.AttributesComponent
 import com.almasb.zeph.entity.character.component.StatsComponent
 import com.almasb.zeph.entity.item.component.ArmorDataComponent
 import javafx.beans.binding.Bindings
 import javafx.beans.property.SimpleIntegerProperty
-import javafx.beans.property.SimpleObjectProperty
 
 /**
  *
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
-class ArmorEntity(dataComponents: List<Component>) : Entity() {
+class ArmorEntity(template: List<Component>) : ItemEntity(template) {
 
-    val desc: DescriptionComponent
-    val data: ArmorDataComponent
-
-    val refineLevel = SimpleIntegerProperty()
-    val element = SimpleObjectProperty<Element>()
+    /**
+     * Shared, must not be modified.
+     */
+    val data = template.first { it is ArmorDataComponent } as ArmorDataComponent
 
     val armor = SimpleIntegerProperty()
     val marmor = SimpleIntegerProperty()
 
     init {
-        dataComponents.forEach { addComponent(it) }
-
-        desc = getComponentUnsafe(DescriptionComponent::class.java)
-        data = getComponentUnsafe(ArmorDataComponent::class.java)
-
-        element.value = data.element
-
         armor.bind(refineLevel.multiply(Bindings
                 .`when`(refineLevel.greaterThan(2))
                 .then(data.itemLevel.bonus + 1)
@@ -47,14 +37,16 @@ class ArmorEntity(dataComponents: List<Component>) : Entity() {
                 .then(data.itemLevel.bonus + 1)
                 .otherwise(data.itemLevel.bonus))
                 .add(data.marmor))
+    }
 
-        val rawDescription = desc.description.value
-        desc.description.bind(desc.name.concat("\n")
-                .concat(rawDescription + "\n")
-                .concat(element.asString("Element: %s").concat("\n"))
-                .concat(armor.asString("Armor: %d").concat("%\n"))
-                .concat(marmor.asString("MArmor: %d").concat("%\n"))
-                .concat("${data.runes}"))
+    override fun describe() = DescriptionCache.get(getID(), refineLevel.value) {
+        "${desc.name.value}\n" +
+                "${desc.description.value}\n" +
+                "Element: ${data.element}\n" +
+                "Armor: ${armor.value}%\n" +
+                "MArmor: ${marmor.value}%\n" +
+                "Price: ${data.price}\n" +
+                "${data.runes}"
     }
 
     fun onEquip(entity: Entity) {
@@ -0,0 +1,48 @@
+package com.almasb.zeph.entity.item
+
+import com.almasb.fxgl.ecs.Component
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.zeph.entity.DescriptionComponent
+import javafx.beans.property.SimpleIntegerProperty
+
+/**
+ * An item instance. Template data (description, type, damage, runes, element)
+ * is shared between all instances of the same item and is never attached to the entity,
+ * only per-instance state lives here.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+abstract class ItemEntity(template: List<Component>) : Entity() {
+
+    companion object {
+        const val MAX_DURABILITY = 100
+    }
+
+    /**
+     * Shared, must not be modified.
+     */
+    val desc = template.first { it is DescriptionComponent } as DescriptionComponent
+
+    val refineLevel = SimpleIntegerProperty()
+
+    var durability = MAX_DURABILITY
+
+    /**
+     * The entity holding this item, if any.
+     */
+    var owner: Entity? = null
+
+    /**
+     * How many of this item fit into one inventory slot.
+     * Items with per-instance state (refine, durability) do not stack.
+     */
+    open val maxStack: Int
+        get() = 1
+
+    fun getID() = desc.id.value
+
+    /**
+     * @return full description of this instance, including refine dependent values
+     */
+    abstract fun describe(): String
+}
@@ -0,0 +1,27 @@
+package com.almasb.zeph.entity.item
+
+import com.almasb.fxgl.ecs.Component
+import com.almasb.zeph.entity.DescriptionCache
+import com.almasb.zeph.entity.item.component.MiscDataComponent
+
+/**
+ * An item without per-instance state, so instances of the same template stack.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class MiscItemEntity(template: List<Component>) : ItemEntity(template) {
+
+    /**
+     * Shared, must not be modified.
+     */
+    val data = template.first { it is MiscDataComponent } as MiscDataComponent
+
+    override val maxStack: Int
+        get() = data.maxStack
+
+    override fun describe() = DescriptionCache.get(getID(), 0) {
+        "${desc.name.value}\n" +
+                "${desc.description.value}\n" +
+                "Price: ${data.price}"
+    }
+}
@@ -2,41 +2,31 @@ package com.almasb.zeph.entity.item
 
 import com.almasb.fxgl.ecs.Component
 import com.almasb.fxgl.ecs.Entity
-import com.almasb.zeph.combat.Element
 import com.almasb.zeph.combat.Stat
-import com.almasb.zeph.entity.DescriptionComponent
+import com.almasb.zeph.entity.DescriptionCache
 import com.almasb.zeph.entity.character.component.AttributesComponent
 import com.almasb.zeph.entity.character.component.StatsComponent
 import com.almasb.zeph.entity.item.component.WeaponDataComponent
 import javafx.beans.binding.Bindings
 import javafx.beans.property.SimpleIntegerProperty
-import javafx.beans.property.SimpleObjectProperty
 
 /**
  *
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
-class WeaponEntity(dataComponents: List<Component>) : Entity() {
+class WeaponEntity(template: List<Component>) : ItemEntity(template) {
 
-    val desc: DescriptionComponent
-    val data: WeaponDataComponent
-
-    val refineLevel = SimpleIntegerProperty()
-    val element = SimpleObjectProperty<Element>()
+    /**
+     * Shared, must not be modified.
+     */
+    val data = template.first { it is WeaponDataComponent } as WeaponDataComponent
 
     val pureDamage = SimpleIntegerProperty()
 
     val range: Int
 
     init {
-        dataComponents.forEach { addComponent(it) }
-
-        desc = getComponentUnsafe(DescriptionComponent::class.java)
-        data = getComponentUnsafe(WeaponDataComponent::class.java)
-
-        element.value = data.element
-
         range = data.type.range
 
         pureDamage.bind(refineLevel.multiply(Bindings
@@ -44,13 +34,15 @@ class WeaponEntity(dataComponents: List<Component>) : Entity() {
                 .then(data.itemLevel.bonus + 1)
                 .otherwise(data.itemLevel.bonus))
                 .add(data.pureDamage))
+    }
 
-        val rawDescription = desc.description.value
-        desc.description.bind(desc.name.concat("\n")
-                .concat(rawDescription + "\n")
-                .concat(element.asString("Element: %s").concat("\n"))
-                .concat(pureDamage.asString("Damage: %d").concat("\n"))
-                .concat("${data.runes}"))
+    override fun describe() = DescriptionCache.get(getID(), refineLevel.value) {
+        "${desc.name.value}\n" +
+                "${desc.description.value}\n" +
+                "Element: ${data.element}\n" +
+                "Damage: ${pureDamage.value}\n" +
+                "Price: ${data.price}\n" +
+                "${data.runes}"
     }
 
     fun onEquip(entity: Entity) {
@@ -21,4 +21,9 @@ class ArmorDataComponent(itemLevel: ItemLevel, val armorType: ArmorType, val arm
         this.element = element
         return this
     }
+
+    fun withPrice(price: Int): ArmorDataComponent {
+        this.price = price
+        return this
+    }
 }
\ No newline at end of file
@@ -15,6 +15,11 @@ abstract class EquippableComponent(val itemLevel: ItemLevel) : AbstractComponent
 
     var element = Element.NEUTRAL
 
+    /**
+     * Base price when bought from or sold to a merchant.
+     */
+    var price = 0
+
     val runes = ArrayList<Rune>()
     val essences = ArrayList<Essence>()
 
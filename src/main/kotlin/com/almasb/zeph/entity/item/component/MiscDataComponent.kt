@@ -0,0 +1,21 @@
+package com.almasb.zeph.entity.item.component
+
+import com.almasb.fxgl.ecs.AbstractComponent
+
+/**
+ * Data of items that are neither worn nor used, e.g. monster parts.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class MiscDataComponent(val maxStack: Int) : AbstractComponent() {
+
+    /**
+     * Base price when bought from or sold to a merchant.
+     */
+    var price = 0
+
+    fun withPrice(price: Int): MiscDataComponent {
+        this.price = price
+        return this
+    }
+}
@@ -21,4 +21,9 @@ class WeaponDataComponent(itemLevel: ItemLevel, val type: WeaponType, val pureDa
         this.element = element
         return this
     }
+
+    fun withPrice(price: Int): WeaponDataComponent {
+        this.price = price
+        return this
+    }
 }
\ No newline at end of file
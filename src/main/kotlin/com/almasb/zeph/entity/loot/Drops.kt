@@ -0,0 +1,38 @@
+package com.almasb.zeph.entity.loot
+
+import java.util.*
+
+/**
+ * Reusable buffer of (item ID, count) pairs produced by rolling loot tables.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class Drops {
+
+    private var ids = IntArray(16)
+    private var counts = IntArray(16)
+
+    var size = 0
+        private set
+
+    fun getID(index: Int) = ids[index]
+
+    fun getCount(index: Int) = counts[index]
+
+    fun add(itemID: Int, count: Int) {
+        if (size == ids.size) {
+            ids = Arrays.copyOf(ids, size * 2)
+            counts = Arrays.copyOf(counts, size * 2)
+        }
+
+        ids[size] = itemID
+        counts[size] = count
+        size++
+    }
+
+    fun isEmpty() = size == 0
+
+    fun clear() {
+        size = 0
+    }
+}
@@ -0,0 +1,218 @@
+package com.almasb.zeph.entity.loot
+
+import java.util.*
+
+/**
+ * Immutable, precompiled loot table.
+ *
+ * A roll produces:
+ * 1. all guaranteed drops,
+ * 2. each chance drop independently,
+ * 3. [Group.rolls] picks from each weighted group, where an entry is an item,
+ * a nested table or nothing.
+ *
+ * Weighted groups are compiled into alias tables (Vose), so a pick costs
+ * one random int and one random double regardless of group size.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class LootTable private constructor(
+
+        private val guaranteedIDs: IntArray,
+        private val guaranteedCounts: IntArray,
+
+        private val chanceIDs: IntArray,
+
+        /**
+         * Chance in 1..100, same meaning as in [com.almasb.zeph.combat.GameMath.checkChance].
+         */
+        private val chances: IntArray,
+
+        private val groups: Array<CompiledGroup>) {
+
+    companion object {
+        @JvmField val EMPTY = Builder().build()
+
+        /**
+         * Nested tables deeper than this are not rolled, guards against accidental cycles.
+         */
+        private const val MAX_DEPTH = 8
+    }
+
+    /**
+     * A weighted choice of exactly one entry, rolled [rolls] times.
+     */
+    class Group @JvmOverloads constructor(val rolls: Int = 1) {
+        internal val itemIDs = ArrayList<Int>()
+        internal val counts = ArrayList<Int>()
+        internal val tables = ArrayList<LootTable?>()
+        internal val weights = ArrayList<Double>()
+
+        @JvmOverloads
+        fun withItem(itemID: Int, weight: Double, count: Int = 1): Group {
+            itemIDs.add(itemID)
+            counts.add(count)
+            tables.add(null)
+            weights.add(weight)
+            return this
+        }
+
+        fun withTable(table: LootTable, weight: Double): Group {
+            itemIDs.add(0)
+            counts.add(0)
+            tables.add(table)
+            weights.add(weight)
+            return this
+        }
+
+        fun withNothing(weight: Double): Group {
+            itemIDs.add(0)
+            counts.add(0)
+            tables.add(null)
+            weights.add(weight)
+            return this
+        }
+    }
+
+    class Builder {
+        private val guaranteedIDs = ArrayList<Int>()
+        private val guaranteedCounts = ArrayList<Int>()
+        private val chanceIDs = ArrayList<Int>()
+        private val chances = ArrayList<Int>()
+        private val groups = ArrayList<Group>()
+
+        @JvmOverloads
+        fun withGuaranteed(itemID: Int, count: Int = 1): Builder {
+            guaranteedIDs.add(itemID)
+            guaranteedCounts.add(count)
+            return this
+        }
+
+        fun withChance(itemID: Int, chance: Int): Builder {
+            if (chance > 0) {
+                chanceIDs.add(itemID)
+                chances.add(chance)
+            }
+            return this
+        }
+
+        fun withGroup(group: Group): Builder {
+            if (group.weights.isEmpty())
+                throw IllegalArgumentException("Group has no entries")
+
+            if (group.weights.any { it < 0 } || group.weights.sum() <= 0)
+                throw IllegalArgumentException("Group weights must be non-negative with a positive sum")
+
+            groups.add(group)
+            return this
+        }
+
+        fun build() = LootTable(
+                guaranteedIDs.toIntArray(), guaranteedCounts.toIntArray(),
+                chanceIDs.toIntArray(), chances.toIntArray(),
+                groups.map { CompiledGroup(it) }.toTypedArray())
+    }
+
+    private class CompiledGroup(group: Group) {
+        val rolls = group.rolls
+        val itemIDs = group.itemIDs.toIntArray()
+        val counts = group.counts.toIntArray()
+        val tables = group.tables.toTypedArray()
+
+        val prob: DoubleArray
+        val alias: IntArray
+
+        init {
+            val n = group.weights.size
+            val sum = group.weights.sum()
+
+            prob = DoubleArray(n)
+            alias = IntArray(n)
+
+            val scaled = DoubleArray(n) { group.weights[it] * n / sum }
+
+            val small = ArrayDeque<Int>()
+            val large = ArrayDeque<Int>()
+
+            for (i in 0..n - 1) {
+                if (scaled[i] < 1.0)
+                    small.push(i)
+                else
+                    large.push(i)
+            }
+
+            while (!small.isEmpty() && !large.isEmpty()) {
+                val s = small.pop()
+                val l = large.pop()
+
+                prob[s] = scaled[s]
+                alias[s] = l
+
+                scaled[l] = scaled[l] + scaled[s] - 1.0
+
+                if (scaled[l] < 1.0)
+                    small.push(l)
+                else
+                    large.push(l)
+            }
+
+            // leftovers are 1.0 up to floating point error
+            while (!large.isEmpty())
+                prob[large.pop()] = 1.0
+
+            while (!small.isEmpty())
+                prob[small.pop()] = 1.0
+        }
+
+        fun pick(random: SplittableRandom): Int {
+            val i = random.nextInt(prob.size)
+            return if (random.nextDouble() < prob[i]) i else alias[i]
+        }
+    }
+
+    /**
+     * Rolls this table once and appends results to [out].
+     */
+    fun roll(random: SplittableRandom, out: Drops) {
+        rollNested(random, out, 0)
+    }
+
+    /**
+     * Rolls this table [times] times, e.g. for a whole pack killed at once.
+     */
+    fun rollTimes(random: SplittableRandom, out: Drops, times: Int) {
+        for (i in 0..times - 1) {
+            rollNested(random, out, 0)
+        }
+    }
+
+    fun isEmpty() = guaranteedIDs.isEmpty() && chanceIDs.isEmpty() && groups.isEmpty()
+
+    private fun rollNested(random: SplittableRandom, out: Drops, depth: Int) {
+        if (depth > MAX_DEPTH)
+            return
+
+        for (i in guaranteedIDs.indices) {
+            out.add(guaranteedIDs[i], guaranteedCounts[i])
+        }
+
+        for (i in chanceIDs.indices) {
+            if (random.nextInt(100) < chances[i])
+                out.add(chanceIDs[i], 1)
+        }
+
+        for (group in groups) {
+            for (r in 0..group.rolls - 1) {
+                val index = group.pick(random)
+
+                val table = group.tables[index]
+
+                if (table != null) {
+                    table.rollNested(random, out, depth + 1)
+                } else if (group.counts[index] > 0) {
+                    out.add(group.itemIDs[index], group.counts[index])
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.almasb.zeph.entity.loot
+
+import com.almasb.zeph.entity.Catalog
+import com.almasb.zeph.entity.character.component.CharacterDataComponent
+import java.util.*
+
+/**
+ * Loot tables of monster archetypes, compiled once on first use from
+ * [CharacterDataComponent.dropItems] unless registered explicitly,
+ * e.g. a boss table with weighted groups.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object LootTables {
+
+    private val tables = HashMap<Int, LootTable>()
+
+    /**
+     * Overrides the table compiled from drop data of [archetypeID].
+     */
+    fun register(archetypeID: Int, table: LootTable) {
+        tables[archetypeID] = table
+    }
+
+    fun get(archetypeID: Int): LootTable {
+        return tables.getOrPut(archetypeID) {
+            if (archetypeID !in Catalog.characters)
+                return@getOrPut LootTable.EMPTY
+
+            val data = Catalog.characters.template(archetypeID).first { it is CharacterDataComponent } as CharacterDataComponent
+
+            val builder = LootTable.Builder()
+            data.dropItems.forEach { builder.withChance(it.first, it.second) }
+            builder.build()
+        }
+    }
+
+    /**
+     * Rolls loot of all kills in one call.
+     * Results are deterministic for a given [random] state and order of [archetypeIDs].
+     *
+     * @param archetypeIDs archetype ID of each killed character, repeats allowed
+     */
+    fun rollAll(archetypeIDs: IntArray, random: SplittableRandom, out: Drops) {
+        if (archetypeIDs.isEmpty())
+            return
+
+        // consecutive kills of the same archetype are rolled as one run of the looked up table
+        var start = 0
+
+        while (start < archetypeIDs.size) {
+            val id = archetypeIDs[start]
+
+            var end = start + 1
+            while (end < archetypeIDs.size && archetypeIDs[end] == id)
+                end++
+
+            get(id).rollTimes(random, out, end - start)
+
+            start = end
+        }
+    }
+}
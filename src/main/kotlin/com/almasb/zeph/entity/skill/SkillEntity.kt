@@ -2,6 +2,7 @@ package com.almasb.zeph.entity.skill
 
 import com.almasb.fxgl.ecs.Component
 import com.almasb.fxgl.ecs.Entity
+import com.almasb.zeph.entity.DescriptionCache
 import com.almasb.zeph.entity.DescriptionComponent
 import javafx.beans.property.SimpleDoubleProperty
 import javafx.beans.property.SimpleIntegerProperty
@@ -30,12 +31,16 @@ class SkillEntity(dataComponents: List<Component>) : Entity() {
 
         desc = getComponentUnsafe(DescriptionComponent::class.java)
         data = getComponentUnsafe(SkillDataComponent::class.java)
+    }
 
-        val rawDescription = desc.description.value
-        desc.description.bind(desc.name.concat("\n")
-                .concat(rawDescription + "\n")
-                .concat(level.asString("Level: %d\n"))
-                .concat(level.multiply(data.mana).asString("Mana Cost: %d\n")))
+    /**
+     * @return full description including level dependent values
+     */
+    fun describe() = DescriptionCache.get(desc.id.value, level.value) {
+        "${desc.name.value}\n" +
+                "${desc.description.value}\n" +
+                "Level: ${level.value}\n" +
+                "Mana Cost: ${level.value * data.mana}\n"
     }
 
     val manaCost by lazy { level.multiply(data.mana) }
@@ -0,0 +1,227 @@
+package com.almasb.zeph.map
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.*
+
+/**
+ * Compact binary map format (.zmap) that can be memory-mapped.
+ * Layer data is read through int buffer views onto the mapping,
+ * so tiles are never copied onto the heap.
+ *
+ * Layout (little endian):
+ * magic, version, width, height, tileWidth, tileHeight,
+ * tileset count, tilesets (firstGid, columns, tileWidth, tileHeight, margin, spacing, name, image),
+ * layer count, layers (name, visible, opacity, width, height, padding to 4 bytes, width * height gids),
+ * object group count, object groups (name, object count, objects (name, type, x, y, width, height,
+ * property count, properties (key, value))).
+ * Strings are stored as byte length followed by UTF-8 bytes.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object BinaryMapFormat {
+
+    const val EXTENSION = ".zmap"
+
+    private const val MAGIC = 0x5A4D4150 // ZMAP
+    private const val VERSION = 2
+
+    fun write(map: TileMap, file: Path) {
+        val buffer = ByteBuffer.allocate(sizeOf(map)).order(ByteOrder.LITTLE_ENDIAN)
+
+        with(buffer) {
+            putInt(MAGIC)
+            putInt(VERSION)
+            putInt(map.width)
+            putInt(map.height)
+            putInt(map.tileWidth)
+            putInt(map.tileHeight)
+
+            putInt(map.tilesets.size)
+            map.tilesets.forEach {
+                putInt(it.firstGid)
+                putInt(it.columns)
+                putInt(it.tileWidth)
+                putInt(it.tileHeight)
+                putInt(it.margin)
+                putInt(it.spacing)
+                putString(this, it.name)
+                putString(this, it.imageName)
+            }
+
+            putInt(map.layers.size)
+            map.layers.forEach {
+                putString(this, it.name)
+                put((if (it.visible) 1 else 0).toByte())
+                putFloat(it.opacity.toFloat())
+                putInt(it.width)
+                putInt(it.height)
+                pad(this)
+
+                for (i in 0..it.width * it.height - 1) {
+                    putInt(it.data.get(i))
+                }
+            }
+
+            putInt(map.objectGroups.size)
+            map.objectGroups.forEach {
+                putString(this, it.name)
+                putInt(it.objects.size)
+
+                it.objects.forEach {
+                    putString(this, it.name)
+                    putString(this, it.type)
+                    putFloat(it.x.toFloat())
+                    putFloat(it.y.toFloat())
+                    putFloat(it.width.toFloat())
+                    putFloat(it.height.toFloat())
+
+                    putInt(it.properties.size)
+                    for ((key, value) in it.properties) {
+                        putString(this, key)
+                        putString(this, value)
+                    }
+                }
+            }
+        }
+
+        Files.newOutputStream(file).use { it.write(buffer.array(), 0, buffer.position()) }
+    }
+
+    /**
+     * Maps the file into memory. The file can be deleted or closed
+     * afterwards, the mapping stays valid until garbage collected.
+     */
+    fun map(file: Path): TileMap {
+        val buffer = FileChannel.open(file, StandardOpenOption.READ).use {
+            it.map(FileChannel.MapMode.READ_ONLY, 0, it.size())
+        }
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN)
+
+        if (buffer.int != MAGIC)
+            throw IllegalArgumentException("$file is not a map file")
+
+        val version = buffer.int
+        if (version != VERSION)
+            throw IllegalArgumentException("$file has unsupported version $version")
+
+        val width = buffer.int
+        val height = buffer.int
+        val tileWidth = buffer.int
+        val tileHeight = buffer.int
+
+        val tilesets = ArrayList<Tileset>()
+        for (i in 0..buffer.int - 1) {
+            val firstGid = buffer.int
+            val columns = buffer.int
+            val tw = buffer.int
+            val th = buffer.int
+            val margin = buffer.int
+            val spacing = buffer.int
+            val name = getString(buffer)
+            val image = getString(buffer)
+
+            tilesets.add(Tileset(firstGid, name, image, columns, tw, th, margin, spacing))
+        }
+
+        val layers = ArrayList<TileLayer>()
+        for (i in 0..buffer.int - 1) {
+            val name = getString(buffer)
+            val visible = buffer.get().toInt() == 1
+            val opacity = buffer.float.toDouble()
+            val w = buffer.int
+            val h = buffer.int
+            buffer.position(aligned(buffer.position()))
+
+            val data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer()
+            data.limit(w * h)
+
+            buffer.position(buffer.position() + w * h * 4)
+
+            layers.add(TileLayer(name, w, h, data, visible, opacity))
+        }
+
+        val objectGroups = ArrayList<ObjectGroup>()
+        for (i in 0..buffer.int - 1) {
+            val name = getString(buffer)
+
+            val objects = ArrayList<MapObject>()
+            for (j in 0..buffer.int - 1) {
+                val objectName = getString(buffer)
+                val type = getString(buffer)
+                val x = buffer.float.toDouble()
+                val y = buffer.float.toDouble()
+                val w = buffer.float.toDouble()
+                val h = buffer.float.toDouble()
+
+                val properties = HashMap<String, String>()
+                for (k in 0..buffer.int - 1) {
+                    properties[getString(buffer)] = getString(buffer)
+                }
+
+                objects.add(MapObject(objectName, type, x, y, w, h, properties))
+            }
+
+            objectGroups.add(ObjectGroup(name, objects))
+        }
+
+        return TileMap(width, height, tileWidth, tileHeight, layers, tilesets, objectGroups)
+    }
+
+    private fun sizeOf(map: TileMap): Int {
+        var size = 4 * 7
+
+        map.tilesets.forEach {
+            size += 4 * 6 + 4 + it.name.toByteArray(Charsets.UTF_8).size + 4 + it.imageName.toByteArray(Charsets.UTF_8).size
+        }
+
+        size += 4
+
+        map.layers.forEach {
+            // worst case alignment padding is 3 bytes
+            size += 4 + it.name.toByteArray(Charsets.UTF_8).size + 1 + 4 + 4 * 2 + 3 + it.width * it.height * 4
+        }
+
+        size += 4
+
+        map.objectGroups.forEach {
+            size += sizeOf(it.name) + 4
+
+            it.objects.forEach {
+                size += sizeOf(it.name) + sizeOf(it.type) + 4 * 4 + 4
+                for ((key, value) in it.properties) {
+                    size += sizeOf(key) + sizeOf(value)
+                }
+            }
+        }
+
+        return size
+    }
+
+    private fun sizeOf(value: String) = 4 + value.toByteArray(Charsets.UTF_8).size
+
+    private fun putString(buffer: ByteBuffer, value: String) {
+        val bytes = value.toByteArray(Charsets.UTF_8)
+        buffer.putInt(bytes.size)
+        buffer.put(bytes)
+    }
+
+    private fun getString(buffer: ByteBuffer): String {
+        val bytes = ByteArray(buffer.int)
+        buffer.get(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+
+    private fun pad(buffer: ByteBuffer) {
+        while (buffer.position() != aligned(buffer.position())) {
+            buffer.put(0.toByte())
+        }
+    }
+
+    private fun aligned(position: Int) = (position + 3) and 3.inv()
+}
@@ -0,0 +1,271 @@
+package com.almasb.zeph.map
+
+import java.util.*
+
+/**
+ * A* search over a [WalkabilityGrid] with 4-directional movement.
+ * All working memory is kept in primitive arrays that are reused between
+ * searches, no object is allocated per tile.
+ * Per-tile search state lives in a hash table of the tiles a search reaches,
+ * so memory grows with the largest search rather than with the map.
+ * Not thread-safe.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class GridPathfinder(val grid: WalkabilityGrid) {
+
+    companion object {
+        val NO_PATH = IntArray(0)
+
+        private const val INITIAL_CAPACITY = 256
+    }
+
+    // open addressing table of reached tiles, power of 2 capacity, linear probing
+
+    private var tiles = IntArray(INITIAL_CAPACITY)
+    private var gScore = IntArray(INITIAL_CAPACITY)
+    private var parent = IntArray(INITIAL_CAPACITY)
+    private var closed = BooleanArray(INITIAL_CAPACITY)
+
+    /**
+     * Search generation in which a table slot was taken.
+     * Avoids clearing the table before each search.
+     */
+    private var stamps = IntArray(INITIAL_CAPACITY)
+    private var used = 0
+    private var generation = 0
+
+    // binary min-heap of tile indices ordered by f score
+    private var heap = IntArray(64)
+    private var heapScore = IntArray(64)
+    private var heapSize = 0
+
+    /**
+     * Number of tiles expanded by the last search.
+     */
+    var lastExpanded = 0
+        private set
+
+    /**
+     * Number of searches since creation.
+     */
+    var totalSearches = 0L
+        private set
+
+    /**
+     * Number of tiles expanded by all searches since creation.
+     */
+    var totalExpanded = 0L
+        private set
+
+    /**
+     * @return tile indices (y * width + x) from the tile after start up to target inclusive,
+     * or empty array if target is unreachable
+     */
+    fun findPath(startX: Int, startY: Int, targetX: Int, targetY: Int): IntArray {
+        lastExpanded = 0
+        totalSearches++
+
+        if (!grid.isInBounds(startX, startY) || !grid.isWalkable(targetX, targetY))
+            return NO_PATH
+
+        val start = startY * grid.width + startX
+        val target = targetY * grid.width + targetX
+
+        if (start == target)
+            return NO_PATH
+
+        nextGeneration()
+
+        heapSize = 0
+        gScore[slotOf(start)] = 0
+        push(start, heuristic(start, targetX, targetY))
+
+        while (heapSize > 0) {
+            val current = pop()
+            val slot = slotOf(current)
+
+            if (closed[slot])
+                continue
+
+            closed[slot] = true
+            lastExpanded++
+            totalExpanded++
+
+            if (current == target)
+                return buildPath(start, target)
+
+            val g = gScore[slot] + 1
+            val x = current % grid.width
+            val y = current / grid.width
+
+            if (x > 0) visit(current, current - 1, g, targetX, targetY)
+            if (x < grid.width - 1) visit(current, current + 1, g, targetX, targetY)
+            if (y > 0) visit(current, current - grid.width, g, targetX, targetY)
+            if (y < grid.height - 1) visit(current, current + grid.width, g, targetX, targetY)
+        }
+
+        return NO_PATH
+    }
+
+    private fun visit(current: Int, next: Int, g: Int, targetX: Int, targetY: Int) {
+        if (!grid.isWalkable(next))
+            return
+
+        val slot = slotOf(next)
+
+        if (!closed[slot] && g < gScore[slot]) {
+            gScore[slot] = g
+            parent[slot] = current
+
+            // stale heap entries are skipped when popped
+            push(next, g + heuristic(next, targetX, targetY))
+        }
+    }
+
+    /**
+     * @return table slot of [tile], taken for it in this search if it has none yet
+     */
+    private fun slotOf(tile: Int): Int {
+        if (used * 2 >= tiles.size)
+            grow()
+
+        val mask = tiles.size - 1
+        var slot = hash(tile) and mask
+
+        while (stamps[slot] == generation) {
+            if (tiles[slot] == tile)
+                return slot
+
+            slot = (slot + 1) and mask
+        }
+
+        stamps[slot] = generation
+        tiles[slot] = tile
+        gScore[slot] = Int.MAX_VALUE
+        closed[slot] = false
+        used++
+
+        return slot
+    }
+
+    private fun hash(tile: Int): Int {
+        val h = tile * -0x61c88647
+        return h xor (h ushr 16)
+    }
+
+    private fun grow() {
+        val oldTiles = tiles
+        val oldGScore = gScore
+        val oldParent = parent
+        val oldClosed = closed
+        val oldStamps = stamps
+
+        val capacity = oldTiles.size * 2
+        tiles = IntArray(capacity)
+        gScore = IntArray(capacity)
+        parent = IntArray(capacity)
+        closed = BooleanArray(capacity)
+        stamps = IntArray(capacity)
+
+        val mask = capacity - 1
+
+        for (i in oldTiles.indices) {
+            if (oldStamps[i] != generation)
+                continue
+
+            var slot = hash(oldTiles[i]) and mask
+            while (stamps[slot] == generation) {
+                slot = (slot + 1) and mask
+            }
+
+            stamps[slot] = generation
+            tiles[slot] = oldTiles[i]
+            gScore[slot] = oldGScore[i]
+            parent[slot] = oldParent[i]
+            closed[slot] = oldClosed[i]
+        }
+    }
+
+    private fun heuristic(index: Int, targetX: Int, targetY: Int) =
+            Math.abs(index % grid.width - targetX) + Math.abs(index / grid.width - targetY)
+
+    private fun buildPath(start: Int, target: Int): IntArray {
+        var length = 0
+        var node = target
+        while (node != start) {
+            length++
+            node = parent[slotOf(node)]
+        }
+
+        val path = IntArray(length)
+        node = target
+        for (i in length - 1 downTo 0) {
+            path[i] = node
+            node = parent[slotOf(node)]
+        }
+
+        return path
+    }
+
+    private fun nextGeneration() {
+        if (generation == Int.MAX_VALUE) {
+            Arrays.fill(stamps, 0)
+            generation = 0
+        }
+
+        generation++
+        used = 0
+    }
+
+    private fun push(index: Int, score: Int) {
+        if (heapSize == heap.size) {
+            heap = Arrays.copyOf(heap, heapSize * 2)
+            heapScore = Arrays.copyOf(heapScore, heapSize * 2)
+        }
+
+        var i = heapSize++
+        while (i > 0) {
+            val p = (i - 1) / 2
+            if (heapScore[p] <= score)
+                break
+
+            heap[i] = heap[p]
+            heapScore[i] = heapScore[p]
+            i = p
+        }
+
+        heap[i] = index
+        heapScore[i] = score
+    }
+
+    private fun pop(): Int {
+        val result = heap[0]
+
+        heapSize--
+        val index = heap[heapSize]
+        val score = heapScore[heapSize]
+
+        var i = 0
+        while (true) {
+            var child = 2 * i + 1
+            if (child >= heapSize)
+                break
+
+            if (child + 1 < heapSize && heapScore[child + 1] < heapScore[child])
+                child++
+
+            if (heapScore[child] >= score)
+                break
+
+            heap[i] = heap[child]
+            heapScore[i] = heapScore[child]
+            i = child
+        }
+
+        heap[i] = index
+        heapScore[i] = score
+
+        return result
+    }
+}
@@ -0,0 +1,33 @@
+package com.almasb.zeph.map
+
+/**
+ * A playable level: map to draw, walkability to path on and where to spawn.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class Level(val map: TileMap,
+            val walkability: WalkabilityGrid,
+            val spawnPoints: List<SpawnPoint>) {
+
+    val width: Int
+        get() = map.width
+
+    val height: Int
+        get() = map.height
+}
+
+/**
+ * Spawn area in tiles.
+ *
+ * @property archetypeID ID of character to spawn (see Data.Character)
+ * @property count how many characters to keep alive in the area
+ * @property crowd how many additional ambient characters to keep in [com.almasb.zeph.world.Crowd] form
+ */
+class SpawnPoint @JvmOverloads constructor(
+                 val archetypeID: Int,
+                 val minX: Int,
+                 val minY: Int,
+                 val maxX: Int,
+                 val maxY: Int,
+                 val count: Int,
+                 val crowd: Int = 0)
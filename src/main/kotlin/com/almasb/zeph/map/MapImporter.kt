@@ -0,0 +1,65 @@
+package com.almasb.zeph.map
+
+import java.util.*
+
+/**
+ * Builds a [Level] from collision and object layers of a map.
+ *
+ * Tile layers named "collision" (case-insensitive prefix) block every tile with a non-empty gid.
+ * Objects of type "blocker" block all tiles they cover.
+ * Objects of type "spawn" define spawn areas, object name is the character ID
+ * and optional "count" property is the population size.
+ * Optional "crowd" property is the number of ambient characters, see [com.almasb.zeph.world.Crowd].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object MapImporter {
+
+    const val COLLISION_LAYER = "collision"
+    const val TYPE_BLOCKER = "blocker"
+    const val TYPE_SPAWN = "spawn"
+
+    fun isCollisionLayer(layer: TileLayer) = layer.name.startsWith(COLLISION_LAYER, ignoreCase = true)
+
+    fun importLevel(map: TileMap): Level {
+        val grid = WalkabilityGrid(map.width, map.height)
+
+        map.layers.filter { isCollisionLayer(it) }.forEach { layer ->
+            for (y in 0..layer.height - 1) {
+                for (x in 0..layer.width - 1) {
+                    if (layer.gid(x, y) != 0)
+                        grid.setWalkable(x, y, false)
+                }
+            }
+        }
+
+        val spawnPoints = ArrayList<SpawnPoint>()
+
+        map.objectGroups.flatMap { it.objects }.forEach {
+            // objects are in map pixels, a tile covered only partly still counts
+            val minX = (it.x / map.tileWidth).toInt()
+            val minY = (it.y / map.tileHeight).toInt()
+            val maxX = Math.max(Math.ceil((it.x + it.width) / map.tileWidth).toInt() - 1, minX)
+            val maxY = Math.max(Math.ceil((it.y + it.height) / map.tileHeight).toInt() - 1, minY)
+
+            when (it.type) {
+                TYPE_BLOCKER -> grid.block(minX, minY, maxX, maxY)
+
+                TYPE_SPAWN -> {
+                    val id = try {
+                        it.name.toInt()
+                    } catch (e: NumberFormatException) {
+                        throw IllegalArgumentException("Spawn object name must be a character ID: ${it.name}")
+                    }
+
+                    val count = it.properties["count"]?.toInt() ?: 1
+                    val crowd = it.properties["crowd"]?.toInt() ?: 0
+
+                    spawnPoints.add(SpawnPoint(id, minX, minY, maxX, maxY, count, crowd))
+                }
+            }
+        }
+
+        return Level(map, grid, spawnPoints)
+    }
+}
@@ -0,0 +1,47 @@
+package com.almasb.zeph.map
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+
+/**
+ * Loads level maps by name. A pre-converted binary map from assets/maps
+ * is memory-mapped if available, otherwise the Tiled JSON from assets/json
+ * is streamed.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object MapLoader {
+
+    private const val BINARY_DIR = "/assets/maps/"
+    private const val JSON_DIR = "/assets/json/"
+
+    fun load(name: String): TileMap {
+        val binary = javaClass.getResource("$BINARY_DIR$name${BinaryMapFormat.EXTENSION}")
+
+        if (binary != null) {
+            return BinaryMapFormat.map(toFile(binary))
+        }
+
+        val json = javaClass.getResourceAsStream("$JSON_DIR$name.json")
+                ?: throw IllegalArgumentException("Map $name not found")
+
+        return json.use { TiledJsonReader.read(it) }
+    }
+
+    /**
+     * Resources inside a jar cannot be mapped, so they are extracted once.
+     */
+    private fun toFile(url: java.net.URL): Path {
+        if (url.protocol == "file")
+            return Paths.get(url.toURI())
+
+        val file = Files.createTempFile("zeph", BinaryMapFormat.EXTENSION)
+        file.toFile().deleteOnExit()
+
+        url.openStream().use { Files.copy(it, file, StandardCopyOption.REPLACE_EXISTING) }
+
+        return file
+    }
+}
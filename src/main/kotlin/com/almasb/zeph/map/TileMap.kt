@@ -0,0 +1,85 @@
+package com.almasb.zeph.map
+
+import java.nio.IntBuffer
+
+/**
+ * Level map made of tile layers, independent of how it was loaded.
+ * Tile data is stored as global tile ids (gid), 0 means no tile.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TileMap(val width: Int,
+              val height: Int,
+              val tileWidth: Int,
+              val tileHeight: Int,
+              val layers: List<TileLayer>,
+              val tilesets: List<Tileset>,
+              val objectGroups: List<ObjectGroup> = emptyList()) {
+
+    /**
+     * @return tileset that contains [gid] or null if gid is empty
+     */
+    fun tilesetOf(gid: Int): Tileset? {
+        if (gid <= 0)
+            return null
+
+        for (i in tilesets.indices.reversed()) {
+            if (gid >= tilesets[i].firstGid)
+                return tilesets[i]
+        }
+
+        return null
+    }
+
+    fun layer(name: String) = layers.firstOrNull { it.name == name }
+}
+
+/**
+ * A single tile layer, row-major.
+ * Data is either a wrapped int array or a view onto a memory-mapped file.
+ */
+class TileLayer(val name: String,
+                val width: Int,
+                val height: Int,
+                val data: IntBuffer,
+                val visible: Boolean = true,
+                val opacity: Double = 1.0) {
+
+    fun gid(x: Int, y: Int) = data.get(y * width + x)
+}
+
+/**
+ * Tileset backed by a single image.
+ */
+class Tileset(val firstGid: Int,
+              val name: String,
+              /**
+               * File name of the image, resolved against assets/textures.
+               */
+              val imageName: String,
+              val columns: Int,
+              val tileWidth: Int,
+              val tileHeight: Int,
+              val margin: Int = 0,
+              val spacing: Int = 0) {
+
+    fun sourceX(gid: Int) = margin + ((gid - firstGid) % columns) * (tileWidth + spacing)
+
+    fun sourceY(gid: Int) = margin + ((gid - firstGid) / columns) * (tileHeight + spacing)
+}
+
+/**
+ * Tiled object layer, e.g. spawn points or blockers.
+ */
+class ObjectGroup(val name: String, val objects: List<MapObject>)
+
+/**
+ * Object placed on the map, coordinates and size are in map pixels.
+ */
+class MapObject(val name: String,
+                val type: String,
+                val x: Double,
+                val y: Double,
+                val width: Double,
+                val height: Double,
+                val properties: Map<String, String> = emptyMap())
@@ -0,0 +1,145 @@
+package com.almasb.zeph.map
+
+import com.almasb.zeph.Config
+import com.almasb.zeph.texture.TextureCache
+import javafx.scene.SnapshotParameters
+import javafx.scene.canvas.Canvas
+import javafx.scene.image.Image
+import javafx.scene.image.WritableImage
+import javafx.scene.paint.Color
+import java.util.*
+
+/**
+ * Draws tile layers of a [TileMap] onto a single screen-sized canvas.
+ *
+ * Static layers are pre-rendered into fixed-size chunk images on first use.
+ * Only chunks near the viewport are kept, the least recently used are evicted,
+ * so the cost per frame depends on screen size, not map size.
+ *
+ * The canvas is expected to be the view of a background entity,
+ * whose position is kept at viewport origin.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TileMapRenderer(private val map: TileMap, width: Double, height: Double) {
+
+    companion object {
+
+        /**
+         * Chunk size in tiles, per dimension.
+         */
+        const val CHUNK_TILES = 16
+
+        /**
+         * Max number of chunk images kept in memory.
+         */
+        const val MAX_RESIDENT_CHUNKS = 24
+    }
+
+    val canvas = Canvas(width, height)
+
+    private val g = canvas.graphicsContext2D
+
+    /**
+     * Map tiles are drawn scaled to game tile size.
+     */
+    private val scaleX = Config.tileSize.toDouble() / map.tileWidth
+    private val scaleY = Config.tileSize.toDouble() / map.tileHeight
+
+    private val chunkPixelWidth = CHUNK_TILES * map.tileWidth
+    private val chunkPixelHeight = CHUNK_TILES * map.tileHeight
+
+    private val chunksX = (map.width + CHUNK_TILES - 1) / CHUNK_TILES
+    private val chunksY = (map.height + CHUNK_TILES - 1) / CHUNK_TILES
+
+    private val tilesetImages = map.tilesets.map { TextureCache.image(it.imageName) }
+
+    /**
+     * Chunk index -> pre-rendered image, in access order.
+     */
+    private val chunks = object : LinkedHashMap<Int, Image>(MAX_RESIDENT_CHUNKS * 2, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Int, Image>?) = size > MAX_RESIDENT_CHUNKS
+    }
+
+    /**
+     * Offscreen canvas used to compose layers of a chunk.
+     */
+    private val scratch = Canvas(chunkPixelWidth.toDouble(), chunkPixelHeight.toDouble())
+
+    private val snapshotParams = SnapshotParameters().apply { fill = Color.TRANSPARENT }
+
+    /**
+     * @return number of chunk images currently in memory
+     */
+    fun getResidentChunks() = chunks.size
+
+    /**
+     * Redraws visible part of the map.
+     * Chunks one ring outside the viewport are prepared in advance.
+     */
+    fun onUpdate(viewX: Double, viewY: Double) {
+        g.clearRect(0.0, 0.0, canvas.width, canvas.height)
+
+        val chunkWorldWidth = chunkPixelWidth * scaleX
+        val chunkWorldHeight = chunkPixelHeight * scaleY
+
+        val minX = Math.max((viewX / chunkWorldWidth).toInt() - 1, 0)
+        val minY = Math.max((viewY / chunkWorldHeight).toInt() - 1, 0)
+        val maxX = Math.min(((viewX + canvas.width) / chunkWorldWidth).toInt() + 1, chunksX - 1)
+        val maxY = Math.min(((viewY + canvas.height) / chunkWorldHeight).toInt() + 1, chunksY - 1)
+
+        for (cy in minY..maxY) {
+            for (cx in minX..maxX) {
+                val image = chunk(cx, cy)
+
+                val x = cx * chunkWorldWidth - viewX
+                val y = cy * chunkWorldHeight - viewY
+
+                if (x + chunkWorldWidth < 0 || y + chunkWorldHeight < 0 || x > canvas.width || y > canvas.height)
+                    continue
+
+                g.drawImage(image, x, y, chunkWorldWidth, chunkWorldHeight)
+            }
+        }
+    }
+
+    private fun chunk(cx: Int, cy: Int): Image {
+        val key = cy * chunksX + cx
+
+        return chunks[key] ?: renderChunk(cx, cy).apply { chunks[key] = this }
+    }
+
+    private fun renderChunk(cx: Int, cy: Int): Image {
+        val sg = scratch.graphicsContext2D
+        sg.clearRect(0.0, 0.0, scratch.width, scratch.height)
+
+        val startX = cx * CHUNK_TILES
+        val startY = cy * CHUNK_TILES
+        val endX = Math.min(startX + CHUNK_TILES, map.width)
+        val endY = Math.min(startY + CHUNK_TILES, map.height)
+
+        for (layer in map.layers) {
+            if (!layer.visible || MapImporter.isCollisionLayer(layer))
+                continue
+
+            sg.globalAlpha = layer.opacity
+
+            for (y in startY..endY - 1) {
+                for (x in startX..endX - 1) {
+                    val gid = layer.gid(x, y)
+                    val tileset = map.tilesetOf(gid) ?: continue
+
+                    sg.drawImage(tilesetImages[map.tilesets.indexOf(tileset)],
+                            tileset.sourceX(gid).toDouble(), tileset.sourceY(gid).toDouble(),
+                            tileset.tileWidth.toDouble(), tileset.tileHeight.toDouble(),
+                            ((x - startX) * map.tileWidth).toDouble(), ((y - startY) * map.tileHeight).toDouble(),
+                            map.tileWidth.toDouble(), map.tileHeight.toDouble())
+                }
+            }
+        }
+
+        sg.globalAlpha = 1.0
+
+        return scratch.snapshot(snapshotParams, WritableImage(chunkPixelWidth, chunkPixelHeight))
+    }
+}
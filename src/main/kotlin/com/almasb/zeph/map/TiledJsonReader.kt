@@ -0,0 +1,285 @@
+package com.almasb.zeph.map
+
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.IntBuffer
+import java.util.*
+import java.util.zip.GZIPInputStream
+import java.util.zip.InflaterInputStream
+
+/**
+ * Streaming reader for maps saved by Tiled in JSON format.
+ * Layer data is decoded directly into int arrays without building
+ * an intermediate object tree. Supports CSV-style arrays and base64 data,
+ * optionally zlib or gzip compressed.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object TiledJsonReader {
+
+    /**
+     * Tiled stores flip flags in the highest 3 bits of a gid.
+     */
+    private const val GID_MASK = 0x1FFFFFFF
+
+    private val factory = JsonFactory()
+
+    fun read(input: InputStream): TileMap {
+        factory.createParser(input).use { parser ->
+            expect(parser.nextToken(), JsonToken.START_OBJECT)
+
+            var width = 0
+            var height = 0
+            var tileWidth = 0
+            var tileHeight = 0
+            val layers = ArrayList<TileLayer>()
+            val tilesets = ArrayList<Tileset>()
+            val objectGroups = ArrayList<ObjectGroup>()
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                val field = parser.currentName
+                parser.nextToken()
+
+                when (field) {
+                    "width" -> width = parser.intValue
+                    "height" -> height = parser.intValue
+                    "tilewidth" -> tileWidth = parser.intValue
+                    "tileheight" -> tileHeight = parser.intValue
+                    "layers" -> readArray(parser) { readLayer(it, layers, objectGroups) }
+                    "tilesets" -> readArray(parser) { tilesets.add(readTileset(it)) }
+                    else -> parser.skipChildren()
+                }
+            }
+
+            return TileMap(width, height, tileWidth, tileHeight, layers, tilesets, objectGroups)
+        }
+    }
+
+    /**
+     * Reads a layer and adds it to [layers] or [objectGroups] depending on its type.
+     * Other layer types are skipped.
+     */
+    private fun readLayer(parser: JsonParser, layers: MutableList<TileLayer>, objectGroups: MutableList<ObjectGroup>) {
+        var name = ""
+        var type = "tilelayer"
+        var width = 0
+        var height = 0
+        var visible = true
+        var opacity = 1.0
+        var encoding = "csv"
+        var compression = ""
+
+        var data: IntArray? = null
+        var encodedData: String? = null
+
+        val objects = ArrayList<MapObject>()
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            val token = parser.nextToken()
+
+            when (field) {
+                "name" -> name = parser.text
+                "type" -> type = parser.text
+                "width" -> width = parser.intValue
+                "height" -> height = parser.intValue
+                "visible" -> visible = parser.booleanValue
+                "opacity" -> opacity = parser.doubleValue
+                "encoding" -> encoding = parser.text
+                "compression" -> compression = parser.text
+                "data" -> {
+                    if (token == JsonToken.START_ARRAY)
+                        data = readIntArray(parser)
+                    else
+                        encodedData = parser.text
+                }
+                "objects" -> readArray(parser) { objects.add(readObject(it)) }
+                else -> parser.skipChildren()
+            }
+        }
+
+        if (type == "objectgroup") {
+            objectGroups.add(ObjectGroup(name, objects))
+            return
+        }
+
+        if (type != "tilelayer")
+            return
+
+        val encoded = encodedData
+        if (encoded != null) {
+            if (encoding != "base64")
+                throw IllegalArgumentException("Unsupported layer encoding: $encoding")
+
+            data = decodeBase64(encoded, compression, width * height)
+        }
+
+        layers.add(TileLayer(name, width, height, IntBuffer.wrap(data ?: IntArray(width * height)), visible, opacity))
+    }
+
+    private fun readObject(parser: JsonParser): MapObject {
+        var name = ""
+        var type = ""
+        var x = 0.0
+        var y = 0.0
+        var width = 0.0
+        var height = 0.0
+        val properties = HashMap<String, String>()
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            val token = parser.nextToken()
+
+            when (field) {
+                "name" -> name = parser.text
+                "type" -> type = parser.text
+                "x" -> x = parser.doubleValue
+                "y" -> y = parser.doubleValue
+                "width" -> width = parser.doubleValue
+                "height" -> height = parser.doubleValue
+                "properties" -> {
+                    if (token == JsonToken.START_ARRAY)
+                        readArray(parser) { readProperty(it, properties) }
+                    else
+                        readPropertyMap(parser, properties)
+                }
+                else -> parser.skipChildren()
+            }
+        }
+
+        return MapObject(name, type, x, y, width, height, properties)
+    }
+
+    /**
+     * Tiled 1.0+ style: [{"name": .., "type": .., "value": ..}].
+     */
+    private fun readProperty(parser: JsonParser, properties: MutableMap<String, String>) {
+        var name = ""
+        var value = ""
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+
+            when (field) {
+                "name" -> name = parser.text
+                "value" -> value = parser.text
+                else -> parser.skipChildren()
+            }
+        }
+
+        properties[name] = value
+    }
+
+    /**
+     * Older Tiled style: {"key": value}.
+     */
+    private fun readPropertyMap(parser: JsonParser, properties: MutableMap<String, String>) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+            properties[field] = parser.text
+        }
+    }
+
+    private fun readTileset(parser: JsonParser): Tileset {
+        var firstGid = 1
+        var name = ""
+        var image = ""
+        var columns = 0
+        var tileWidth = 0
+        var tileHeight = 0
+        var margin = 0
+        var spacing = 0
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+
+            when (field) {
+                "firstgid" -> firstGid = parser.intValue
+                "name" -> name = parser.text
+                "image" -> image = imageName(parser.text)
+                "columns" -> columns = parser.intValue
+                "tilewidth" -> tileWidth = parser.intValue
+                "tileheight" -> tileHeight = parser.intValue
+                "margin" -> margin = parser.intValue
+                "spacing" -> spacing = parser.intValue
+                "source" -> throw IllegalArgumentException("External tilesets are not supported: ${parser.text}")
+                else -> parser.skipChildren()
+            }
+        }
+
+        return Tileset(firstGid, name, image, columns, tileWidth, tileHeight, margin, spacing)
+    }
+
+    /**
+     * Reads a JSON array of ints, parser must be at START_ARRAY.
+     */
+    private fun readIntArray(parser: JsonParser): IntArray {
+        var array = IntArray(1024)
+        var size = 0
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == array.size)
+                array = Arrays.copyOf(array, size * 2)
+
+            // gids are unsigned 32 bit
+            array[size++] = (parser.longValue and GID_MASK.toLong()).toInt()
+        }
+
+        return if (size == array.size) array else Arrays.copyOf(array, size)
+    }
+
+    private fun decodeBase64(encoded: String, compression: String, size: Int): IntArray {
+        val bytes = Base64.getDecoder().decode(encoded.trim())
+
+        val raw = when (compression) {
+            "" -> bytes
+            "zlib" -> InflaterInputStream(ByteArrayInputStream(bytes)).use { readFully(it, size * 4) }
+            "gzip" -> GZIPInputStream(ByteArrayInputStream(bytes)).use { readFully(it, size * 4) }
+            else -> throw IllegalArgumentException("Unsupported layer compression: $compression")
+        }
+
+        val ints = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer()
+        val data = IntArray(ints.remaining())
+        ints.get(data)
+
+        for (i in data.indices) {
+            data[i] = data[i] and GID_MASK
+        }
+
+        return data
+    }
+
+    private fun readFully(input: InputStream, length: Int): ByteArray {
+        val bytes = ByteArray(length)
+        DataInputStream(input).readFully(bytes)
+        return bytes
+    }
+
+    private inline fun readArray(parser: JsonParser, action: (JsonParser) -> Unit) {
+        expect(parser.currentToken, JsonToken.START_ARRAY)
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            action(parser)
+        }
+    }
+
+    private fun expect(actual: JsonToken?, expected: JsonToken) {
+        if (actual != expected)
+            throw IllegalArgumentException("Malformed map: expected $expected but was $actual")
+    }
+
+    /**
+     * Tiled stores image path relative to the map file as it was on the
+     * designer's machine, we only keep the file name.
+     */
+    fun imageName(path: String) = path.substring(path.lastIndexOf('/') + 1)
+}
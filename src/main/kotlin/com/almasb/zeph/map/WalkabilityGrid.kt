@@ -0,0 +1,46 @@
+package com.almasb.zeph.map
+
+/**
+ * Bit-packed walkability of map tiles, one bit per tile.
+ * A set bit means the tile is blocked.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class WalkabilityGrid(val width: Int, val height: Int) {
+
+    private val blocked = LongArray((width * height + 63) / 64)
+
+    fun isInBounds(x: Int, y: Int) = x >= 0 && y >= 0 && x < width && y < height
+
+    fun isWalkable(x: Int, y: Int) = isInBounds(x, y) && isWalkable(y * width + x)
+
+    /**
+     * @param index tile index, y * width + x
+     */
+    fun isWalkable(index: Int) = blocked[index ushr 6] and (1L shl index) == 0L
+
+    fun setWalkable(x: Int, y: Int, walkable: Boolean) {
+        val index = y * width + x
+
+        if (walkable)
+            blocked[index ushr 6] = blocked[index ushr 6] and (1L shl index).inv()
+        else
+            blocked[index ushr 6] = blocked[index ushr 6] or (1L shl index)
+    }
+
+    /**
+     * Marks all tiles within the rectangle (in tiles) as blocked.
+     */
+    fun block(minX: Int, minY: Int, maxX: Int, maxY: Int) {
+        for (y in Math.max(minY, 0)..Math.min(maxY, height - 1)) {
+            for (x in Math.max(minX, 0)..Math.min(maxX, width - 1)) {
+                setWalkable(x, y, false)
+            }
+        }
+    }
+
+    /**
+     * @return size of walkability data in bytes
+     */
+    fun sizeInBytes() = blocked.size * 8
+}
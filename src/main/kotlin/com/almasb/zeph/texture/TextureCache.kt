@@ -0,0 +1,121 @@
+package com.almasb.zeph.texture
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.texture.Texture
+import javafx.geometry.Rectangle2D
+import javafx.scene.image.Image
+import java.util.*
+
+/**
+ * Hands out textures that share decoded images.
+ * Small textures are served as viewports onto atlas pages produced by
+ * [com.almasb.zeph.tools.AtlasPacker] at build time, everything else
+ * (e.g. character sprite sheets) is decoded once and cached by name.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object TextureCache {
+
+    private const val ATLAS_DIR = "atlas/"
+    private const val ATLAS_INDEX = "/assets/textures/atlas/atlas.txt"
+
+    private class Region(val page: Int, val viewport: Rectangle2D)
+
+    private val regions = HashMap<String, Region>()
+    private val pages: Array<Image?>
+
+    private val images = HashMap<String, Image>()
+
+    init {
+        var numPages = 0
+
+        javaClass.getResourceAsStream(ATLAS_INDEX)?.bufferedReader()?.useLines { lines ->
+            lines.filter { it.isNotBlank() }.forEach { line ->
+                val tokens = line.split(" ", limit = 6)
+
+                val page = tokens[0].toInt()
+                regions[tokens[5]] = Region(page, Rectangle2D(tokens[1].toDouble(), tokens[2].toDouble(),
+                        tokens[3].toDouble(), tokens[4].toDouble()))
+
+                numPages = Math.max(numPages, page + 1)
+            }
+        }
+
+        pages = arrayOfNulls(numPages)
+    }
+
+    /**
+     * @return new texture view of [name], backed by a shared image
+     */
+    fun texture(name: String): Texture {
+        val region = regions[name]
+
+        if (region != null) {
+            val texture = Texture(page(region.page))
+            texture.viewport = region.viewport
+            return texture
+        }
+
+        return Texture(image(name))
+    }
+
+    /**
+     * Use this when the whole image is required, e.g. sprite sheets
+     * for animated textures. Atlas is not used for these.
+     *
+     * @return shared image of [name]
+     */
+    fun image(name: String): Image {
+        return images.getOrPut(name) { FXGL.getAssetLoader().loadTexture(name).image }
+    }
+
+    /**
+     * For drawing onto a canvas, use together with [viewport].
+     *
+     * @return atlas page containing [name], or the standalone image if not packed
+     */
+    fun sourceImage(name: String): Image {
+        val region = regions[name]
+
+        return if (region != null) page(region.page) else image(name)
+    }
+
+    /**
+     * @return area of [sourceImage] occupied by [name]
+     */
+    fun viewport(name: String): Rectangle2D {
+        val region = regions[name]
+
+        if (region != null)
+            return region.viewport
+
+        val image = image(name)
+        return Rectangle2D(0.0, 0.0, image.width, image.height)
+    }
+
+    /**
+     * @return true if [name] is packed in the atlas
+     */
+    fun isInAtlas(name: String) = regions.containsKey(name)
+
+    /**
+     * @return number of atlas pages currently decoded and held in memory
+     */
+    fun getResidentPages() = pages.count { it != null }
+
+    /**
+     * @return number of standalone images currently held in memory
+     */
+    fun getCachedImages() = images.size
+
+    private fun page(index: Int): Image {
+        var page = pages[index]
+
+        if (page == null) {
+            page = FXGL.getAssetLoader().loadTexture("${ATLAS_DIR}page_$index.png").image
+            pages[index] = page
+        }
+
+        return page!!
+    }
+}
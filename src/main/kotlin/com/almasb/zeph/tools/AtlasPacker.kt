@@ -0,0 +1,128 @@
+package com.almasb.zeph.tools
+
+import java.awt.image.BufferedImage
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.*
+import javax.imageio.ImageIO
+
+/**
+ * Build-time tool that packs small textures under assets/textures into
+ * a few atlas pages, so that item icons, skill icons, effects and projectiles
+ * share a handful of images at runtime.
+ *
+ * Output is a set of "page_N.png" files and "atlas.txt" index with lines
+ * "page x y width height name", where name is relative to textures directory.
+ *
+ * Usage: AtlasPacker <textures dir> <output dir>
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object AtlasPacker {
+
+    const val PAGE_SIZE = 2048
+
+    /**
+     * Textures larger than this in either dimension (sprite sheets, backgrounds)
+     * are not packed and are loaded as standalone images.
+     */
+    const val MAX_SPRITE_SIZE = 512
+
+    /**
+     * Gap between sprites to avoid bleeding when scaled.
+     */
+    private const val PADDING = 1
+
+    @JvmStatic fun main(args: Array<String>) {
+        if (args.size != 2) {
+            System.err.println("Usage: AtlasPacker <textures dir> <output dir>")
+            System.exit(1)
+        }
+
+        val pages = pack(Paths.get(args[0]), Paths.get(args[1]))
+
+        println("AtlasPacker: packed into $pages page(s)")
+    }
+
+    /**
+     * @return number of pages written
+     */
+    fun pack(texturesDir: Path, outputDir: Path): Int {
+        val sprites = ArrayList<Sprite>()
+
+        Files.walk(texturesDir)
+                .filter { it.toString().endsWith(".png") && !it.startsWith(outputDir) }
+                .sorted()
+                .forEach {
+                    val image = ImageIO.read(it.toFile())
+
+                    if (image.width <= MAX_SPRITE_SIZE && image.height <= MAX_SPRITE_SIZE) {
+                        val name = texturesDir.relativize(it).toString().replace(File.separatorChar, '/')
+                        sprites.add(Sprite(name, image))
+                    }
+                }
+
+        // tallest first gives tighter shelves
+        sprites.sortWith(Comparator { s1, s2 -> s2.image.height - s1.image.height })
+
+        val pages = ArrayList<BufferedImage>()
+        var page = BufferedImage(PAGE_SIZE, PAGE_SIZE, BufferedImage.TYPE_INT_ARGB)
+        pages.add(page)
+
+        var x = 0
+        var y = 0
+        var shelfHeight = 0
+
+        for (sprite in sprites) {
+            val w = sprite.image.width + PADDING
+            val h = sprite.image.height + PADDING
+
+            if (x + w > PAGE_SIZE) {
+                x = 0
+                y += shelfHeight
+                shelfHeight = 0
+            }
+
+            if (y + h > PAGE_SIZE) {
+                page = BufferedImage(PAGE_SIZE, PAGE_SIZE, BufferedImage.TYPE_INT_ARGB)
+                pages.add(page)
+
+                x = 0
+                y = 0
+                shelfHeight = 0
+            }
+
+            page.createGraphics().run {
+                drawImage(sprite.image, x, y, null)
+                dispose()
+            }
+
+            sprite.page = pages.size - 1
+            sprite.x = x
+            sprite.y = y
+
+            x += w
+            shelfHeight = Math.max(shelfHeight, h)
+        }
+
+        Files.createDirectories(outputDir)
+
+        pages.forEachIndexed { i, image ->
+            ImageIO.write(image, "png", outputDir.resolve("page_$i.png").toFile())
+        }
+
+        Files.write(outputDir.resolve("atlas.txt"), sprites.map {
+            "${it.page} ${it.x} ${it.y} ${it.image.width} ${it.image.height} ${it.name}"
+        })
+
+        return pages.size
+    }
+
+    private class Sprite(val name: String, val image: BufferedImage) {
+        var page = 0
+        var x = 0
+        var y = 0
+    }
+}
@@ -0,0 +1,130 @@
+package com.almasb.zeph.tools
+
+import com.almasb.zeph.entity.CatalogScanner
+import com.almasb.zeph.entity.DescriptionComponent
+import com.almasb.zeph.entity.item.component.EquippableComponent
+import com.almasb.zeph.entity.item.component.MiscDataComponent
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.*
+
+/**
+ * Build-time tool that validates IDs of everything defined in Data and generates:
+ *
+ * 1. GeneratedCatalogIndex.java, registering every factory with the catalog
+ * without reflection, plus its META-INF/services entry.
+ * 2. assets/data/catalog.tsv with id, name, texture name and price of every entry.
+ *
+ * Duplicate IDs and IDs outside their category range fail the build.
+ *
+ * Usage: CatalogCompiler <generated sources dir> <classes dir>
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object CatalogCompiler {
+
+    private const val PACKAGE = "com.almasb.zeph.entity"
+    private const val INDEX_CLASS = "GeneratedCatalogIndex"
+
+    @JvmStatic fun main(args: Array<String>) {
+        if (args.size != 2) {
+            System.err.println("Usage: CatalogCompiler <generated sources dir> <classes dir>")
+            System.exit(1)
+        }
+
+        val entries = CatalogScanner.scan()
+
+        val errors = validate(entries)
+        if (errors.isNotEmpty()) {
+            errors.forEach { System.err.println("CatalogCompiler: $it") }
+            throw IllegalStateException("Catalog validation failed with ${errors.size} error(s)")
+        }
+
+        val sourcesDir = Paths.get(args[0])
+        val classesDir = Paths.get(args[1])
+
+        writeIndex(entries, sourcesDir.resolve(PACKAGE.replace('.', '/')).resolve("$INDEX_CLASS.java"))
+        writeServiceEntry(classesDir.resolve("META-INF/services/$PACKAGE.CatalogIndex"))
+        writeMetadata(entries, classesDir.resolve("assets/data/catalog.tsv"))
+
+        println("CatalogCompiler: ${entries.size} entries")
+    }
+
+    private fun validate(entries: List<CatalogScanner.Entry>): List<String> {
+        val errors = ArrayList<String>()
+        val seen = HashMap<Int, CatalogScanner.Entry>()
+
+        entries.forEach {
+            val other = seen[it.id]
+            if (other != null) {
+                errors.add("Duplicate ID ${it.id}: $other and $it")
+            } else {
+                seen[it.id] = it
+            }
+
+            if (!it.category.isInRange(it.id))
+                errors.add("ID ${it.id} of $it is outside of ${it.category} range")
+        }
+
+        return errors
+    }
+
+    private fun writeIndex(entries: List<CatalogScanner.Entry>, file: Path) {
+        val lines = ArrayList<String>()
+
+        lines.add("package $PACKAGE;")
+        lines.add("")
+        lines.add("/**")
+        lines.add(" * Generated by CatalogCompiler, do not edit.")
+        lines.add(" */")
+        lines.add("public final class $INDEX_CLASS implements CatalogIndex {")
+        lines.add("")
+        lines.add("    @Override")
+        lines.add("    public void register(Catalog catalog) {")
+
+        entries.sortedBy { it.id }.forEach {
+            val range = when (it.category) {
+                CatalogScanner.Category.CHARACTER -> "getCharacters()"
+                CatalogScanner.Category.WEAPON -> "getWeapons()"
+                CatalogScanner.Category.ARMOR -> "getArmor()"
+                CatalogScanner.Category.MISC -> "getMisc()"
+
+                // skills are validated but not built from templates
+                CatalogScanner.Category.SKILL -> null
+            }
+
+            if (range != null)
+                lines.add("        catalog.$range.register(${it.id}, () -> ${it.toJavaCall()});")
+        }
+
+        lines.add("    }")
+        lines.add("}")
+
+        Files.createDirectories(file.parent)
+        Files.write(file, lines, Charsets.UTF_8)
+    }
+
+    private fun writeServiceEntry(file: Path) {
+        Files.createDirectories(file.parent)
+        Files.write(file, listOf("$PACKAGE.$INDEX_CLASS"), Charsets.UTF_8)
+    }
+
+    private fun writeMetadata(entries: List<CatalogScanner.Entry>, file: Path) {
+        val lines = ArrayList<String>()
+        lines.add("id\tname\ttexture\tprice")
+
+        entries.sortedBy { it.id }.forEach {
+            val components = it.create()
+            val desc = components[0] as DescriptionComponent
+            val price = components.filterIsInstance<EquippableComponent>().firstOrNull()?.price
+                    ?: components.filterIsInstance<MiscDataComponent>().firstOrNull()?.price
+                    ?: 0
+
+            lines.add("${it.id}\t${desc.name.value}\t${desc.textureName.value}\t$price")
+        }
+
+        Files.createDirectories(file.parent)
+        Files.write(file, lines, Charsets.UTF_8)
+    }
+}
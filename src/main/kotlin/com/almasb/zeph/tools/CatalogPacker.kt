@@ -0,0 +1,82 @@
+package com.almasb.zeph.tools
+
+import com.almasb.fxgl.ecs.Component
+import com.almasb.zeph.entity.BinaryCatalog
+import com.almasb.zeph.entity.CatalogScanner
+import com.almasb.zeph.entity.DefinitionJsonReader
+import com.almasb.zeph.entity.DescriptionComponent
+import java.io.InputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.*
+
+/**
+ * Build-time tool that reads weapon, armor and monster definitions from JSON
+ * and packs them into a memory-mappable [BinaryCatalog].
+ *
+ * Expects weapons.json, armor.json and monsters.json in the input directory, missing files are skipped.
+ * Fails if an ID is duplicated, clashes with an ID defined in Data or is outside its category range.
+ *
+ * Usage: CatalogPacker <definitions dir> <output.zcat>
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object CatalogPacker {
+
+    @JvmStatic fun main(args: Array<String>) {
+        if (args.size != 2) {
+            System.err.println("Usage: CatalogPacker <definitions dir> <output.zcat>")
+            System.exit(1)
+        }
+
+        val input = Paths.get(args[0])
+        val output = Paths.get(args[1])
+
+        val definitions = ArrayList<List<Component>>()
+        val errors = ArrayList<String>()
+
+        read(input.resolve("weapons.json"), CatalogScanner.Category.WEAPON, definitions, errors) { DefinitionJsonReader.readWeapons(it) }
+        read(input.resolve("armor.json"), CatalogScanner.Category.ARMOR, definitions, errors) { DefinitionJsonReader.readArmor(it) }
+        read(input.resolve("monsters.json"), CatalogScanner.Category.CHARACTER, definitions, errors) { DefinitionJsonReader.readMonsters(it) }
+
+        val builtIn = CatalogScanner.scan().map { it.id }.toSet()
+        val seen = HashSet<Int>()
+
+        definitions.forEach {
+            val id = (it[0] as DescriptionComponent).id.value
+
+            if (!seen.add(id))
+                errors.add("Duplicate ID $id")
+
+            if (id in builtIn)
+                errors.add("ID $id is already defined in Data")
+        }
+
+        if (errors.isNotEmpty()) {
+            errors.forEach { System.err.println("CatalogPacker: $it") }
+            throw IllegalStateException("Catalog packing failed with ${errors.size} error(s)")
+        }
+
+        output.parent?.let { Files.createDirectories(it) }
+        BinaryCatalog.write(definitions, output)
+
+        println("CatalogPacker: ${definitions.size} definitions -> $output (${Files.size(output)} bytes)")
+    }
+
+    private inline fun read(file: Path, category: CatalogScanner.Category,
+                            definitions: MutableList<List<Component>>, errors: MutableList<String>,
+                            reader: (InputStream) -> List<List<Component>>) {
+        if (!Files.exists(file))
+            return
+
+        Files.newInputStream(file).use { reader(it) }.forEach {
+            val id = (it[0] as DescriptionComponent).id.value
+
+            if (!category.isInRange(id))
+                errors.add("${file.fileName}: ID $id is outside of $category range")
+
+            definitions.add(it)
+        }
+    }
+}
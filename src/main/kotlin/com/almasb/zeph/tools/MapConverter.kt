@@ -0,0 +1,33 @@
+package com.almasb.zeph.tools
+
+import com.almasb.zeph.map.BinaryMapFormat
+import com.almasb.zeph.map.TiledJsonReader
+import java.nio.file.Files
+import java.nio.file.Paths
+
+/**
+ * Offline tool that converts a Tiled JSON map into the binary map format.
+ *
+ * Usage: MapConverter <map.json> <output.zmap>
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object MapConverter {
+
+    @JvmStatic fun main(args: Array<String>) {
+        if (args.size != 2) {
+            System.err.println("Usage: MapConverter <map.json> <output.zmap>")
+            System.exit(1)
+        }
+
+        val input = Paths.get(args[0])
+        val output = Paths.get(args[1])
+
+        val map = Files.newInputStream(input).use { TiledJsonReader.read(it) }
+
+        output.parent?.let { Files.createDirectories(it) }
+        BinaryMapFormat.write(map, output)
+
+        println("MapConverter: $input -> $output (${Files.size(input)} -> ${Files.size(output)} bytes)")
+    }
+}
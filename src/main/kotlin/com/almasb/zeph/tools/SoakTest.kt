@@ -0,0 +1,271 @@
+package com.almasb.zeph.tools
+
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.GameWorld
+import com.almasb.fxgl.entity.Entities
+import com.almasb.fxgl.entity.component.CollidableComponent
+import com.almasb.zeph.Config
+import com.almasb.zeph.entity.DisposalScope
+import com.almasb.zeph.entity.EntityManager
+import com.almasb.zeph.entity.EntityType
+import com.almasb.zeph.entity.character.CharacterEntity
+import com.almasb.zeph.entity.character.PlayerEntity
+import com.almasb.zeph.map.MapImporter
+import com.almasb.zeph.map.MapLoader
+import com.almasb.zeph.world.*
+import java.lang.management.ManagementFactory
+import java.lang.ref.WeakReference
+import java.util.*
+
+/**
+ * Headless soak test of the simulation layer, runs in a plain JVM without a display.
+ *
+ * Drives the same [Simulation] as the game, i.e. region activation, spawning,
+ * kills, loot and pooling, with scripted combat for hours of game time
+ * at a fixed step and as fast as possible.
+ * At intervals it samples heap after GC, reachable characters, listener registrations
+ * and ground loot drops, then fits a trend to each series after a warm-up and fails
+ * if any grows faster than its threshold.
+ *
+ * Usage: SoakTest [game hours] [map name]
+ *
+ * Exits with 1 if a trend exceeds its threshold.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object SoakTest {
+
+    private const val TPF = 1 / 60.0
+
+    private const val SAMPLE_INTERVAL = 5 * 60.0
+
+    /**
+     * Player moves to another spawn point this often, so regions are activated and deactivated.
+     */
+    private const val TRAVEL_INTERVAL = 3 * 60.0
+
+    /**
+     * Part of samples ignored for trends, while pools and caches fill up.
+     */
+    private const val WARM_UP = 0.25
+
+    /**
+     * Max growth per game hour of each sampled series.
+     */
+    private val thresholds = linkedMapOf(
+            "heapMB" to 4.0,
+            "characters" to 2.0,
+            "registrations" to 10.0,
+            "drops" to 20.0
+    )
+
+    private val world = GameWorld()
+    private val pool = CharacterPool(16)
+    private val random = Random(42)
+
+    /**
+     * Every character ever created, to count the ones still reachable.
+     */
+    private val created = ArrayList<WeakReference<CharacterEntity>>()
+
+    private lateinit var simulation: Simulation
+
+    private var time = 0.0
+    private var kills = 0
+
+    @JvmStatic fun main(args: Array<String>) {
+        System.setProperty("java.awt.headless", "true")
+
+        // must be set before Config is first accessed
+        System.setProperty("zeph.debugLeaks", "true")
+
+        val hours = if (args.size > 0) args[0].toDouble() else 4.0
+        val mapName = if (args.size > 1) args[1] else "sample_map"
+
+        val level = MapImporter.importLevel(MapLoader.load(mapName))
+        val regions = RegionManager(level, Host(), 16, 1)
+        val points = SpawnManager.spawnPointsOf(level)
+        val spawns = SpawnManager(regions, level.walkability, points, random, 5.0)
+        val groundLoot = GroundLoot(level.width * Config.tileSize.toDouble(), level.height * Config.tileSize.toDouble(), 256.0, 120.0, 32.0)
+
+        simulation = Simulation(regions, spawns, groundLoot, pool, SplittableRandom(42))
+
+        val player = PlayerEntity("Soak", "chars/players/player_full.png")
+        player.typeComponent.value = EntityType.PLAYER
+        world.addEntity(player)
+
+        spawns.populate()
+
+        val samples = ArrayList<DoubleArray>()
+        val duration = hours * 3600
+
+        var target: CharacterEntity? = null
+        var nextSample = 0.0
+        var nextTravel = 0.0
+
+        println("SoakTest: $mapName, ${points.size} spawn point(s), $hours game hour(s)")
+
+        val start = System.nanoTime()
+
+        while (time < duration) {
+            if (time >= nextTravel) {
+                val point = points[random.nextInt(points.size)]
+                player.positionComponent.setValue(point.minX * Config.tileSize.toDouble(), point.minY * Config.tileSize.toDouble())
+                target = null
+                nextTravel += TRAVEL_INTERVAL
+            }
+
+            simulation.onUpdate(TPF, player.getTileX(), player.getTileY())
+            world.onUpdate(TPF)
+
+            val t = target
+            if (t == null || t.hp.isZero || t.isParked) {
+                target = pickTarget(regions)
+            } else if (player.charConrol.canAttack()) {
+                player.charConrol.attack(t)
+                player.charConrol.resetAtkTick()
+
+                if (t.hp.isZero) {
+                    simulation.onKilled(player, t)
+                    kills++
+                    target = null
+                }
+            }
+
+            // the player is not attacked back, keep it alive through status effects
+            player.hp.restorePercentageMax(100.0)
+
+            time += TPF
+
+            if (time >= nextSample) {
+                samples.add(sample())
+                nextSample += SAMPLE_INTERVAL
+            }
+        }
+
+        println("SoakTest: $kills kills in ${(System.nanoTime() - start) / 1000000000} s")
+
+        val failures = checkTrends(samples)
+        failures.forEach { System.err.println("SoakTest: $it") }
+        DisposalScope.reportLeaks().forEach { System.err.println("SoakTest: $it") }
+
+        System.exit(if (failures.isEmpty()) 0 else 1)
+    }
+
+    private fun pickTarget(regions: RegionManager): CharacterEntity? {
+        val candidates = regions.getActiveRegions()
+                .flatMap { it.characters }
+                .filter { !it.hp.isZero && !it.isParked }
+
+        return if (candidates.isEmpty()) null else candidates[random.nextInt(candidates.size)]
+    }
+
+    /**
+     * @return game hours, heap MB, reachable characters, live listener registrations, ground loot drops
+     */
+    private fun sample(): DoubleArray {
+        // two passes, so objects with finalizers or behind weak references are collected
+        System.gc()
+        System.gc()
+
+        val heap = ManagementFactory.getMemoryMXBean().heapMemoryUsage.used / (1024.0 * 1024.0)
+
+        created.removeAll { it.get() == null }
+
+        val registrations = DisposalScope.liveRegistrations()
+        val drops = simulation.groundLoot.size
+
+        println(String.format("SoakTest: %6.2f h  heap %8.2f MB  characters %5d  registrations %6d  drops %5d  pooled %3d",
+                time / 3600, heap, created.size, registrations, drops, pool.size()))
+
+        return doubleArrayOf(time / 3600, heap, created.size.toDouble(), registrations.toDouble(), drops.toDouble())
+    }
+
+    /**
+     * Fits a least squares line to each series after warm-up.
+     *
+     * @return one line per series that grows faster than its threshold
+     */
+    private fun checkTrends(samples: List<DoubleArray>): List<String> {
+        val from = (samples.size * WARM_UP).toInt()
+
+        if (samples.size - from < 3)
+            return listOf("Not enough samples for trends: ${samples.size}, run for longer")
+
+        val failures = ArrayList<String>()
+
+        thresholds.entries.forEachIndexed { index, entry ->
+            val slope = slope(samples, from, index + 1)
+
+            println(String.format("SoakTest: %-13s %+10.3f / h (max %.3f)", entry.key, slope, entry.value))
+
+            if (slope > entry.value)
+                failures.add(String.format("%s grows by %.3f per game hour, max is %.3f", entry.key, slope, entry.value))
+        }
+
+        return failures
+    }
+
+    private fun slope(samples: List<DoubleArray>, from: Int, column: Int): Double {
+        val n = samples.size - from
+
+        var meanX = 0.0
+        var meanY = 0.0
+
+        for (i in from..samples.size - 1) {
+            meanX += samples[i][0]
+            meanY += samples[i][column]
+        }
+
+        meanX /= n
+        meanY /= n
+
+        var covariance = 0.0
+        var variance = 0.0
+
+        for (i in from..samples.size - 1) {
+            val dx = samples[i][0] - meanX
+            covariance += dx * (samples[i][column] - meanY)
+            variance += dx * dx
+        }
+
+        return if (variance == 0.0) 0.0 else covariance / variance
+    }
+
+    /**
+     * Same as the game host, but characters have no sprite.
+     */
+    private class Host : RegionManager.Host {
+
+        override fun spawnCharacter(archetypeID: Int, tileX: Int, tileY: Int, hp: Double): CharacterEntity {
+            val pooled = pool.obtain(archetypeID, tileX, tileY, hp)
+            if (pooled != null)
+                return pooled
+
+            val character = EntityManager.createCharacter(EntityManager.getCharacterDescription(archetypeID), tileX, tileY)
+
+            if (hp >= 0)
+                character.hp.value = hp
+
+            character.addComponent(CollidableComponent(true))
+            world.addEntity(character)
+
+            created.add(WeakReference(character))
+            return character
+        }
+
+        override fun despawnCharacter(character: CharacterEntity) {
+            simulation.release(character)
+        }
+
+        override fun spawnStatic(obj: StaticObject): Entity {
+            return Entities.builder()
+                    .at(obj.tileX * Config.tileSize.toDouble(), obj.tileY * Config.tileSize + obj.offsetY)
+                    .buildAndAttach(world)
+        }
+
+        override fun despawnStatic(entity: Entity) {
+            entity.removeFromWorld()
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.almasb.zeph.world
+
+import com.almasb.fxgl.entity.component.CollidableComponent
+import com.almasb.zeph.Config
+import com.almasb.zeph.entity.character.CharacterEntity
+import javafx.geometry.Point2D
+import java.util.*
+
+/**
+ * Parked characters per archetype, reused instead of building a new
+ * character with its components, bindings and view.
+ *
+ * Parked characters are never removed from the game world, since a removed
+ * entity is cleaned by the world and cannot be added again.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class CharacterPool(val maxPerArchetype: Int = 16) {
+
+    private val pools = HashMap<Int, ArrayDeque<CharacterEntity>>()
+
+    /**
+     * @return number of parked characters of all archetypes
+     */
+    fun size() = pools.values.sumBy { it.size }
+
+    /**
+     * Hides and disables [character] and keeps it for reuse.
+     *
+     * @return false if the pool of its archetype is full, the caller should remove the character instead
+     */
+    fun park(character: CharacterEntity): Boolean {
+        val pool = pools.getOrPut(character.getID()) { ArrayDeque() }
+
+        if (pool.size >= maxPerArchetype)
+            return false
+
+        character.isParked = true
+        character.setControlsEnabled(false)
+        character.viewComponent.view.isVisible = false
+        character.getComponentUnsafe(CollidableComponent::class.java).value = false
+
+        pool.addLast(character)
+        return true
+    }
+
+    /**
+     * Takes a parked character of given archetype, resets and places it at given tile.
+     *
+     * @param hp starting hp, negative means full
+     * @return the character or null if none is parked
+     */
+    fun obtain(archetypeID: Int, tileX: Int, tileY: Int, hp: Double): CharacterEntity? {
+        val character = pools[archetypeID]?.pollFirst() ?: return null
+
+        character.charConrol.reset()
+
+        if (hp >= 0)
+            character.hp.value = hp
+
+        character.positionComponent.value = Point2D(tileX * Config.tileSize.toDouble(), tileY * Config.tileSize.toDouble())
+        character.spawnTag = -1
+
+        character.getComponentUnsafe(CollidableComponent::class.java).value = true
+        character.viewComponent.view.isVisible = true
+        character.setControlsEnabled(true)
+        character.isParked = false
+        character.isKilled = false
+
+        return character
+    }
+}
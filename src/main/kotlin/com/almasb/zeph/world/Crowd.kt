@@ -0,0 +1,248 @@
+package com.almasb.zeph.world
+
+import com.almasb.zeph.Config
+import com.almasb.zeph.combat.Stat
+import com.almasb.zeph.entity.Catalog
+import com.almasb.zeph.entity.character.StatTemplate
+import com.almasb.zeph.entity.character.component.CharacterDataComponent
+import com.almasb.zeph.map.WalkabilityGrid
+import java.util.*
+
+/**
+ * Ambient monsters kept as columns of primitives instead of [com.almasb.zeph.entity.character.CharacterEntity].
+ * A member costs [BYTES_PER_MEMBER] bytes, has no components, properties or scene graph node,
+ * and runs a simple wander AI. It is promoted to a full character when the player
+ * selects it, see [remove].
+ *
+ * Members are addressed by index. Indices are dense, removing a member moves the last one into its place.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class Crowd(private val grid: WalkabilityGrid, private val random: SplittableRandom) {
+
+    companion object {
+        const val STATE_IDLE: Byte = 0
+        const val STATE_WALK: Byte = 1
+
+        /**
+         * Facing, same order as walk rows of the sprite sheet.
+         */
+        const val FACING_UP: Byte = 0
+        const val FACING_LEFT: Byte = 1
+        const val FACING_DOWN: Byte = 2
+        const val FACING_RIGHT: Byte = 3
+
+        /**
+         * Pixels per second, matches [com.almasb.zeph.entity.ai.MovementControl] at 60 fps.
+         */
+        private const val SPEED = 120f
+
+        private const val WANDER_RADIUS = 3
+        private const val MIN_IDLE_TIME = 2f
+        private const val MAX_IDLE_TIME = 5f
+
+        /**
+         * 7 floats, 2 ints, 2 shorts, 2 bytes.
+         */
+        const val BYTES_PER_MEMBER = 7 * 4 + 2 * 4 + 2 * 2 + 2
+    }
+
+    private val tileSize = Config.tileSize
+
+    private var x = FloatArray(256)
+    private var y = FloatArray(256)
+    private var hp = FloatArray(256)
+    private var maxHp = FloatArray(256)
+    private var sp = FloatArray(256)
+    private var atkTick = FloatArray(256)
+    private var aiTimer = FloatArray(256)
+
+    private var archetypeID = IntArray(256)
+    private var level = IntArray(256)
+
+    private var targetX = ShortArray(256)
+    private var targetY = ShortArray(256)
+
+    private var state = ByteArray(256)
+    private var facing = ByteArray(256)
+
+    var size = 0
+        private set
+
+    fun getX(index: Int) = x[index]
+    fun getY(index: Int) = y[index]
+    fun getHp(index: Int) = hp[index]
+    fun getMaxHp(index: Int) = maxHp[index]
+    fun getSp(index: Int) = sp[index]
+    fun getArchetypeID(index: Int) = archetypeID[index]
+    fun getLevel(index: Int) = level[index]
+    fun getState(index: Int) = state[index]
+    fun getFacing(index: Int) = facing[index]
+
+    fun getTileX(index: Int) = x[index].toInt() / tileSize
+    fun getTileY(index: Int) = y[index].toInt() / tileSize
+
+    /**
+     * @return index of the new member
+     */
+    fun add(archetypeID: Int, tileX: Int, tileY: Int): Int {
+        if (size == x.size)
+            grow()
+
+        val data = Catalog.characters.template(archetypeID).first { it is CharacterDataComponent } as CharacterDataComponent
+
+        val i = size++
+
+        x[i] = (tileX * tileSize).toFloat()
+        y[i] = (tileY * tileSize).toFloat()
+        val stats = StatTemplate.of(archetypeID)
+
+        maxHp[i] = stats.getStat(Stat.MAX_HP).toInt().toFloat()
+        hp[i] = maxHp[i]
+        sp[i] = stats.getStat(Stat.MAX_SP).toInt().toFloat()
+        atkTick[i] = 0f
+        aiTimer[i] = nextIdleTime()
+
+        this.archetypeID[i] = archetypeID
+        level[i] = data.baseLevel
+
+        targetX[i] = tileX.toShort()
+        targetY[i] = tileY.toShort()
+
+        state[i] = STATE_IDLE
+        facing[i] = FACING_RIGHT
+
+        return i
+    }
+
+    /**
+     * Removes a member, e.g. after it was promoted to a full character.
+     * The last member takes its index.
+     */
+    fun remove(index: Int) {
+        val last = --size
+
+        if (index != last) {
+            x[index] = x[last]
+            y[index] = y[last]
+            hp[index] = hp[last]
+            maxHp[index] = maxHp[last]
+            sp[index] = sp[last]
+            atkTick[index] = atkTick[last]
+            aiTimer[index] = aiTimer[last]
+            archetypeID[index] = archetypeID[last]
+            level[index] = level[last]
+            targetX[index] = targetX[last]
+            targetY[index] = targetY[last]
+            state[index] = state[last]
+            facing[index] = facing[last]
+        }
+    }
+
+    /**
+     * @return index of the topmost member whose tile-sized box contains world point, or -1
+     */
+    fun pick(worldX: Double, worldY: Double): Int {
+        for (i in size - 1 downTo 0) {
+            if (worldX >= x[i] && worldX < x[i] + tileSize && worldY >= y[i] && worldY < y[i] + tileSize)
+                return i
+        }
+
+        return -1
+    }
+
+    fun onUpdate(tpf: Double) {
+        val dt = tpf.toFloat()
+        val step = SPEED * dt
+
+        for (i in 0..size - 1) {
+            atkTick[i] += dt
+
+            if (state[i] == STATE_IDLE) {
+                aiTimer[i] -= dt
+
+                if (aiTimer[i] <= 0)
+                    chooseTarget(i)
+            } else {
+                walk(i, step)
+            }
+        }
+    }
+
+    private fun chooseTarget(i: Int) {
+        val tx = getTileX(i) + random.nextInt(-WANDER_RADIUS, WANDER_RADIUS + 1)
+        val ty = getTileY(i) + random.nextInt(-WANDER_RADIUS, WANDER_RADIUS + 1)
+
+        // one try per idle period, no pathfinding, the L-shaped walk must be clear
+        if (isClear(getTileX(i), getTileY(i), tx, ty)) {
+            targetX[i] = tx.toShort()
+            targetY[i] = ty.toShort()
+            state[i] = STATE_WALK
+        } else {
+            aiTimer[i] = nextIdleTime()
+        }
+    }
+
+    private fun isClear(fromX: Int, fromY: Int, toX: Int, toY: Int): Boolean {
+        val stepX = Integer.signum(toX - fromX)
+        val stepY = Integer.signum(toY - fromY)
+
+        var cx = fromX
+        while (cx != toX) {
+            cx += stepX
+            if (!grid.isWalkable(cx, fromY))
+                return false
+        }
+
+        var cy = fromY
+        while (cy != toY) {
+            cy += stepY
+            if (!grid.isWalkable(toX, cy))
+                return false
+        }
+
+        return true
+    }
+
+    /**
+     * Moves along x first, then y, like [com.almasb.zeph.entity.ai.MovementControl].
+     */
+    private fun walk(i: Int, step: Float) {
+        val goalX = (targetX[i] * tileSize).toFloat()
+        val goalY = (targetY[i] * tileSize).toFloat()
+
+        val dx = goalX - x[i]
+        val dy = goalY - y[i]
+
+        if (dx != 0f) {
+            x[i] += Math.signum(dx) * Math.min(step, Math.abs(dx))
+            facing[i] = if (dx > 0) FACING_RIGHT else FACING_LEFT
+        } else if (dy != 0f) {
+            y[i] += Math.signum(dy) * Math.min(step, Math.abs(dy))
+            facing[i] = if (dy > 0) FACING_DOWN else FACING_UP
+        } else {
+            state[i] = STATE_IDLE
+            aiTimer[i] = nextIdleTime()
+        }
+    }
+
+    private fun nextIdleTime() = MIN_IDLE_TIME + random.nextDouble().toFloat() * (MAX_IDLE_TIME - MIN_IDLE_TIME)
+
+    private fun grow() {
+        val n = x.size * 2
+
+        x = Arrays.copyOf(x, n)
+        y = Arrays.copyOf(y, n)
+        hp = Arrays.copyOf(hp, n)
+        maxHp = Arrays.copyOf(maxHp, n)
+        sp = Arrays.copyOf(sp, n)
+        atkTick = Arrays.copyOf(atkTick, n)
+        aiTimer = Arrays.copyOf(aiTimer, n)
+        archetypeID = Arrays.copyOf(archetypeID, n)
+        level = Arrays.copyOf(level, n)
+        targetX = Arrays.copyOf(targetX, n)
+        targetY = Arrays.copyOf(targetY, n)
+        state = Arrays.copyOf(state, n)
+        facing = Arrays.copyOf(facing, n)
+    }
+}
@@ -0,0 +1,242 @@
+package com.almasb.zeph.world
+
+import java.util.*
+
+/**
+ * Items lying on the ground, stored as (item ID, count) records.
+ * No item entity or scene graph node exists until a drop is picked up.
+ *
+ * Drops are kept in square buckets of [bucketSize] pixels, so merging,
+ * pickup and rendering only look at buckets overlapping the query area.
+ * Dropping an item next to a drop with the same ID adds to its count.
+ * Drops expire [lifetime] seconds after they last changed.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class GroundLoot(worldWidth: Double, worldHeight: Double,
+                 val bucketSize: Double = 256.0,
+                 val lifetime: Double = 120.0,
+                 val mergeRadius: Double = 32.0) {
+
+    /**
+     * Decides whether a drop is taken, e.g. whether the inventory has room.
+     */
+    interface Picker {
+        fun pick(itemID: Int, count: Int): Boolean
+    }
+
+    interface Visitor {
+        fun visit(itemID: Int, count: Int, x: Double, y: Double)
+    }
+
+    private val bucketsX = Math.max(Math.ceil(worldWidth / bucketSize).toInt(), 1)
+    private val bucketsY = Math.max(Math.ceil(worldHeight / bucketSize).toInt(), 1)
+
+    /**
+     * Drop indices per bucket, unordered.
+     */
+    private val buckets = Array(bucketsX * bucketsY) { IntArray(4) }
+    private val bucketSizes = IntArray(bucketsX * bucketsY)
+
+    private var ids = IntArray(64)
+    private var counts = IntArray(64)
+    private var xs = DoubleArray(64)
+    private var ys = DoubleArray(64)
+    private var expireAt = DoubleArray(64)
+    private var bucketOf = IntArray(64)
+
+    private var nextIndex = 0
+    private val freeIndices = ArrayDeque<Int>()
+
+    /**
+     * (index, expiry time) in order of expiry, entries of removed or refreshed drops are skipped.
+     */
+    private val expiryIndices = ArrayDeque<Int>()
+    private val expiryTimes = ArrayDeque<Double>()
+
+    private var time = 0.0
+
+    var size = 0
+        private set
+
+    /**
+     * Adds a drop centered at world position, merging it into a nearby drop of the same item.
+     */
+    fun drop(itemID: Int, count: Int, x: Double, y: Double) {
+        var index = findNearby(itemID, x, y)
+
+        if (index >= 0) {
+            counts[index] += count
+        } else {
+            index = allocate()
+
+            ids[index] = itemID
+            counts[index] = count
+            xs[index] = x
+            ys[index] = y
+
+            addToBucket(index, bucketIndex(x, y))
+            size++
+        }
+
+        expireAt[index] = time + lifetime
+        expiryIndices.addLast(index)
+        expiryTimes.addLast(expireAt[index])
+    }
+
+    /**
+     * Offers every drop within [radius] of (x, y) to [picker]
+     * and removes the drops it accepts.
+     *
+     * @return number of drops picked up
+     */
+    fun pickup(x: Double, y: Double, radius: Double, picker: Picker): Int {
+        var picked = 0
+        val r2 = radius * radius
+
+        forEachBucket(x - radius, y - radius, x + radius, y + radius) { bucket ->
+            var i = 0
+            while (i < bucketSizes[bucket]) {
+                val index = buckets[bucket][i]
+
+                val dx = xs[index] - x
+                val dy = ys[index] - y
+
+                if (dx * dx + dy * dy <= r2 && picker.pick(ids[index], counts[index])) {
+                    // swap remove, so the same position is checked again
+                    removeFromBucket(index)
+                    release(index)
+                    picked++
+                } else {
+                    i++
+                }
+            }
+        }
+
+        return picked
+    }
+
+    /**
+     * Visits drops whose position is inside the given world rectangle.
+     */
+    fun forEachIn(minX: Double, minY: Double, maxX: Double, maxY: Double, visitor: Visitor) {
+        forEachBucket(minX, minY, maxX, maxY) { bucket ->
+            for (i in 0..bucketSizes[bucket] - 1) {
+                val index = buckets[bucket][i]
+
+                val x = xs[index]
+                val y = ys[index]
+
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                    visitor.visit(ids[index], counts[index], x, y)
+            }
+        }
+    }
+
+    /**
+     * Advances the clock and removes expired drops.
+     */
+    fun onUpdate(tpf: Double) {
+        time += tpf
+
+        while (!expiryTimes.isEmpty() && expiryTimes.peekFirst() <= time) {
+            val index = expiryIndices.pollFirst()
+            val expiry = expiryTimes.pollFirst()
+
+            // stale entry: drop was picked up, merged into (refreshed) or slot reused
+            if (bucketOf[index] < 0 || expireAt[index] != expiry)
+                continue
+
+            removeFromBucket(index)
+            release(index)
+        }
+    }
+
+    private fun findNearby(itemID: Int, x: Double, y: Double): Int {
+        val r2 = mergeRadius * mergeRadius
+        var found = -1
+
+        forEachBucket(x - mergeRadius, y - mergeRadius, x + mergeRadius, y + mergeRadius) { bucket ->
+            if (found < 0) {
+                for (i in 0..bucketSizes[bucket] - 1) {
+                    val index = buckets[bucket][i]
+
+                    val dx = xs[index] - x
+                    val dy = ys[index] - y
+
+                    if (ids[index] == itemID && dx * dx + dy * dy <= r2) {
+                        found = index
+                        break
+                    }
+                }
+            }
+        }
+
+        return found
+    }
+
+    private inline fun forEachBucket(minX: Double, minY: Double, maxX: Double, maxY: Double, action: (Int) -> Unit) {
+        val minBX = clamp((minX / bucketSize).toInt(), bucketsX)
+        val minBY = clamp((minY / bucketSize).toInt(), bucketsY)
+        val maxBX = clamp((maxX / bucketSize).toInt(), bucketsX)
+        val maxBY = clamp((maxY / bucketSize).toInt(), bucketsY)
+
+        for (by in minBY..maxBY) {
+            for (bx in minBX..maxBX) {
+                action(by * bucketsX + bx)
+            }
+        }
+    }
+
+    private fun clamp(value: Int, size: Int) = Math.min(Math.max(value, 0), size - 1)
+
+    private fun bucketIndex(x: Double, y: Double) =
+            clamp((y / bucketSize).toInt(), bucketsY) * bucketsX + clamp((x / bucketSize).toInt(), bucketsX)
+
+    private fun addToBucket(index: Int, bucket: Int) {
+        if (bucketSizes[bucket] == buckets[bucket].size)
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], bucketSizes[bucket] * 2)
+
+        buckets[bucket][bucketSizes[bucket]++] = index
+        bucketOf[index] = bucket
+    }
+
+    private fun removeFromBucket(index: Int) {
+        val bucket = bucketOf[index]
+        val list = buckets[bucket]
+
+        for (i in 0..bucketSizes[bucket] - 1) {
+            if (list[i] == index) {
+                list[i] = list[--bucketSizes[bucket]]
+                break
+            }
+        }
+
+        bucketOf[index] = -1
+    }
+
+    private fun allocate(): Int {
+        if (!freeIndices.isEmpty())
+            return freeIndices.pop()
+
+        if (nextIndex == ids.size) {
+            val newSize = nextIndex * 2
+
+            ids = Arrays.copyOf(ids, newSize)
+            counts = Arrays.copyOf(counts, newSize)
+            xs = Arrays.copyOf(xs, newSize)
+            ys = Arrays.copyOf(ys, newSize)
+            expireAt = Arrays.copyOf(expireAt, newSize)
+            bucketOf = Arrays.copyOf(bucketOf, newSize)
+        }
+
+        return nextIndex++
+    }
+
+    private fun release(index: Int) {
+        // invalidates pending expiry entries of this slot
+        expireAt[index] = -1.0
+        freeIndices.push(index)
+        size--
+    }
+}
@@ -0,0 +1,56 @@
+package com.almasb.zeph.world
+
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.zeph.entity.character.CharacterEntity
+import java.util.*
+
+/**
+ * A rectangular block of tiles that is loaded / unloaded as a whole.
+ * While active, its characters and static objects live in the game world.
+ * While inactive, characters are kept as [DormantCharacter] and static objects
+ * only as [StaticObject] descriptions.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class Region(val regionX: Int, val regionY: Int,
+             val minX: Int, val minY: Int,
+             val maxX: Int, val maxY: Int) {
+
+    var isActive = false
+        internal set
+
+    internal val characters = ArrayList<CharacterEntity>()
+    internal val dormant = ArrayList<DormantCharacter>()
+
+    internal val statics = ArrayList<StaticObject>()
+    internal val staticEntities = ArrayList<Entity>()
+
+    fun contains(tileX: Int, tileY: Int) = tileX in minX..maxX && tileY in minY..maxY
+
+    /**
+     * @return number of characters in this region, live or dormant
+     */
+    fun population() = characters.size + dormant.size
+}
+
+/**
+ * Compact form of a character whose region is inactive.
+ * Holds only what is needed to recreate it from its archetype.
+ *
+ * @property spawnTag see [CharacterEntity.spawnTag]
+ */
+class DormantCharacter(val archetypeID: Int,
+                       val tileX: Int,
+                       val tileY: Int,
+                       val hp: Double,
+                       val spawnTag: Int = -1)
+
+/**
+ * Non-interactive decoration, e.g. a tree.
+ *
+ * @property offsetY view offset in pixels relative to tile top
+ */
+class StaticObject(val textureName: String,
+                   val tileX: Int,
+                   val tileY: Int,
+                   val offsetY: Double)
@@ -0,0 +1,251 @@
+package com.almasb.zeph.world
+
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.zeph.entity.character.CharacterEntity
+import com.almasb.zeph.map.Level
+import java.util.*
+
+/**
+ * Splits a level into regions and keeps only regions near the player active.
+ *
+ * A region becomes active when the player is within [activationRadius] regions of it
+ * and inactive when the player is more than [activationRadius] + 1 regions away,
+ * so walking along a region border does not cause loading / unloading every frame.
+ *
+ * Tiles are not handled here, the tile renderer already builds chunks on demand
+ * and evicts those far from the viewport.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class RegionManager(private val level: Level,
+                    private val host: Host,
+                    val regionSize: Int = 16,
+                    val activationRadius: Int = 1) {
+
+    /**
+     * Creates and removes entities on behalf of the region manager.
+     */
+    interface Host {
+
+        /**
+         * Create a character of given archetype at given tile, with given hp, and add it to the world.
+         */
+        fun spawnCharacter(archetypeID: Int, tileX: Int, tileY: Int, hp: Double): CharacterEntity
+
+        /**
+         * Remove a live character from the world, it will be restored via [spawnCharacter].
+         * The host may keep the instance for reuse.
+         */
+        fun despawnCharacter(character: CharacterEntity)
+
+        fun spawnStatic(obj: StaticObject): Entity
+
+        fun despawnStatic(entity: Entity)
+    }
+
+    companion object {
+
+        /**
+         * How often live characters are reassigned to regions they walked into, in seconds.
+         */
+        private const val REASSIGN_INTERVAL = 0.5
+    }
+
+    val regionsX = (level.width + regionSize - 1) / regionSize
+    val regionsY = (level.height + regionSize - 1) / regionSize
+
+    private val regions = Array(regionsX * regionsY) {
+        val rx = it % regionsX
+        val ry = it / regionsX
+
+        Region(rx, ry,
+                rx * regionSize, ry * regionSize,
+                Math.min((rx + 1) * regionSize, level.width) - 1, Math.min((ry + 1) * regionSize, level.height) - 1)
+    }
+
+    private val activeRegions = ArrayList<Region>()
+
+    private var playerRegionX = -1
+    private var playerRegionY = -1
+
+    private var reassignTime = 0.0
+
+    fun regionAt(tileX: Int, tileY: Int): Region {
+        val rx = Math.min(Math.max(tileX, 0) / regionSize, regionsX - 1)
+        val ry = Math.min(Math.max(tileY, 0) / regionSize, regionsY - 1)
+
+        return regions[ry * regionsX + rx]
+    }
+
+    fun getActiveRegions(): List<Region> = activeRegions
+
+    fun getRegionCount() = regions.size
+
+    /**
+     * @return number of characters currently in the game world
+     */
+    fun getLiveCount() = activeRegions.sumBy { it.characters.size }
+
+    /**
+     * @return number of characters kept in compact form
+     */
+    fun getDormantCount() = regions.sumBy { it.dormant.size }
+
+    /**
+     * Adds a static object, it is in the world only while its region is active.
+     */
+    fun addStatic(obj: StaticObject) {
+        val region = regionAt(obj.tileX, obj.tileY)
+        region.statics.add(obj)
+
+        if (region.isActive)
+            region.staticEntities.add(host.spawnStatic(obj))
+    }
+
+    /**
+     * Adds a character of given archetype. It is spawned immediately if its region is active,
+     * otherwise it is stored in compact form until the region is activated.
+     *
+     * @param hp starting hp, negative means full
+     * @param spawnTag see [CharacterEntity.spawnTag]
+     * @return the live character or null if stored as dormant
+     */
+    @JvmOverloads
+    fun addCharacter(archetypeID: Int, tileX: Int, tileY: Int, hp: Double = -1.0, spawnTag: Int = -1): CharacterEntity? {
+        val region = regionAt(tileX, tileY)
+
+        if (region.isActive) {
+            val character = spawn(DormantCharacter(archetypeID, tileX, tileY, hp, spawnTag))
+            region.characters.add(character)
+            return character
+        }
+
+        region.dormant.add(DormantCharacter(archetypeID, tileX, tileY, hp, spawnTag))
+        return null
+    }
+
+    /**
+     * @return true if the region containing the tile is active, i.e. [addCharacter] spawns there right away
+     */
+    fun isActive(tileX: Int, tileY: Int) = regionAt(tileX, tileY).isActive
+
+    /**
+     * Call when a character managed by this region manager has been removed from the world for good,
+     * e.g. killed.
+     */
+    fun onCharacterRemoved(character: CharacterEntity) {
+        activeRegions.forEach { it.characters.remove(character) }
+    }
+
+    fun onUpdate(tpf: Double, playerTileX: Int, playerTileY: Int) {
+        val region = regionAt(playerTileX, playerTileY)
+
+        if (region.regionX != playerRegionX || region.regionY != playerRegionY) {
+            playerRegionX = region.regionX
+            playerRegionY = region.regionY
+
+            updateActivation()
+        }
+
+        reassignTime += tpf
+        if (reassignTime >= REASSIGN_INTERVAL) {
+            reassignTime = 0.0
+            reassignCharacters()
+        }
+    }
+
+    private fun updateActivation() {
+        for (i in activeRegions.indices.reversed()) {
+            val r = activeRegions[i]
+
+            if (distanceToPlayer(r) > activationRadius + 1) {
+                deactivate(r)
+                activeRegions.removeAt(i)
+            }
+        }
+
+        val minX = Math.max(playerRegionX - activationRadius, 0)
+        val maxX = Math.min(playerRegionX + activationRadius, regionsX - 1)
+        val minY = Math.max(playerRegionY - activationRadius, 0)
+        val maxY = Math.min(playerRegionY + activationRadius, regionsY - 1)
+
+        for (ry in minY..maxY) {
+            for (rx in minX..maxX) {
+                val r = regions[ry * regionsX + rx]
+
+                if (!r.isActive) {
+                    activate(r)
+                    activeRegions.add(r)
+                }
+            }
+        }
+    }
+
+    private fun distanceToPlayer(r: Region) =
+            Math.max(Math.abs(r.regionX - playerRegionX), Math.abs(r.regionY - playerRegionY))
+
+    private fun activate(r: Region) {
+        r.isActive = true
+
+        r.statics.forEach { r.staticEntities.add(host.spawnStatic(it)) }
+
+        r.dormant.forEach { r.characters.add(spawn(it)) }
+        r.dormant.clear()
+    }
+
+    private fun deactivate(r: Region) {
+        r.isActive = false
+
+        r.staticEntities.forEach { host.despawnStatic(it) }
+        r.staticEntities.clear()
+
+        r.characters.forEach {
+            r.dormant.add(compact(it))
+            host.despawnCharacter(it)
+        }
+        r.characters.clear()
+    }
+
+    private fun spawn(dormant: DormantCharacter): CharacterEntity {
+        val character = host.spawnCharacter(dormant.archetypeID, dormant.tileX, dormant.tileY, dormant.hp)
+        character.spawnTag = dormant.spawnTag
+        return character
+    }
+
+    private fun compact(character: CharacterEntity) = DormantCharacter(
+            character.getID(),
+            character.getTileX(),
+            character.getTileY(),
+            character.hp.value,
+            character.spawnTag
+    )
+
+    /**
+     * Moves characters that walked out of their region.
+     * A character that walked into an inactive region is put to sleep there.
+     */
+    private fun reassignCharacters() {
+        for (r in activeRegions) {
+            val it = r.characters.iterator()
+
+            while (it.hasNext()) {
+                val character = it.next()
+                val tileX = character.getTileX()
+                val tileY = character.getTileY()
+
+                if (r.contains(tileX, tileY))
+                    continue
+
+                it.remove()
+
+                val target = regionAt(tileX, tileY)
+                if (target.isActive) {
+                    target.characters.add(character)
+                } else {
+                    target.dormant.add(compact(character))
+                    host.despawnCharacter(character)
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.almasb.zeph.world
+
+import com.almasb.fxgl.entity.component.CollidableComponent
+import com.almasb.zeph.Config
+import com.almasb.zeph.debug.GameEvents
+import com.almasb.zeph.entity.character.CharacterEntity
+import com.almasb.zeph.entity.character.PlayerEntity
+import com.almasb.zeph.entity.loot.Drops
+import com.almasb.zeph.entity.loot.LootTables
+import java.util.*
+
+/**
+ * World update and kill / respawn flow without anything visual,
+ * shared by the game and headless tools such as the soak test.
+ *
+ * A killed character is disabled, rewards its killer, drops loot, is removed from
+ * its region and spawn point and is released [RELEASE_DELAY] seconds later,
+ * i.e. parked for reuse or removed from the world.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class Simulation(val regions: RegionManager,
+                 val spawns: SpawnManager,
+                 val groundLoot: GroundLoot,
+                 val pool: CharacterPool,
+                 private val random: SplittableRandom) {
+
+    companion object {
+
+        /**
+         * Seconds between a kill and release of the character, lets the death animation play.
+         */
+        const val RELEASE_DELAY = 0.9
+    }
+
+    private val drops = Drops()
+
+    private val releaseQueue = ArrayDeque<CharacterEntity>()
+    private val releaseTimes = ArrayDeque<Double>()
+
+    private var time = 0.0
+
+    /**
+     * Number of kills since creation.
+     */
+    var totalKills = 0L
+        private set
+
+    fun onUpdate(tpf: Double, playerTileX: Int, playerTileY: Int) {
+        time += tpf
+
+        regions.onUpdate(tpf, playerTileX, playerTileY)
+        spawns.onUpdate(tpf)
+        groundLoot.onUpdate(tpf)
+
+        while (!releaseTimes.isEmpty() && releaseTimes.peekFirst() <= time) {
+            releaseTimes.pollFirst()
+            release(releaseQueue.pollFirst())
+        }
+    }
+
+    /**
+     * Call when [killer] kills [character].
+     * Does nothing if [character] has already been killed, e.g. by a second projectile in flight.
+     *
+     * @return false if [character] has already been killed
+     */
+    fun onKilled(killer: CharacterEntity, character: CharacterEntity): Boolean {
+        if (character.isKilled)
+            return false
+
+        character.isKilled = true
+        totalKills++
+        character.setControlsEnabled(false)
+        character.getComponentUnsafe(CollidableComponent::class.java).value = false
+
+        if (killer is PlayerEntity) {
+            // TODO: reward based on level differences
+            killer.playerControl.rewardMoney(random.nextInt(character.baseLevel.get()))
+            killer.playerControl.rewardXP(character.data.rewardXP)
+        }
+
+        drops.clear()
+        LootTables.get(character.getID()).roll(random, drops)
+
+        val position = character.positionComponent.value
+
+        for (i in 0..drops.size - 1) {
+            // scatter around the center of the tile where the character died
+            val x = position.x + Config.tileSize / 2 + random.nextInt(20) - 10
+            val y = position.y + Config.tileSize / 2 + 10 + random.nextInt(10)
+
+            groundLoot.drop(drops.getID(i), drops.getCount(i), x, y)
+        }
+
+        regions.onCharacterRemoved(character)
+        spawns.onKilled(character)
+        GameEvents.kill(killer, character)
+
+        releaseQueue.addLast(character)
+        releaseTimes.addLast(time + RELEASE_DELAY)
+        return true
+    }
+
+    /**
+     * Parks [character] for reuse, or removes it from the world if its pool is full.
+     */
+    fun release(character: CharacterEntity) {
+        if (!pool.park(character))
+            character.removeFromWorld()
+    }
+}
@@ -0,0 +1,167 @@
+package com.almasb.zeph.world
+
+import com.almasb.zeph.debug.GameEvents
+import com.almasb.zeph.entity.character.CharacterEntity
+import com.almasb.zeph.map.Level
+import com.almasb.zeph.map.SpawnPoint
+import com.almasb.zeph.map.WalkabilityGrid
+import java.util.*
+
+/**
+ * Keeps spawn points populated.
+ *
+ * Each spawn point holds up to [SpawnPoint.count] characters, optionally
+ * limited further by a cap per archetype across all points. When a character
+ * dies a respawn is queued for its spawn point and carried out after [respawnDelay].
+ * Characters are only placed on tiles walkable in [grid].
+ *
+ * Characters are added through [RegionManager], so spawns in inactive regions
+ * are stored as dormant and cost nothing until the player comes near.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class SpawnManager(private val world: RegionManager,
+                   private val grid: WalkabilityGrid,
+                   spawnPoints: List<SpawnPoint>,
+                   private val random: Random,
+                   val respawnDelay: Double = 5.0) {
+
+    companion object {
+
+        /**
+         * Skeleton archer, spawned when the level has no spawn points.
+         */
+        const val DEFAULT_ENEMY_ID = 2004
+
+        /**
+         * Random tiles tried per spawn before giving up until the next retry.
+         */
+        const val TILE_ATTEMPTS = 8
+
+        /**
+         * @return spawn points of [level], or a single default point if it has none
+         */
+        @JvmStatic fun spawnPointsOf(level: Level): List<SpawnPoint> {
+            if (!level.spawnPoints.isEmpty())
+                return level.spawnPoints
+
+            return listOf(SpawnPoint(DEFAULT_ENEMY_ID, 0, 0, 14, 9, 1))
+        }
+    }
+
+    private val points = spawnPoints.toTypedArray()
+
+    /**
+     * Characters alive (live or dormant) per spawn point.
+     */
+    private val alive = IntArray(points.size)
+
+    private val archetypeCaps = HashMap<Int, Int>()
+    private val archetypeAlive = HashMap<Int, Int>()
+
+    /**
+     * Respawns in order of due time, delay is constant so a FIFO queue is enough.
+     */
+    private val queuePoints = ArrayDeque<Int>()
+    private val queueTimes = ArrayDeque<Double>()
+
+    private var time = 0.0
+
+    /**
+     * Number of characters spawned since creation.
+     */
+    var totalSpawns = 0L
+        private set
+
+    /**
+     * Limits number of alive characters of [archetypeID] across all spawn points.
+     */
+    fun setArchetypeCap(archetypeID: Int, cap: Int) {
+        archetypeCaps[archetypeID] = cap
+    }
+
+    fun getAliveCount(pointIndex: Int) = alive[pointIndex]
+
+    fun getQueuedCount() = queuePoints.size
+
+    /**
+     * Fills all spawn points up to their count.
+     * Spawns blocked by an archetype cap or by unwalkable tiles are retried after [respawnDelay].
+     */
+    fun populate() {
+        for (i in points.indices) {
+            repeat(points[i].count - alive[i]) {
+                if (!spawn(i))
+                    enqueue(i)
+            }
+        }
+    }
+
+    /**
+     * Call when a character died. Characters not spawned by this manager are ignored.
+     */
+    fun onKilled(character: CharacterEntity) {
+        val index = character.spawnTag
+        if (index < 0 || index >= points.size)
+            return
+
+        character.spawnTag = -1
+
+        alive[index]--
+        archetypeAlive[points[index].archetypeID] = archetypeAlive[points[index].archetypeID]!! - 1
+
+        enqueue(index)
+    }
+
+    fun onUpdate(tpf: Double) {
+        time += tpf
+
+        while (!queueTimes.isEmpty() && queueTimes.peekFirst() <= time) {
+            queueTimes.pollFirst()
+            val index = queuePoints.pollFirst()
+
+            // archetype cap or tiles may free up later, keep retrying until the point is full
+            if (alive[index] < points[index].count && !spawn(index))
+                enqueue(index)
+        }
+    }
+
+    /**
+     * Due times only grow, since the delay is constant, so the queue stays ordered.
+     */
+    private fun enqueue(index: Int) {
+        queuePoints.addLast(index)
+        queueTimes.addLast(time + respawnDelay)
+    }
+
+    /**
+     * @return false if archetype cap is reached or no walkable tile was found
+     */
+    private fun spawn(index: Int): Boolean {
+        val point = points[index]
+        val archetypeAliveCount = archetypeAlive[point.archetypeID] ?: 0
+
+        if (archetypeAliveCount >= archetypeCaps[point.archetypeID] ?: Int.MAX_VALUE)
+            return false
+
+        var x: Int
+        var y: Int
+        var attempt = 0
+
+        do {
+            if (attempt++ == TILE_ATTEMPTS)
+                return false
+
+            x = point.minX + random.nextInt(point.maxX - point.minX + 1)
+            y = point.minY + random.nextInt(point.maxY - point.minY + 1)
+        } while (!grid.isWalkable(x, y))
+
+        world.addCharacter(point.archetypeID, x, y, -1.0, index)
+        GameEvents.spawn(point.archetypeID, x, y)
+
+        alive[index]++
+        archetypeAlive[point.archetypeID] = archetypeAliveCount + 1
+        totalSpawns++
+        return true
+    }
+}
@@ -0,0 +1,172 @@
+package com.almasb.zeph.entity
+
+import com.almasb.fxgl.ecs.Component
+import com.almasb.zeph.combat.Attribute
+import com.almasb.zeph.combat.Element
+import com.almasb.zeph.combat.Rune
+import com.almasb.zeph.entity.character.CharacterType
+import com.almasb.zeph.entity.character.component.CharacterDataComponent
+import com.almasb.zeph.entity.item.ArmorType
+import com.almasb.zeph.entity.item.ItemLevel
+import com.almasb.zeph.entity.item.WeaponType
+import com.almasb.zeph.entity.item.component.ArmorDataComponent
+import com.almasb.zeph.entity.item.component.MiscDataComponent
+import com.almasb.zeph.entity.item.component.WeaponDataComponent
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+/**
+ * Round trip of definitions through the .zcat format.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class BinaryCatalogTest {
+
+    @Rule
+    @JvmField
+    val folder = TemporaryFolder()
+
+    private val weapon = listOf<Component>(
+            DescriptionComponent(4100, "Rune Blade", "Sword with runes", "rune_blade.png"),
+            WeaponDataComponent(ItemLevel.EPIC, WeaponType.ONE_H_SWORD, 45)
+                    .withRune(Rune(Attribute.STRENGTH, 3))
+                    .withRune(Rune(Attribute.AGILITY, 1))
+                    .withElement(Element.FIRE)
+                    .withPrice(1200))
+
+    private val armor = listOf<Component>(
+            DescriptionComponent(5100, "Ледяной шлем", "Ice helm", "ice_helm.png"),
+            ArmorDataComponent(ItemLevel.UNIQUE, ArmorType.HELM, 8, 12)
+                    .withElement(Element.WATER)
+                    .withPrice(300))
+
+    private val monster = listOf<Component>(
+            DescriptionComponent(2100, "Ghoul", "", "ghoul.png"),
+            CharacterDataComponent(CharacterType.MINIBOSS)
+                    .withLevel(15)
+                    .withElement(Element.EARTH)
+                    .withXP(100, 20, 10)
+                    .withAttribute(Attribute.VITALITY, 30)
+                    .withAttribute(Attribute.STRENGTH, 25)
+                    .withDrop(4100, 5)
+                    .withDrop(9000, 60))
+
+    private fun write(definitions: List<List<Component>>): BinaryCatalog {
+        val file = folder.root.toPath().resolve("test" + BinaryCatalog.EXTENSION)
+        BinaryCatalog.write(definitions, file)
+
+        return BinaryCatalog.map(file)
+    }
+
+    private fun assertDescription(expected: List<Component>, actual: List<Component>) {
+        val e = expected[0] as DescriptionComponent
+        val a = actual[0] as DescriptionComponent
+
+        assertEquals(e.id.value, a.id.value)
+        assertEquals(e.name.value, a.name.value)
+        assertEquals(e.description.value, a.description.value)
+        assertEquals(e.textureName.value, a.textureName.value)
+    }
+
+    @Test
+    fun index() {
+        val catalog = write(listOf(weapon, armor, monster))
+
+        assertEquals(3, catalog.size)
+        assertArrayEquals(intArrayOf(2100, 4100, 5100), catalog.ids())
+
+        assertTrue(4100 in catalog)
+        assertFalse(4101 in catalog)
+        assertNull(catalog.read(1))
+        assertNull(catalog.read(9999))
+    }
+
+    @Test
+    fun weapon() {
+        val actual = write(listOf(weapon, armor, monster)).read(4100)!!
+        assertDescription(weapon, actual)
+
+        val e = weapon[1] as WeaponDataComponent
+        val a = actual[1] as WeaponDataComponent
+
+        assertEquals(e.type, a.type)
+        assertEquals(e.pureDamage, a.pureDamage)
+        assertEquals(e.itemLevel, a.itemLevel)
+        assertEquals(e.element, a.element)
+        assertEquals(e.price, a.price)
+        assertEquals(e.runes.map { it.attribute to it.bonus }, a.runes.map { it.attribute to it.bonus })
+    }
+
+    @Test
+    fun armor() {
+        val actual = write(listOf(weapon, armor, monster)).read(5100)!!
+        assertDescription(armor, actual)
+
+        val e = armor[1] as ArmorDataComponent
+        val a = actual[1] as ArmorDataComponent
+
+        assertEquals(e.armorType, a.armorType)
+        assertEquals(e.armor, a.armor)
+        assertEquals(e.marmor, a.marmor)
+        assertEquals(e.itemLevel, a.itemLevel)
+        assertEquals(e.element, a.element)
+        assertEquals(e.price, a.price)
+        assertTrue(a.runes.isEmpty())
+    }
+
+    @Test
+    fun character() {
+        val actual = write(listOf(weapon, armor, monster)).read(2100)!!
+        assertDescription(monster, actual)
+
+        val e = monster[1] as CharacterDataComponent
+        val a = actual[1] as CharacterDataComponent
+
+        assertEquals(e.type, a.type)
+        assertEquals(e.baseLevel, a.baseLevel)
+        assertEquals(e.element, a.element)
+        assertEquals(e.rewardXP.base, a.rewardXP.base)
+        assertEquals(e.rewardXP.stat, a.rewardXP.stat)
+        assertEquals(e.rewardXP.job, a.rewardXP.job)
+        assertEquals(e.attributes, a.attributes)
+        assertEquals(e.dropItems, a.dropItems)
+    }
+
+    @Test
+    fun readsAreIndependent() {
+        val catalog = write(listOf(weapon, armor, monster))
+
+        val first = catalog.read(4100)!!
+        val second = catalog.read(4100)!!
+
+        assertFalse(first[1] === second[1])
+        assertEquals(45, (second[1] as WeaponDataComponent).pureDamage)
+    }
+
+    @Test
+    fun manyEntries() {
+        val definitions = (1..500).map {
+            listOf<Component>(
+                    DescriptionComponent(10000 + it * 3, "Weapon $it", "", "weapon.png"),
+                    WeaponDataComponent(ItemLevel.NORMAL, WeaponType.DAGGER, it))
+        }.reversed()
+
+        val catalog = write(definitions)
+
+        assertEquals(500, catalog.size)
+
+        for (i in 1..500) {
+            assertEquals(i, (catalog.read(10000 + i * 3)!![1] as WeaponDataComponent).pureDamage)
+            assertNull(catalog.read(10000 + i * 3 + 1))
+        }
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun unsupportedDefinition() {
+        write(listOf(listOf<Component>(
+                DescriptionComponent(9000, "Potion", "", "potion.png"),
+                MiscDataComponent(10))))
+    }
+}
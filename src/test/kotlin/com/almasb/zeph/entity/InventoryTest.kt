@@ -0,0 +1,159 @@
+package com.almasb.zeph.entity
+
+import com.almasb.zeph.entity.item.ItemLevel
+import com.almasb.zeph.entity.item.MiscItemEntity
+import com.almasb.zeph.entity.item.WeaponEntity
+import com.almasb.zeph.entity.item.WeaponType
+import com.almasb.zeph.entity.item.component.MiscDataComponent
+import com.almasb.zeph.entity.item.component.WeaponDataComponent
+import org.junit.Assert.*
+import org.junit.Test
+import java.util.*
+
+/**
+ * Stack merge / split and slot bookkeeping of [Inventory].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class InventoryTest {
+
+    private fun potion() = MiscItemEntity(listOf(
+            DescriptionComponent(9000, "Potion", "Test potion", "potion.png"),
+            MiscDataComponent(10)))
+
+    private fun knife() = WeaponEntity(listOf(
+            DescriptionComponent(4001, "Knife", "Test knife", "knife.png"),
+            WeaponDataComponent(ItemLevel.NORMAL, WeaponType.DAGGER, 10)))
+
+    @Test
+    fun stackableItemsMerge() {
+        val inventory = Inventory(5)
+
+        assertTrue(inventory.addItem(potion(), 3))
+        assertTrue(inventory.addItem(potion(), 4))
+
+        assertEquals(1, inventory.usedSlots())
+        assertEquals(7, inventory.getCount(0))
+    }
+
+    @Test
+    fun stacksOverflowIntoNewSlots() {
+        val inventory = Inventory(5)
+
+        assertTrue(inventory.addItem(potion(), 25))
+
+        assertEquals(3, inventory.usedSlots())
+        assertEquals(10, inventory.getCount(0))
+        assertEquals(10, inventory.getCount(1))
+        assertEquals(5, inventory.getCount(2))
+        assertEquals(1, inventory.getItems().size)
+    }
+
+    @Test
+    fun partialStacksFilledBeforeNewSlot() {
+        val inventory = Inventory(5)
+
+        inventory.addItem(potion(), 20)
+        inventory.removeFromSlot(0, 2)
+        inventory.removeFromSlot(1, 3)
+
+        assertTrue(inventory.addItem(potion(), 5))
+
+        assertEquals(2, inventory.usedSlots())
+        assertEquals(10, inventory.getCount(0))
+        assertEquals(10, inventory.getCount(1))
+    }
+
+    @Test
+    fun addFailsWhenFull() {
+        val inventory = Inventory(2)
+
+        assertFalse(inventory.addItem(potion(), 25))
+
+        assertTrue(inventory.isFull())
+        assertEquals(10, inventory.getCount(0))
+        assertEquals(10, inventory.getCount(1))
+    }
+
+    @Test
+    fun removeFreesEmptiedSlot() {
+        val inventory = Inventory(5)
+        val potion = potion()
+
+        inventory.addItem(potion, 3)
+
+        assertTrue(inventory.removeItem(potion, 2))
+        assertEquals(1, inventory.getCount(0))
+        assertTrue(potion in inventory)
+
+        assertTrue(inventory.removeItem(potion()))
+        assertTrue(inventory.isFree(0))
+        assertFalse(potion in inventory)
+        assertFalse(inventory.removeItem(potion))
+    }
+
+    @Test
+    fun removeFromSlot() {
+        val inventory = Inventory(5)
+
+        inventory.addItem(potion(), 15)
+
+        assertTrue(inventory.removeFromSlot(1, 5))
+        assertEquals(10, inventory.getCount(0))
+        assertTrue(inventory.isFree(1))
+        assertFalse(inventory.removeFromSlot(1))
+    }
+
+    @Test
+    fun nonStackableItemsTakeOneSlotEach() {
+        val inventory = Inventory(5)
+        val knife1 = knife()
+        val knife2 = knife()
+
+        inventory.addItem(knife1)
+        inventory.addItem(knife2)
+
+        assertFalse(inventory.addItem(knife(), 2))
+        assertEquals(3, inventory.usedSlots())
+
+        assertTrue(inventory.removeItem(knife1))
+        assertTrue(inventory.isFree(0))
+        assertTrue(knife2 in inventory)
+        assertFalse(knife1 in inventory)
+    }
+
+    @Test
+    fun batchNotifiesOnce() {
+        val inventory = Inventory(5)
+        val notified = ArrayList<BitSet>()
+
+        inventory.addListener(object : Inventory.Listener {
+            override fun onSlotsChanged(inventory: Inventory, slots: BitSet) {
+                notified.add(slots)
+            }
+        })
+
+        inventory.batch {
+            inventory.addItem(potion(), 15)
+            inventory.addItem(knife())
+        }
+
+        assertEquals(1, notified.size)
+        assertEquals(BitSet().apply { set(0, 3) }, notified[0])
+    }
+
+    @Test
+    fun sortPacksToFront() {
+        val inventory = Inventory(5)
+        val knife = knife()
+
+        inventory.addItem(potion(), 3)
+        inventory.addItem(knife)
+        inventory.removeFromSlot(0, 3)
+
+        inventory.sort(Comparator { a, b -> a.getID() - b.getID() })
+
+        assertTrue(knife === inventory.getItem(0))
+        assertTrue(inventory.isFree(1))
+    }
+}
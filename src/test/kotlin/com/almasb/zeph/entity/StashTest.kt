@@ -0,0 +1,160 @@
+package com.almasb.zeph.entity
+
+import com.almasb.zeph.combat.Element
+import com.almasb.zeph.entity.item.*
+import com.almasb.zeph.entity.item.component.ArmorDataComponent
+import com.almasb.zeph.entity.item.component.MiscDataComponent
+import com.almasb.zeph.entity.item.component.WeaponDataComponent
+import org.junit.Assert.*
+import org.junit.Test
+
+/**
+ * Handles, generations and query indexes of [Stash].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class StashTest {
+
+    private fun weapon(type: WeaponType, damage: Int, element: Element = Element.NEUTRAL) = WeaponEntity(listOf(
+            DescriptionComponent(4000 + damage, "Weapon", "Test weapon", "weapon.png"),
+            WeaponDataComponent(ItemLevel.NORMAL, type, damage).withElement(element)))
+
+    private fun armor(type: ArmorType, armor: Int) = ArmorEntity(listOf(
+            DescriptionComponent(5000 + armor, "Armor", "Test armor", "armor.png"),
+            ArmorDataComponent(ItemLevel.UNIQUE, type, armor, 0)))
+
+    private fun potion() = MiscItemEntity(listOf(
+            DescriptionComponent(9000, "Potion", "Test potion", "potion.png"),
+            MiscDataComponent(10)))
+
+    @Test
+    fun addAndRemove() {
+        val stash = Stash(2)
+        val dagger = weapon(WeaponType.DAGGER, 10)
+
+        assertTrue(stash.add(dagger))
+        assertFalse(stash.add(dagger))
+        assertTrue(dagger in stash)
+
+        assertTrue(stash.add(potion()))
+        assertTrue(stash.isFull())
+        assertFalse(stash.add(potion()))
+
+        assertTrue(stash.remove(dagger))
+        assertFalse(stash.remove(dagger))
+        assertFalse(dagger in stash)
+        assertEquals(1, stash.size())
+    }
+
+    @Test
+    fun filterCombinesIndexes() {
+        val stash = Stash()
+        val fireDagger = weapon(WeaponType.DAGGER, 10, Element.FIRE)
+
+        stash.add(fireDagger)
+        stash.add(weapon(WeaponType.DAGGER, 12))
+        stash.add(weapon(WeaponType.BOW, 15, Element.FIRE))
+        stash.add(armor(ArmorType.BODY, 20))
+        stash.add(potion())
+
+        assertEquals(5, stash.query(Stash.Filter()).size)
+        assertEquals(2, stash.query(Stash.Filter().withWeaponType(WeaponType.DAGGER)).size)
+        assertEquals(1, stash.query(Stash.Filter().withArmorType(ArmorType.BODY)).size)
+        assertEquals(3, stash.query(Stash.Filter().withItemLevel(ItemLevel.NORMAL)).size)
+
+        val result = stash.query(Stash.Filter().withWeaponType(WeaponType.DAGGER).withElement(Element.FIRE))
+
+        assertEquals(1, result.size)
+        assertTrue(fireDagger === result[0])
+    }
+
+    @Test
+    fun sortedQuery() {
+        val stash = Stash()
+
+        stash.add(weapon(WeaponType.DAGGER, 12))
+        stash.add(weapon(WeaponType.BOW, 30))
+        stash.add(weapon(WeaponType.DAGGER, 5))
+        stash.add(armor(ArmorType.HELM, 8))
+
+        val ascending = stash.query(Stash.Filter(), Stash.SortKey.DAMAGE)
+        assertEquals(listOf(5, 12, 30), ascending.page(0, 10).map { (it as WeaponEntity).pureDamage.value })
+
+        val descending = stash.query(Stash.Filter().withWeaponType(WeaponType.DAGGER), Stash.SortKey.DAMAGE, true)
+        assertEquals(listOf(12, 5), descending.page(0, 10).map { (it as WeaponEntity).pureDamage.value })
+
+        assertEquals(1, stash.query(Stash.Filter(), Stash.SortKey.ARMOR).size)
+    }
+
+    @Test
+    fun reindexAfterRefine() {
+        val stash = Stash()
+        val weak = weapon(WeaponType.DAGGER, 10)
+        val strong = weapon(WeaponType.DAGGER, 20)
+
+        stash.add(weak)
+        stash.add(strong)
+
+        weak.refineLevel.set(5)
+        stash.reindex(weak)
+
+        val result = stash.query(Stash.Filter(), Stash.SortKey.DAMAGE, true)
+
+        assertTrue(weak === result[0])
+        assertTrue(strong === result[1])
+    }
+
+    @Test
+    fun resultOfRemovedItemIsStale() {
+        val stash = Stash()
+        val dagger = weapon(WeaponType.DAGGER, 10)
+
+        stash.add(dagger)
+
+        val result = stash.query(Stash.Filter())
+        assertFalse(result.isStale())
+
+        stash.remove(dagger)
+
+        // the freed handle is reused by the next item
+        val bow = weapon(WeaponType.BOW, 15)
+        stash.add(bow)
+
+        assertTrue(result.isStale())
+        assertNull(result[0])
+        assertTrue(result.page(0, 10).isEmpty())
+        assertTrue(bow === stash.query(Stash.Filter())[0])
+    }
+
+    @Test
+    fun paging() {
+        val stash = Stash()
+
+        for (i in 1..25) {
+            stash.add(weapon(WeaponType.DAGGER, i))
+        }
+
+        val result = stash.query(Stash.Filter(), Stash.SortKey.DAMAGE)
+
+        assertEquals(3, result.pageCount(10))
+        assertEquals(10, result.page(1, 10).size)
+        assertEquals(5, result.page(2, 10).size)
+        assertTrue(result.page(3, 10).isEmpty())
+        assertEquals(21, (result.page(2, 10)[0] as WeaponEntity).pureDamage.value)
+    }
+
+    @Test
+    fun growsBeyondInitialCapacity() {
+        val stash = Stash()
+        val weapons = (1..200).map { weapon(WeaponType.DAGGER, it) }
+
+        assertEquals(200, stash.addAll(weapons))
+
+        weapons.filter { it.data.pureDamage % 2 == 0 }.forEach { stash.remove(it) }
+
+        val result = stash.query(Stash.Filter(), Stash.SortKey.DAMAGE)
+
+        assertEquals(100, result.size)
+        assertEquals((1..199 step 2).toList(), result.page(0, 100).map { (it as WeaponEntity).pureDamage.value })
+    }
+}
@@ -0,0 +1,153 @@
+package com.almasb.zeph.entity.loot
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.util.*
+
+/**
+ * Roll results and alias sampling of [LootTable].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class LootTableTest {
+
+    private val random = SplittableRandom(42)
+
+    /**
+     * @return item ID -> total count over [times] rolls
+     */
+    private fun roll(table: LootTable, times: Int): Map<Int, Int> {
+        val drops = Drops()
+        table.rollTimes(random, drops, times)
+
+        val totals = HashMap<Int, Int>()
+        for (i in 0..drops.size - 1) {
+            totals[drops.getID(i)] = (totals[drops.getID(i)] ?: 0) + drops.getCount(i)
+        }
+
+        return totals
+    }
+
+    @Test
+    fun guaranteedAndChanceDrops() {
+        val table = LootTable.Builder()
+                .withGuaranteed(1, 3)
+                .withChance(2, 100)
+                .withChance(3, 0)
+                .build()
+
+        val totals = roll(table, 10)
+
+        assertEquals(30, totals[1])
+        assertEquals(10, totals[2])
+        assertNull(totals[3])
+    }
+
+    @Test
+    fun chanceIsPercent() {
+        val table = LootTable.Builder()
+                .withChance(1, 25)
+                .build()
+
+        val count = roll(table, 100000)[1]!!
+
+        assertEquals(25000.0, count.toDouble(), 1000.0)
+    }
+
+    @Test
+    fun groupPicksFollowWeights() {
+        val weights = doubleArrayOf(1.0, 2.0, 0.5, 6.5)
+
+        val group = LootTable.Group()
+        weights.forEachIndexed { i, weight -> group.withItem(i, weight) }
+
+        val table = LootTable.Builder()
+                .withGroup(group)
+                .build()
+
+        val rolls = 200000
+        val totals = roll(table, rolls)
+
+        assertEquals(rolls, totals.values.sum())
+
+        for (i in weights.indices) {
+            val expected = rolls * weights[i] / weights.sum()
+
+            assertEquals("Item $i", expected, (totals[i] ?: 0).toDouble(), rolls * 0.01)
+        }
+    }
+
+    @Test
+    fun zeroWeightIsNeverPicked() {
+        val table = LootTable.Builder()
+                .withGroup(LootTable.Group()
+                        .withItem(1, 0.0)
+                        .withItem(2, 1.0)
+                        .withItem(3, 0.0))
+                .build()
+
+        val totals = roll(table, 10000)
+
+        assertEquals(mapOf(2 to 10000), totals)
+    }
+
+    @Test
+    fun groupRollsAndNothing() {
+        val table = LootTable.Builder()
+                .withGroup(LootTable.Group(3)
+                        .withItem(1, 1.0, 2)
+                        .withNothing(1.0))
+                .build()
+
+        val drops = Drops()
+        table.rollTimes(random, drops, 10000)
+
+        // each of 30000 picks is an item with probability 1/2
+        assertEquals(15000.0, drops.size.toDouble(), 500.0)
+
+        for (i in 0..drops.size - 1) {
+            assertEquals(1, drops.getID(i))
+            assertEquals(2, drops.getCount(i))
+        }
+    }
+
+    @Test
+    fun nestedTables() {
+        val rare = LootTable.Builder()
+                .withGuaranteed(100)
+                .withGuaranteed(101, 5)
+                .build()
+
+        val table = LootTable.Builder()
+                .withGroup(LootTable.Group()
+                        .withTable(rare, 1.0))
+                .build()
+
+        val totals = roll(table, 4)
+
+        assertEquals(mapOf(100 to 4, 101 to 20), totals)
+    }
+
+    @Test
+    fun emptyTable() {
+        assertTrue(LootTable.EMPTY.isEmpty())
+        assertTrue(roll(LootTable.EMPTY, 10).isEmpty())
+
+        assertFalse(LootTable.Builder().withGuaranteed(1).build().isEmpty())
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun emptyGroupIsRejected() {
+        LootTable.Builder().withGroup(LootTable.Group())
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun negativeWeightIsRejected() {
+        LootTable.Builder().withGroup(LootTable.Group().withItem(1, 2.0).withItem(2, -1.0))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun zeroWeightSumIsRejected() {
+        LootTable.Builder().withGroup(LootTable.Group().withNothing(0.0))
+    }
+}
@@ -0,0 +1,131 @@
+package com.almasb.zeph.map
+
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.nio.IntBuffer
+import java.nio.file.Files
+
+/**
+ * Round trip of [TileMap] through the .zmap format.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class BinaryMapFormatTest {
+
+    @Rule
+    @JvmField
+    val folder = TemporaryFolder()
+
+    private fun layer(name: String, width: Int, height: Int, visible: Boolean = true, opacity: Double = 1.0) =
+            TileLayer(name, width, height, IntBuffer.wrap(IntArray(width * height) { it * 7 % 13 }), visible, opacity)
+
+    private fun map(): TileMap {
+        // odd name lengths so layer data needs alignment padding
+        val layers = listOf(
+                layer("Ground", 5, 3),
+                layer("Wälder", 5, 3, false, 0.5),
+                layer("x", 5, 3))
+
+        val tilesets = listOf(
+                Tileset(1, "terrain", "terrain.png", 8, 32, 32),
+                Tileset(65, "props", "props.png", 4, 32, 64, 1, 2))
+
+        val objectGroups = listOf(
+                ObjectGroup("spawns", listOf(
+                        MapObject("skeletons", "spawn", 32.0, 64.0, 96.0, 128.0, mapOf("archetype" to "2004", "count" to "3")),
+                        MapObject("", "", 0.5, 1.5, 0.0, 0.0))),
+                ObjectGroup("empty", emptyList()))
+
+        return TileMap(5, 3, 32, 32, layers, tilesets, objectGroups)
+    }
+
+    @Test
+    fun roundTrip() {
+        val file = folder.root.toPath().resolve("test" + BinaryMapFormat.EXTENSION)
+        val expected = map()
+
+        BinaryMapFormat.write(expected, file)
+        val actual = BinaryMapFormat.map(file)
+
+        assertEquals(expected.width, actual.width)
+        assertEquals(expected.height, actual.height)
+        assertEquals(expected.tileWidth, actual.tileWidth)
+        assertEquals(expected.tileHeight, actual.tileHeight)
+
+        assertEquals(expected.tilesets.size, actual.tilesets.size)
+        for (i in expected.tilesets.indices) {
+            val e = expected.tilesets[i]
+            val a = actual.tilesets[i]
+
+            assertEquals(e.firstGid, a.firstGid)
+            assertEquals(e.name, a.name)
+            assertEquals(e.imageName, a.imageName)
+            assertEquals(e.columns, a.columns)
+            assertEquals(e.tileWidth, a.tileWidth)
+            assertEquals(e.tileHeight, a.tileHeight)
+            assertEquals(e.margin, a.margin)
+            assertEquals(e.spacing, a.spacing)
+        }
+
+        assertEquals(expected.layers.size, actual.layers.size)
+        for (i in expected.layers.indices) {
+            val e = expected.layers[i]
+            val a = actual.layers[i]
+
+            assertEquals(e.name, a.name)
+            assertEquals(e.visible, a.visible)
+            assertEquals(e.opacity, a.opacity, 0.0)
+            assertEquals(e.width, a.width)
+            assertEquals(e.height, a.height)
+            assertEquals(e.width * e.height, a.data.remaining())
+
+            for (y in 0..e.height - 1) {
+                for (x in 0..e.width - 1) {
+                    assertEquals(e.gid(x, y), a.gid(x, y))
+                }
+            }
+        }
+
+        assertEquals(expected.objectGroups.size, actual.objectGroups.size)
+        for (i in expected.objectGroups.indices) {
+            val e = expected.objectGroups[i]
+            val a = actual.objectGroups[i]
+
+            assertEquals(e.name, a.name)
+            assertEquals(e.objects.size, a.objects.size)
+
+            for (j in e.objects.indices) {
+                assertEquals(e.objects[j].name, a.objects[j].name)
+                assertEquals(e.objects[j].type, a.objects[j].type)
+                assertEquals(e.objects[j].x, a.objects[j].x, 0.0)
+                assertEquals(e.objects[j].y, a.objects[j].y, 0.0)
+                assertEquals(e.objects[j].width, a.objects[j].width, 0.0)
+                assertEquals(e.objects[j].height, a.objects[j].height, 0.0)
+                assertEquals(e.objects[j].properties, a.objects[j].properties)
+            }
+        }
+    }
+
+    @Test
+    fun emptyMap() {
+        val file = folder.newFile().toPath()
+
+        BinaryMapFormat.write(TileMap(0, 0, 32, 32, emptyList(), emptyList()), file)
+        val map = BinaryMapFormat.map(file)
+
+        assertEquals(0, map.width)
+        assertTrue(map.layers.isEmpty())
+        assertTrue(map.tilesets.isEmpty())
+        assertTrue(map.objectGroups.isEmpty())
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun rejectsOtherFiles() {
+        val file = folder.newFile().toPath()
+        Files.write(file, ByteArray(64) { it.toByte() })
+
+        BinaryMapFormat.map(file)
+    }
+}
@@ -0,0 +1,198 @@
+package com.almasb.zeph.map
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.*
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Parsing of Tiled JSON maps by [TiledJsonReader].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TiledJsonReaderTest {
+
+    private val gids = intArrayOf(1, 2, 0, 3, 70, 1)
+
+    private fun read(json: String) = TiledJsonReader.read(ByteArrayInputStream(json.toByteArray(Charsets.UTF_8)))
+
+    private fun mapWithLayer(layer: String) = """
+        {
+          "width": 3, "height": 2, "tilewidth": 32, "tileheight": 32,
+          "orientation": "orthogonal",
+          "layers": [ $layer ],
+          "tilesets": []
+        }
+        """
+
+    private fun encode(data: IntArray, compressor: ((OutputStream) -> OutputStream)?): String {
+        val buffer = ByteBuffer.allocate(data.size * 4).order(ByteOrder.LITTLE_ENDIAN)
+        data.forEach { buffer.putInt(it) }
+
+        if (compressor == null)
+            return Base64.getEncoder().encodeToString(buffer.array())
+
+        val bytes = ByteArrayOutputStream()
+        compressor(bytes).use { it.write(buffer.array()) }
+
+        return Base64.getEncoder().encodeToString(bytes.toByteArray())
+    }
+
+    private fun assertGids(layer: TileLayer) {
+        assertEquals(3, layer.width)
+        assertEquals(2, layer.height)
+
+        for (i in gids.indices) {
+            assertEquals(gids[i], layer.gid(i % 3, i / 3))
+        }
+    }
+
+    @Test
+    fun readsMap() {
+        val map = read("""
+        {
+          "width": 3, "height": 2, "tilewidth": 32, "tileheight": 16,
+          "editorsettings": { "export": { "target": "." } },
+          "layers": [
+            { "name": "Ground", "type": "tilelayer", "width": 3, "height": 2,
+              "visible": false, "opacity": 0.5, "x": 0, "y": 0,
+              "data": [1, 2, 0, 3, 70, 1] },
+            { "name": "Sky", "type": "imagelayer", "image": "sky.png" },
+            { "name": "spawns", "type": "objectgroup", "draworder": "topdown",
+              "objects": [
+                { "name": "skeletons", "type": "spawn", "x": 32, "y": 64.5, "width": 96, "height": 128,
+                  "rotation": 0, "visible": true,
+                  "properties": [
+                    { "name": "archetype", "type": "int", "value": 2004 },
+                    { "name": "count", "type": "int", "value": 3 } ] },
+                { "name": "old", "type": "spawn", "x": 0, "y": 0,
+                  "properties": { "archetype": "2005" } }
+              ] }
+          ],
+          "tilesets": [
+            { "firstgid": 1, "name": "terrain", "image": "../textures/terrain.png",
+              "columns": 8, "tilewidth": 32, "tileheight": 16, "margin": 1, "spacing": 2,
+              "tileproperties": { "0": { "blocked": "true" } } }
+          ]
+        }
+        """)
+
+        assertEquals(3, map.width)
+        assertEquals(2, map.height)
+        assertEquals(32, map.tileWidth)
+        assertEquals(16, map.tileHeight)
+
+        val ground = map.layers.single()
+        assertEquals("Ground", ground.name)
+        assertFalse(ground.visible)
+        assertEquals(0.5, ground.opacity, 0.0)
+        assertGids(ground)
+
+        val tileset = map.tilesets.single()
+        assertEquals(1, tileset.firstGid)
+        assertEquals("terrain", tileset.name)
+        assertEquals("terrain.png", tileset.imageName)
+        assertEquals(8, tileset.columns)
+        assertEquals(32, tileset.tileWidth)
+        assertEquals(16, tileset.tileHeight)
+        assertEquals(1, tileset.margin)
+        assertEquals(2, tileset.spacing)
+
+        val spawns = map.objectGroups.single()
+        assertEquals("spawns", spawns.name)
+        assertEquals(2, spawns.objects.size)
+
+        val skeletons = spawns.objects[0]
+        assertEquals("skeletons", skeletons.name)
+        assertEquals("spawn", skeletons.type)
+        assertEquals(32.0, skeletons.x, 0.0)
+        assertEquals(64.5, skeletons.y, 0.0)
+        assertEquals(96.0, skeletons.width, 0.0)
+        assertEquals(128.0, skeletons.height, 0.0)
+        assertEquals(mapOf("archetype" to "2004", "count" to "3"), skeletons.properties)
+
+        assertEquals(mapOf("archetype" to "2005"), spawns.objects[1].properties)
+    }
+
+    @Test
+    fun flipFlagsAreCleared() {
+        val map = read(mapWithLayer("""
+            { "name": "l", "type": "tilelayer", "width": 3, "height": 2,
+              "data": [2147483649, 1073741826, 0, 536870915, 70, 3221225473] }
+            """))
+
+        assertGids(map.layers.single())
+    }
+
+    @Test
+    fun base64() {
+        val map = read(mapWithLayer("""
+            { "name": "l", "width": 3, "height": 2, "encoding": "base64",
+              "data": "${encode(gids, null)}" }
+            """))
+
+        assertGids(map.layers.single())
+    }
+
+    @Test
+    fun base64Zlib() {
+        val map = read(mapWithLayer("""
+            { "name": "l", "width": 3, "height": 2, "encoding": "base64", "compression": "zlib",
+              "data": "${encode(gids) { DeflaterOutputStream(it) }}" }
+            """))
+
+        assertGids(map.layers.single())
+    }
+
+    @Test
+    fun base64Gzip() {
+        val flipped = gids.copyOf()
+        flipped[0] = flipped[0] or Integer.MIN_VALUE
+
+        val map = read(mapWithLayer("""
+            { "name": "l", "width": 3, "height": 2, "encoding": "base64", "compression": "gzip",
+              "data": "${encode(flipped) { GZIPOutputStream(it) }}" }
+            """))
+
+        assertGids(map.layers.single())
+    }
+
+    @Test
+    fun layerWithoutDataIsEmpty() {
+        val layer = read(mapWithLayer("""{ "name": "l", "width": 3, "height": 2 }""")).layers.single()
+
+        for (i in gids.indices) {
+            assertEquals(0, layer.gid(i % 3, i / 3))
+        }
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun unsupportedCompression() {
+        read(mapWithLayer("""
+            { "name": "l", "width": 3, "height": 2, "encoding": "base64", "compression": "zstd",
+              "data": "${encode(gids, null)}" }
+            """))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun externalTileset() {
+        read("""{ "width": 1, "height": 1, "tilesets": [ { "firstgid": 1, "source": "terrain.tsx" } ] }""")
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun malformed() {
+        read("""[ 1, 2, 3 ]""")
+    }
+
+    @Test
+    fun imageName() {
+        assertEquals("terrain.png", TiledJsonReader.imageName("../../textures/terrain.png"))
+        assertEquals("terrain.png", TiledJsonReader.imageName("terrain.png"))
+    }
+}
@@ -0,0 +1,166 @@
+package com.almasb.zeph.world
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.util.*
+
+/**
+ * Merging, pickup and expiry of [GroundLoot].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class GroundLootTest {
+
+    private class Drop(val itemID: Int, val count: Int, val x: Double, val y: Double)
+
+    private fun dropsIn(loot: GroundLoot, minX: Double, minY: Double, maxX: Double, maxY: Double): List<Drop> {
+        val drops = ArrayList<Drop>()
+
+        loot.forEachIn(minX, minY, maxX, maxY, object : GroundLoot.Visitor {
+            override fun visit(itemID: Int, count: Int, x: Double, y: Double) {
+                drops.add(Drop(itemID, count, x, y))
+            }
+        })
+
+        return drops
+    }
+
+    private fun pickAll(loot: GroundLoot, x: Double, y: Double, radius: Double): Int {
+        return loot.pickup(x, y, radius, object : GroundLoot.Picker {
+            override fun pick(itemID: Int, count: Int) = true
+        })
+    }
+
+    @Test
+    fun nearbyDropsOfSameItemMerge() {
+        val loot = GroundLoot(1000.0, 1000.0)
+
+        loot.drop(1, 2, 100.0, 100.0)
+        loot.drop(1, 3, 110.0, 120.0)
+        loot.drop(2, 1, 100.0, 100.0)
+        loot.drop(1, 1, 200.0, 100.0)
+
+        assertEquals(3, loot.size)
+
+        val drops = dropsIn(loot, 90.0, 90.0, 130.0, 130.0)
+        val merged = drops.first { it.itemID == 1 }
+
+        assertEquals(2, drops.size)
+        assertEquals(5, merged.count)
+
+        // merged drop keeps its position
+        assertEquals(100.0, merged.x, 0.0)
+        assertEquals(100.0, merged.y, 0.0)
+    }
+
+    @Test
+    fun mergeAcrossBuckets() {
+        val loot = GroundLoot(1000.0, 1000.0, bucketSize = 64.0)
+
+        loot.drop(1, 1, 60.0, 60.0)
+        loot.drop(1, 1, 70.0, 70.0)
+
+        assertEquals(1, loot.size)
+    }
+
+    @Test
+    fun pickupInRadius() {
+        val loot = GroundLoot(1000.0, 1000.0, bucketSize = 64.0)
+
+        loot.drop(1, 1, 100.0, 100.0)
+        loot.drop(2, 1, 130.0, 100.0)
+        loot.drop(3, 1, 300.0, 300.0)
+
+        assertEquals(2, pickAll(loot, 110.0, 100.0, 40.0))
+        assertEquals(1, loot.size)
+        assertEquals(3, dropsIn(loot, 0.0, 0.0, 1000.0, 1000.0).single().itemID)
+    }
+
+    @Test
+    fun pickerMayDecline() {
+        val loot = GroundLoot(1000.0, 1000.0)
+
+        loot.drop(1, 1, 100.0, 100.0)
+        loot.drop(2, 1, 100.0, 100.0)
+
+        val picked = loot.pickup(100.0, 100.0, 10.0, object : GroundLoot.Picker {
+            override fun pick(itemID: Int, count: Int) = itemID == 2
+        })
+
+        assertEquals(1, picked)
+        assertEquals(1, dropsIn(loot, 0.0, 0.0, 1000.0, 1000.0).single().itemID)
+    }
+
+    @Test
+    fun dropsExpire() {
+        val loot = GroundLoot(1000.0, 1000.0, lifetime = 10.0)
+
+        loot.drop(1, 1, 100.0, 100.0)
+        loot.onUpdate(5.0)
+        loot.drop(2, 1, 500.0, 500.0)
+
+        loot.onUpdate(6.0)
+        assertEquals(1, loot.size)
+        assertEquals(2, dropsIn(loot, 0.0, 0.0, 1000.0, 1000.0).single().itemID)
+
+        loot.onUpdate(5.0)
+        assertEquals(0, loot.size)
+    }
+
+    @Test
+    fun mergeRefreshesExpiry() {
+        val loot = GroundLoot(1000.0, 1000.0, lifetime = 10.0)
+
+        loot.drop(1, 1, 100.0, 100.0)
+        loot.onUpdate(8.0)
+        loot.drop(1, 1, 100.0, 100.0)
+
+        loot.onUpdate(8.0)
+        assertEquals(1, loot.size)
+        assertEquals(2, dropsIn(loot, 0.0, 0.0, 1000.0, 1000.0).single().count)
+
+        loot.onUpdate(3.0)
+        assertEquals(0, loot.size)
+    }
+
+    @Test
+    fun reusedSlotIsNotExpiredByOldEntry() {
+        val loot = GroundLoot(1000.0, 1000.0, lifetime = 10.0)
+
+        loot.drop(1, 1, 100.0, 100.0)
+        pickAll(loot, 100.0, 100.0, 10.0)
+
+        loot.onUpdate(5.0)
+        loot.drop(2, 1, 100.0, 100.0)
+
+        // first drop's expiry entry is due now, the new drop must survive it
+        loot.onUpdate(6.0)
+        assertEquals(1, loot.size)
+
+        loot.onUpdate(5.0)
+        assertEquals(0, loot.size)
+    }
+
+    @Test
+    fun positionsOutsideWorldAreClamped() {
+        val loot = GroundLoot(500.0, 500.0, bucketSize = 100.0)
+
+        loot.drop(1, 1, -50.0, 800.0)
+
+        assertEquals(1, dropsIn(loot, -100.0, 700.0, 0.0, 900.0).size)
+        assertEquals(1, pickAll(loot, -50.0, 800.0, 5.0))
+    }
+
+    @Test
+    fun manyDropsInOneBucket() {
+        val loot = GroundLoot(1000.0, 1000.0, mergeRadius = 1.0)
+
+        for (i in 0..99) {
+            loot.drop(i, 1, 10.0 + i, 10.0)
+        }
+
+        assertEquals(100, loot.size)
+        assertEquals(100, pickAll(loot, 60.0, 10.0, 60.0))
+        assertEquals(0, loot.size)
+    }
+}